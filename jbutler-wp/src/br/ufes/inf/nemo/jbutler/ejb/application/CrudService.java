@@ -1,5 +1,9 @@
 package br.ufes.inf.nemo.jbutler.ejb.application;
 
+import java.util.Collection;
+import java.util.Map;
+
+import br.ufes.inf.nemo.jbutler.ejb.persistence.BatchStatistics;
 import br.ufes.inf.nemo.jbutler.ejb.persistence.PersistentObject;
 
 /**
@@ -82,6 +86,18 @@ public interface CrudService<T extends PersistentObject> extends ListingService<
 	 */
 	T retrieve(Long id);
 
+	/**
+	 * Retrieves an existing entity from the persistent store, given its ID, in order to display it in a form. Attributes
+	 * that the form needs (see CrudServiceBean.getFormFetchPlan()) are loaded together with the entity. If there are no
+	 * such attributes, this is the same as retrieve().
+	 * 
+	 * @param id
+	 *            The ID of the existing entity.
+	 * 
+	 * @return The existing entity or <code>null</code>, if the given ID doesn't correspond to any entities.
+	 */
+	T retrieveForForm(Long id);
+
 	/**
 	 * Updates the data of an existing entity in the persistent store.
 	 * 
@@ -97,4 +113,48 @@ public interface CrudService<T extends PersistentObject> extends ListingService<
 	 *            An existing entity object to be deleted.
 	 */
 	void delete(T entity);
+
+	/**
+	 * Creates many new entities of the manipulated class at once. Entities are validated one by one, like in create(),
+	 * and then persisted in chunks, which is much faster than calling create() for each of them.
+	 * 
+	 * @param entities
+	 *            New entity objects to be persisted.
+	 * 
+	 * @return Statistics on the chunks in which the entities were persisted.
+	 */
+	BatchStatistics createAll(Collection<T> entities);
+
+	/**
+	 * Updates the data of many existing entities at once. Entities are validated one by one, like in update(), and then
+	 * persisted in chunks.
+	 * 
+	 * @param entities
+	 *            Existing entity objects to be persisted.
+	 * 
+	 * @return Statistics on the chunks in which the entities were persisted.
+	 */
+	BatchStatistics updateAll(Collection<T> entities);
+
+	/**
+	 * Deletes many existing entities at once, removing them from the persistent store in chunks.
+	 * 
+	 * @param entities
+	 *            Existing entity objects to be deleted.
+	 * 
+	 * @return Statistics on the chunks in which the entities were deleted.
+	 */
+	BatchStatistics deleteAll(Collection<T> entities);
+
+	/**
+	 * Validates the deletion of many entities and deletes the ones that pass validation, all at once (in a single
+	 * transaction). Entities that fail validation are not deleted and don't prevent the others from being deleted.
+	 * 
+	 * @param entities
+	 *            Existing entity objects to be deleted.
+	 * 
+	 * @return The entities that failed validation, each associated with the exception produced by validateDelete() (an
+	 *         empty map if all entities were deleted).
+	 */
+	Map<T, CrudException> deleteBatch(Collection<T> entities);
 }
@@ -1,11 +1,19 @@
 package br.ufes.inf.nemo.jbutler.ejb.application;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.annotation.security.PermitAll;
 
 import br.ufes.inf.nemo.jbutler.ReflectionUtil;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.BatchStatistics;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.FetchPlan;
 import br.ufes.inf.nemo.jbutler.ejb.persistence.PersistentObject;
 
 /**
@@ -78,6 +86,28 @@ public abstract class CrudServiceBean<T extends PersistentObject> extends Listin
 		return newEntity;
 	}
 
+	/**
+	 * Indicates if delete() should retrieve the entity from the persistent store before deleting it, which is needed if
+	 * the subclass' log() needs the real entity instead of the one coming from the presentation layer. Default
+	 * implementation returns <code>false</code>, so entities are deleted without being loaded (see BaseDAO.delete()).
+	 * 
+	 * @return <code>true</code> if the entity should be loaded before deletion, <code>false</code> otherwise.
+	 */
+	protected boolean isLoadBeforeDeleteRequired() {
+		return false;
+	}
+
+	/**
+	 * Provides the attributes that should be loaded together with an entity that is going to be displayed in a form,
+	 * e.g., lazy associations that are shown or edited in it. Default implementation returns null, i.e., entities are
+	 * retrieved as usual (with retrieve()) and fetchLazy() is left to the subclasses.
+	 * 
+	 * @return The fetch plan used by retrieveForForm() and fetchLazy(), or <code>null</code> if there is none.
+	 */
+	protected FetchPlan getFormFetchPlan() {
+		return null;
+	}
+
 	/**
 	 * Logs operations over one entity, i.e., creation, retrieval, udpate or deletion of an entity. Default
 	 * implementation does nothing, so logging is optional in the subclasses.
@@ -185,6 +215,19 @@ public abstract class CrudServiceBean<T extends PersistentObject> extends Listin
 		return entity;
 	}
 
+	/** @see br.ufes.inf.nemo.jbutler.ejb.application.CrudService#retrieveForForm(java.lang.Long) */
+	@Override
+	public T retrieveForForm(Long id) {
+		// Without a fetch plan, retrieves the entity as usual (which subclasses may have overridden).
+		FetchPlan plan = getFormFetchPlan();
+		if ((plan == null) || plan.isEmpty()) return retrieve(id);
+
+		// Retrieves the real entity from the database, with the attributes needed by the form.
+		T entity = getDAO().retrieveById(id, plan);
+		log(CrudOperation.RETRIEVE, entity);
+		return entity;
+	}
+
 	/** @see br.ufes.inf.nemo.jbutler.ejb.application.CrudService#update(br.ufes.inf.nemo.jbutler.ejb.persistence.PersistentObject) */
 	@Override
 	public void update(T entity) {
@@ -199,12 +242,100 @@ public abstract class CrudServiceBean<T extends PersistentObject> extends Listin
 	/** @see br.ufes.inf.nemo.jbutler.ejb.application.CrudService#delete(br.ufes.inf.nemo.jbutler.ejb.persistence.PersistentObject) */
 	@Override
 	public void delete(T entity) {
-		// Retrieves the real entity from the database.
-		entity = getDAO().retrieveById(entity.getId());
+		// Retrieves the real entity from the database, if required by the subclass.
+		if (isLoadBeforeDeleteRequired()) entity = getDAO().retrieveById(entity.getId());
 		if (entity != null) {
 			// Deletes the entity.
 			getDAO().delete(entity);
 			log(CrudOperation.DELETE, entity);
 		}
 	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.application.CrudService#createAll(java.util.Collection) */
+	@Override
+	public BatchStatistics createAll(Collection<T> entities) {
+		// Validates the entities before persisting.
+		List<T> validated = new ArrayList<T>(entities.size());
+		for (T entity : entities) {
+			entity = validate(entity, null);
+			log(CrudOperation.CREATE, entity);
+			validated.add(entity);
+		}
+
+		// Save the entities.
+		BatchStatistics statistics = getDAO().saveAll(validated);
+		logger.log(Level.FINE, "Created {0} entities: {1}", new Object[] { validated.size(), statistics });
+		return statistics;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.application.CrudService#updateAll(java.util.Collection) */
+	@Override
+	public BatchStatistics updateAll(Collection<T> entities) {
+		// Validates the entities before persisting.
+		List<T> validated = new ArrayList<T>(entities.size());
+		for (T entity : entities) {
+			entity = validate(entity, getDAO().retrieveById(entity.getId()));
+			log(CrudOperation.UPDATE, entity);
+			validated.add(entity);
+		}
+
+		// Save the entities.
+		BatchStatistics statistics = getDAO().saveAll(validated);
+		logger.log(Level.FINE, "Updated {0} entities: {1}", new Object[] { validated.size(), statistics });
+		return statistics;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.application.CrudService#deleteAll(java.util.Collection) */
+	@Override
+	public BatchStatistics deleteAll(Collection<T> entities) {
+		// Retrieves the real entities from the database, if required by the subclass (like in delete()), so they are the
+		// ones deleted and logged. Entities that no longer exist are skipped.
+		if (isLoadBeforeDeleteRequired()) {
+			List<Long> ids = new ArrayList<Long>(entities.size());
+			for (T entity : entities)
+				ids.add(entity.getId());
+			entities = getDAO().retrieveByIds(ids);
+		}
+
+		// Deletes the entities.
+		BatchStatistics statistics = getDAO().deleteAll(entities);
+		for (T entity : entities)
+			log(CrudOperation.DELETE, entity);
+		logger.log(Level.FINE, "Deleted {0} entities: {1}", new Object[] { entities.size(), statistics });
+		return statistics;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.application.CrudService#deleteBatch(java.util.Collection) */
+	@Override
+	public Map<T, CrudException> deleteBatch(Collection<T> entities) {
+		Map<T, CrudException> failures = new LinkedHashMap<T, CrudException>();
+		List<T> survivors = new ArrayList<T>(entities.size());
+
+		// Validates all exclusions first, but don't stop in case of errors.
+		for (T entity : entities)
+			try {
+				validateDelete(entity);
+				survivors.add(entity);
+			}
+			catch (CrudException crudException) {
+				logger.log(Level.FINE, "Entity {0} failed validation for deletion: {1}", new Object[] { entity, crudException.getMessage() });
+				failures.put(entity, crudException);
+			}
+
+		// Deletes the entities that passed validation, in chunks.
+		if (!survivors.isEmpty()) deleteAll(survivors);
+		return failures;
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.application.ListingServiceBean#fetchLazy(br.ufes.inf.nemo.jbutler.ejb.persistence.PersistentObject)
+	 */
+	@Override
+	public T fetchLazy(T entity) {
+		// Loads the attributes of the form fetch plan, if any. Entities that already have them loaded are left untouched.
+		FetchPlan plan = getFormFetchPlan();
+		if ((entity == null) || (plan == null) || plan.isEmpty()) return super.fetchLazy(entity);
+		List<T> fetched = getDAO().fetch(Collections.singletonList(entity), plan);
+		return fetched.get(0);
+	}
 }
@@ -5,6 +5,10 @@ import java.util.List;
 
 import br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter;
 import br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.CountStrategy;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.EntityPage;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.EntityRow;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.KeysetCursor;
 import br.ufes.inf.nemo.jbutler.ejb.persistence.PersistentObject;
 
 /**
@@ -37,6 +41,17 @@ public interface ListingService<T extends PersistentObject> extends Serializable
 	 */
 	long count();
 
+	/**
+	 * Informs how many persistent objects of the manipulated class exist in the persistent store, counted using the given
+	 * strategy.
+	 * 
+	 * @param strategy
+	 *            How the objects should be counted (exactly, reusing a recent count or estimating).
+	 * 
+	 * @return The (possibly approximate) persistent object count.
+	 */
+	long count(CountStrategy strategy);
+
 	/**
 	 * Informs how many persistent objects of the manipulated class match the filter criteria.
 	 * 
@@ -49,6 +64,21 @@ public interface ListingService<T extends PersistentObject> extends Serializable
 	 */
 	long countFiltered(Filter<?> filterType, String filter);
 
+	/**
+	 * Informs how many persistent objects of the manipulated class match the filter criteria, counted using the given
+	 * strategy.
+	 * 
+	 * @param filterType
+	 *            The type of filtering.
+	 * @param filter
+	 *            The search string for the filtering.
+	 * @param strategy
+	 *            How the objects should be counted (exactly, reusing a recent count or estimating).
+	 * 
+	 * @return The (possibly approximate) persistent object count.
+	 */
+	long countFiltered(Filter<?> filterType, String filter, CountStrategy strategy);
+
 	/**
 	 * List existing entities, given a range.
 	 * 
@@ -73,6 +103,214 @@ public interface ListingService<T extends PersistentObject> extends Serializable
 	 */
 	List<T> filter(Filter<?> filter, String filterParam, int ... interval);
 
+	/**
+	 * List existing entities given a range counted from the end of the listing. Used to display the last pages of a
+	 * listing without making the persistent store skip all the entities that come before them.
+	 * 
+	 * @param interval
+	 *            Array of size 2 with the interval [a, b) counted from the end (retrieves the a-th to the (b-1)-th last
+	 *            objects, where the 0-th last is the last object).
+	 * 
+	 * @return A list of existing entities in the given range, in the regular listing order (an empty list if none
+	 *         exist).
+	 */
+	List<T> listFromEnd(int ... interval);
+
+	/**
+	 * List existing entities given a filter and a range counted from the end of the listing.
+	 * 
+	 * @param filter
+	 *            Type of filter to apply.
+	 * @param filterParam
+	 *            Filter parameter.
+	 * @param interval
+	 *            Array of size 2 with the interval [a, b) counted from the end (retrieves the a-th to the (b-1)-th last
+	 *            objects, where the 0-th last is the last object).
+	 * 
+	 * @return A list of existing entities in the given range that match the given filter, in the regular listing order
+	 *         (an empty list if none exist).
+	 */
+	List<T> filterFromEnd(Filter<?> filter, String filterParam, int ... interval);
+
+	/**
+	 * List existing entities that come after the given cursor, using keyset (seek) pagination. The cost of this
+	 * operation does not depend on how deep in the listing the cursor is.
+	 * 
+	 * @param cursor
+	 *            The position after which entities should be listed, obtained from the DAO. If <code>null</code>, lists
+	 *            from the beginning.
+	 * @param maxResults
+	 *            The maximum number of entities to list.
+	 * 
+	 * @return A list of existing entities that follow the cursor (an empty list if none exist).
+	 */
+	List<T> listAfter(KeysetCursor cursor, int maxResults);
+
+	/**
+	 * List existing entities given a filter that come after the given cursor, using keyset (seek) pagination.
+	 * 
+	 * @param filter
+	 *            Type of filter to apply.
+	 * @param filterParam
+	 *            Filter parameter.
+	 * @param cursor
+	 *            The position after which entities should be listed, obtained from the DAO. If <code>null</code>, lists
+	 *            from the beginning.
+	 * @param maxResults
+	 *            The maximum number of entities to list.
+	 * 
+	 * @return A list of existing entities that match the given filter and follow the cursor (an empty list if none
+	 *         exist).
+	 */
+	List<T> filterAfter(Filter<?> filter, String filterParam, KeysetCursor cursor, int maxResults);
+
+	/**
+	 * List existing entities given a range, together with the total number of entities, in a single call. Listing
+	 * screens should prefer this method over calling count() and list() separately.
+	 * 
+	 * @param cursor
+	 *            The position of the entity that precedes the range, obtained from the DAO, or <code>null</code> if
+	 *            unknown.
+	 * @param interval
+	 *            Array of size 2 with the interval [a, b) (retrieves objects from index a through b-1).
+	 * 
+	 * @return A page with the existing entities in the given range and the total number of existing entities.
+	 */
+	EntityPage<T> listPage(KeysetCursor cursor, int ... interval);
+
+	/**
+	 * List existing entities given a range, together with the total number of entities counted using the given strategy.
+	 * 
+	 * @param strategy
+	 *            How the entities should be counted (exactly, reusing a recent count or estimating).
+	 * @param cursor
+	 *            The position of the entity that precedes the range, obtained from the DAO, or <code>null</code> if
+	 *            unknown.
+	 * @param interval
+	 *            Array of size 2 with the interval [a, b) (retrieves objects from index a through b-1).
+	 * 
+	 * @return A page with the existing entities in the given range and the (possibly approximate) total number of
+	 *         existing entities.
+	 */
+	EntityPage<T> listPage(CountStrategy strategy, KeysetCursor cursor, int ... interval);
+
+	/**
+	 * List existing entities given a filter and a range, together with the total number of entities that match the
+	 * filter, in a single call.
+	 * 
+	 * @param filter
+	 *            Type of filter to apply.
+	 * @param filterParam
+	 *            Filter parameter.
+	 * @param cursor
+	 *            The position of the entity that precedes the range, obtained from the DAO, or <code>null</code> if
+	 *            unknown.
+	 * @param interval
+	 *            Array of size 2 with the interval [a, b) (retrieves objects from index a through b-1).
+	 * 
+	 * @return A page with the existing entities in the given range that match the given filter and the total number of
+	 *         entities that match it.
+	 */
+	EntityPage<T> filterPage(Filter<?> filter, String filterParam, KeysetCursor cursor, int ... interval);
+
+	/**
+	 * List existing entities given a filter and a range, together with the total number of entities that match the
+	 * filter counted using the given strategy.
+	 * 
+	 * @param filter
+	 *            Type of filter to apply.
+	 * @param filterParam
+	 *            Filter parameter.
+	 * @param strategy
+	 *            How the entities should be counted (exactly, reusing a recent count or estimating).
+	 * @param cursor
+	 *            The position of the entity that precedes the range, obtained from the DAO, or <code>null</code> if
+	 *            unknown.
+	 * @param interval
+	 *            Array of size 2 with the interval [a, b) (retrieves objects from index a through b-1).
+	 * 
+	 * @return A page with the existing entities in the given range that match the given filter and the (possibly
+	 *         approximate) total number of entities that match it.
+	 */
+	EntityPage<T> filterPage(Filter<?> filter, String filterParam, CountStrategy strategy, KeysetCursor cursor, int ... interval);
+
+	/**
+	 * List only some attributes of existing entities given a range, i.e., lightweight rows instead of whole entities.
+	 * 
+	 * @param paths
+	 *            The paths of the attributes to be listed, separated by dots for attributes of associated entities.
+	 * @param interval
+	 *            Array of size 2 with the interval [a, b) (retrieves rows from index a through b-1).
+	 * 
+	 * @return A list of rows of existing entities in the given range (an empty list if none exist).
+	 */
+	List<EntityRow> listRows(String[] paths, int ... interval);
+
+	/**
+	 * List only some attributes of existing entities given a filter and a range, i.e., lightweight rows instead of whole
+	 * entities.
+	 * 
+	 * @param filter
+	 *            Type of filter to apply.
+	 * @param filterParam
+	 *            Filter parameter.
+	 * @param paths
+	 *            The paths of the attributes to be listed, separated by dots for attributes of associated entities.
+	 * @param interval
+	 *            Array of size 2 with the interval [a, b) (retrieves rows from index a through b-1).
+	 * 
+	 * @return A list of rows of existing entities in the given range that match the given filter (an empty list if none
+	 *         exist).
+	 */
+	List<EntityRow> filterRows(Filter<?> filter, String filterParam, String[] paths, int ... interval);
+
+	/**
+	 * List only some attributes of existing entities given a range, together with the number of existing entities,
+	 * counted using the given strategy, in a single call.
+	 * 
+	 * @param paths
+	 *            The paths of the attributes to be listed, separated by dots for attributes of associated entities.
+	 * @param strategy
+	 *            How the entities should be counted (exactly, reusing a recent count or estimating).
+	 * @param interval
+	 *            Array of size 2 with the interval [a, b) (retrieves rows from index a through b-1).
+	 * 
+	 * @return A page with the rows of existing entities in the given range and the (possibly approximate) total number
+	 *         of existing entities.
+	 */
+	EntityPage<EntityRow> listRowPage(String[] paths, CountStrategy strategy, int ... interval);
+
+	/**
+	 * List only some attributes of existing entities given a filter and a range, together with the number of entities
+	 * that match the filter, counted using the given strategy, in a single call.
+	 * 
+	 * @param filter
+	 *            Type of filter to apply.
+	 * @param filterParam
+	 *            Filter parameter.
+	 * @param paths
+	 *            The paths of the attributes to be listed, separated by dots for attributes of associated entities.
+	 * @param strategy
+	 *            How the entities should be counted (exactly, reusing a recent count or estimating).
+	 * @param interval
+	 *            Array of size 2 with the interval [a, b) (retrieves rows from index a through b-1).
+	 * 
+	 * @return A page with the rows of existing entities in the given range that match the given filter and the
+	 *         (possibly approximate) total number of entities that match it.
+	 */
+	EntityPage<EntityRow> filterRowPage(Filter<?> filter, String filterParam, String[] paths, CountStrategy strategy, int ... interval);
+
+	/**
+	 * Retrieves an existing entity from the persistent store, given its ID, e.g., the entity of a row that has been
+	 * selected in a listing that shows only some attributes of the entities.
+	 * 
+	 * @param id
+	 *            The ID of the existing entity.
+	 * 
+	 * @return The existing entity or <code>null</code>, if the given ID doesn't correspond to any entities.
+	 */
+	T retrieve(Long id);
+
 	/**
 	 * Fetches all lazy attributes of the entity from the persistent store. If there are no lazy attributes, this method
 	 * should return the entity itself.
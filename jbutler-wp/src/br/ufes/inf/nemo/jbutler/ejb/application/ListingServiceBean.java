@@ -8,6 +8,11 @@ import java.util.logging.Logger;
 import javax.annotation.security.PermitAll;
 
 import br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.CountStrategy;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.EntityPage;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.EntityRow;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.FetchPlan;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.KeysetCursor;
 import br.ufes.inf.nemo.jbutler.ejb.persistence.PersistentObject;
 
 /**
@@ -39,6 +44,17 @@ public abstract class ListingServiceBean<T extends PersistentObject> implements
 		return null;
 	}
 
+	/**
+	 * Provides the attributes that should be loaded together with the entities of a listing, e.g., lazy associations that
+	 * are shown in the listing's columns. Default implementation returns null, i.e., entities are listed as they are
+	 * retrieved. Subclasses should override it to avoid loading these attributes entity by entity while rendering.
+	 * 
+	 * @return The fetch plan used by list(), filter() and the like, or <code>null</code> if there is none.
+	 */
+	protected FetchPlan getListingFetchPlan() {
+		return null;
+	}
+
 	/**
 	 * Logs operations over many entities, i.e., listing of entities. Default implementation does nothing, so logging is
 	 * optional in the subclasses.
@@ -69,6 +85,16 @@ public abstract class ListingServiceBean<T extends PersistentObject> implements
 		else return getDAO().retrieveFilteredCount(mandatoryFilter.getKey(), mandatoryFilter.getValue());
 	}
 
+	/** @see br.ufes.inf.nemo.jbutler.ejb.application.ListingService#count(br.ufes.inf.nemo.jbutler.ejb.persistence.CountStrategy) */
+	@Override
+	public long count(CountStrategy strategy) {
+		Map.Entry<Filter<?>, String> mandatoryFilter = getMandatoryFilter();
+
+		logger.log(Level.FINER, "Retrieving the object count using {0} strategy (mandatory filter: {1})...", new Object[] { strategy, (mandatoryFilter == null ? "none" : mandatoryFilter.getClass().getSimpleName()) });
+		if (mandatoryFilter == null) return getDAO().retrieveCount(strategy);
+		else return getDAO().retrieveFilteredCount(new Filter<?>[] { mandatoryFilter.getKey() }, new String[] { mandatoryFilter.getValue() }, strategy);
+	}
+
 	/**
 	 * @see br.ufes.inf.nemo.jbutler.ejb.application.ListingService#countFiltered(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter,
 	 *      java.lang.String)
@@ -82,12 +108,26 @@ public abstract class ListingServiceBean<T extends PersistentObject> implements
 		else return getDAO().retrieveFilteredCount(new Filter<?>[] { filter, mandatoryFilter.getKey() }, new String[] { value, mandatoryFilter.getValue() });
 	}
 
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.application.ListingService#countFiltered(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter,
+	 *      java.lang.String, br.ufes.inf.nemo.jbutler.ejb.persistence.CountStrategy)
+	 */
+	@Override
+	public long countFiltered(Filter<?> filter, String value, CountStrategy strategy) {
+		Map.Entry<Filter<?>, String> mandatoryFilter = getMandatoryFilter();
+
+		logger.log(Level.FINER, "Retrieving a filtered object count using {0} strategy (filter \"{1}\" with value \"{2}\"; mandatory filter: {3})...", new Object[] { strategy, filter.getKey(), value, (mandatoryFilter == null ? "none" : mandatoryFilter.getClass().getSimpleName()) });
+		if (mandatoryFilter == null) return getDAO().retrieveFilteredCount(new Filter<?>[] { filter }, new String[] { value }, strategy);
+		else return getDAO().retrieveFilteredCount(new Filter<?>[] { filter, mandatoryFilter.getKey() }, new String[] { value, mandatoryFilter.getValue() }, strategy);
+	}
+
 	/** @see br.ufes.inf.nemo.jbutler.ejb.application.ListingService#list(int[]) */
 	@Override
 	public List<T> list(int ... interval) {
 		Map.Entry<Filter<?>, String> mandatoryFilter = getMandatoryFilter();
 
 		List<T> entities = (mandatoryFilter == null) ? getDAO().retrieveSome(interval) : getDAO().retrieveSomeWithFilter(mandatoryFilter.getKey(), mandatoryFilter.getValue(), interval);
+		entities = fetch(entities);
 		log(CrudOperation.LIST, entities, interval);
 		return entities;
 	}
@@ -101,10 +141,194 @@ public abstract class ListingServiceBean<T extends PersistentObject> implements
 		Map.Entry<Filter<?>, String> mandatoryFilter = getMandatoryFilter();
 
 		List<T> entities = (mandatoryFilter == null) ? getDAO().retrieveSomeWithFilter(filter, filterParam, interval) : getDAO().retrieveSomeWithFilters(new Filter<?>[] { filter, mandatoryFilter.getKey() }, new String[] { filterParam, mandatoryFilter.getValue() }, interval);
+		entities = fetch(entities);
 		log(CrudOperation.LIST, entities, interval);
 		return entities;
 	}
 
+	/** @see br.ufes.inf.nemo.jbutler.ejb.application.ListingService#listFromEnd(int[]) */
+	@Override
+	public List<T> listFromEnd(int ... interval) {
+		Map.Entry<Filter<?>, String> mandatoryFilter = getMandatoryFilter();
+
+		List<T> entities = (mandatoryFilter == null) ? getDAO().retrieveSomeFromEnd(interval) : getDAO().retrieveSomeWithFiltersFromEnd(new Filter<?>[] { mandatoryFilter.getKey() }, new String[] { mandatoryFilter.getValue() }, interval);
+		entities = fetch(entities);
+		log(CrudOperation.LIST, entities);
+		return entities;
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.application.ListingService#filterFromEnd(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter,
+	 *      java.lang.String, int[])
+	 */
+	@Override
+	public List<T> filterFromEnd(Filter<?> filter, String filterParam, int ... interval) {
+		Map.Entry<Filter<?>, String> mandatoryFilter = getMandatoryFilter();
+
+		List<T> entities = (mandatoryFilter == null) ? getDAO().retrieveSomeWithFiltersFromEnd(new Filter<?>[] { filter }, new String[] { filterParam }, interval) : getDAO().retrieveSomeWithFiltersFromEnd(new Filter<?>[] { filter, mandatoryFilter.getKey() }, new String[] { filterParam, mandatoryFilter.getValue() }, interval);
+		entities = fetch(entities);
+		log(CrudOperation.LIST, entities);
+		return entities;
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.application.ListingService#listAfter(br.ufes.inf.nemo.jbutler.ejb.persistence.KeysetCursor,
+	 *      int)
+	 */
+	@Override
+	public List<T> listAfter(KeysetCursor cursor, int maxResults) {
+		Map.Entry<Filter<?>, String> mandatoryFilter = getMandatoryFilter();
+
+		List<T> entities = (mandatoryFilter == null) ? getDAO().retrieveSomeAfter(cursor, maxResults) : getDAO().retrieveSomeWithFiltersAfter(new Filter<?>[] { mandatoryFilter.getKey() }, new String[] { mandatoryFilter.getValue() }, cursor, maxResults);
+		entities = fetch(entities);
+		log(CrudOperation.LIST, entities);
+		return entities;
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.application.ListingService#filterAfter(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter,
+	 *      java.lang.String, br.ufes.inf.nemo.jbutler.ejb.persistence.KeysetCursor, int)
+	 */
+	@Override
+	public List<T> filterAfter(Filter<?> filter, String filterParam, KeysetCursor cursor, int maxResults) {
+		Map.Entry<Filter<?>, String> mandatoryFilter = getMandatoryFilter();
+
+		List<T> entities = (mandatoryFilter == null) ? getDAO().retrieveSomeWithFiltersAfter(new Filter<?>[] { filter }, new String[] { filterParam }, cursor, maxResults) : getDAO().retrieveSomeWithFiltersAfter(new Filter<?>[] { filter, mandatoryFilter.getKey() }, new String[] { filterParam, mandatoryFilter.getValue() }, cursor, maxResults);
+		entities = fetch(entities);
+		log(CrudOperation.LIST, entities);
+		return entities;
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.application.ListingService#listPage(br.ufes.inf.nemo.jbutler.ejb.persistence.KeysetCursor,
+	 *      int[])
+	 */
+	@Override
+	public EntityPage<T> listPage(KeysetCursor cursor, int ... interval) {
+		return listPage(CountStrategy.EXACT, cursor, interval);
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.application.ListingService#listPage(br.ufes.inf.nemo.jbutler.ejb.persistence.CountStrategy,
+	 *      br.ufes.inf.nemo.jbutler.ejb.persistence.KeysetCursor, int[])
+	 */
+	@Override
+	public EntityPage<T> listPage(CountStrategy strategy, KeysetCursor cursor, int ... interval) {
+		Map.Entry<Filter<?>, String> mandatoryFilter = getMandatoryFilter();
+
+		EntityPage<T> page = (mandatoryFilter == null) ? getDAO().retrievePageWithFilters(new Filter<?>[0], new String[0], interval, cursor, strategy) : getDAO().retrievePageWithFilters(new Filter<?>[] { mandatoryFilter.getKey() }, new String[] { mandatoryFilter.getValue() }, interval, cursor, strategy);
+		page = fetch(page);
+		log(CrudOperation.LIST, page.getEntities(), interval);
+		return page;
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.application.ListingService#filterPage(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter,
+	 *      java.lang.String, br.ufes.inf.nemo.jbutler.ejb.persistence.KeysetCursor, int[])
+	 */
+	@Override
+	public EntityPage<T> filterPage(Filter<?> filter, String filterParam, KeysetCursor cursor, int ... interval) {
+		return filterPage(filter, filterParam, CountStrategy.EXACT, cursor, interval);
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.application.ListingService#filterPage(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter,
+	 *      java.lang.String, br.ufes.inf.nemo.jbutler.ejb.persistence.CountStrategy,
+	 *      br.ufes.inf.nemo.jbutler.ejb.persistence.KeysetCursor, int[])
+	 */
+	@Override
+	public EntityPage<T> filterPage(Filter<?> filter, String filterParam, CountStrategy strategy, KeysetCursor cursor, int ... interval) {
+		Map.Entry<Filter<?>, String> mandatoryFilter = getMandatoryFilter();
+
+		EntityPage<T> page = (mandatoryFilter == null) ? getDAO().retrievePageWithFilters(new Filter<?>[] { filter }, new String[] { filterParam }, interval, cursor, strategy) : getDAO().retrievePageWithFilters(new Filter<?>[] { filter, mandatoryFilter.getKey() }, new String[] { filterParam, mandatoryFilter.getValue() }, interval, cursor, strategy);
+		page = fetch(page);
+		log(CrudOperation.LIST, page.getEntities(), interval);
+		return page;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.application.ListingService#listRows(java.lang.String[], int[]) */
+	@Override
+	public List<EntityRow> listRows(String[] paths, int ... interval) {
+		Map.Entry<Filter<?>, String> mandatoryFilter = getMandatoryFilter();
+
+		List<EntityRow> rows = (mandatoryFilter == null) ? getDAO().retrieveRowsWithFilters(paths, new Filter<?>[0], new String[0], interval) : getDAO().retrieveRowsWithFilters(paths, new Filter<?>[] { mandatoryFilter.getKey() }, new String[] { mandatoryFilter.getValue() }, interval);
+		logger.log(Level.FINE, "Listed {0} rows with {1} attribute(s) in interval [{2}, {3})", new Object[] { rows.size(), paths.length, interval[0], interval[1] });
+		return rows;
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.application.ListingService#filterRows(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter,
+	 *      java.lang.String, java.lang.String[], int[])
+	 */
+	@Override
+	public List<EntityRow> filterRows(Filter<?> filter, String filterParam, String[] paths, int ... interval) {
+		Map.Entry<Filter<?>, String> mandatoryFilter = getMandatoryFilter();
+
+		List<EntityRow> rows = (mandatoryFilter == null) ? getDAO().retrieveRowsWithFilters(paths, new Filter<?>[] { filter }, new String[] { filterParam }, interval) : getDAO().retrieveRowsWithFilters(paths, new Filter<?>[] { filter, mandatoryFilter.getKey() }, new String[] { filterParam, mandatoryFilter.getValue() }, interval);
+		logger.log(Level.FINE, "Filtered {0} rows with {1} attribute(s) in interval [{2}, {3})", new Object[] { rows.size(), paths.length, interval[0], interval[1] });
+		return rows;
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.application.ListingService#listRowPage(java.lang.String[],
+	 *      br.ufes.inf.nemo.jbutler.ejb.persistence.CountStrategy, int[])
+	 */
+	@Override
+	public EntityPage<EntityRow> listRowPage(String[] paths, CountStrategy strategy, int ... interval) {
+		Map.Entry<Filter<?>, String> mandatoryFilter = getMandatoryFilter();
+
+		EntityPage<EntityRow> page = (mandatoryFilter == null) ? getDAO().retrieveRowPageWithFilters(paths, new Filter<?>[0], new String[0], interval, strategy) : getDAO().retrieveRowPageWithFilters(paths, new Filter<?>[] { mandatoryFilter.getKey() }, new String[] { mandatoryFilter.getValue() }, interval, strategy);
+		logger.log(Level.FINE, "Listed a page of rows with {0} attribute(s) in interval [{1}, {2}): {3}", new Object[] { paths.length, interval[0], interval[1], page });
+		return page;
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.application.ListingService#filterRowPage(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter,
+	 *      java.lang.String, java.lang.String[], br.ufes.inf.nemo.jbutler.ejb.persistence.CountStrategy, int[])
+	 */
+	@Override
+	public EntityPage<EntityRow> filterRowPage(Filter<?> filter, String filterParam, String[] paths, CountStrategy strategy, int ... interval) {
+		Map.Entry<Filter<?>, String> mandatoryFilter = getMandatoryFilter();
+
+		EntityPage<EntityRow> page = (mandatoryFilter == null) ? getDAO().retrieveRowPageWithFilters(paths, new Filter<?>[] { filter }, new String[] { filterParam }, interval, strategy) : getDAO().retrieveRowPageWithFilters(paths, new Filter<?>[] { filter, mandatoryFilter.getKey() }, new String[] { filterParam, mandatoryFilter.getValue() }, interval, strategy);
+		logger.log(Level.FINE, "Filtered a page of rows with {0} attribute(s) in interval [{1}, {2}): {3}", new Object[] { paths.length, interval[0], interval[1], page });
+		return page;
+	}
+
+	/**
+	 * Loads the attributes of the listing fetch plan, if any, for the given entities.
+	 * 
+	 * @param entities
+	 *          The entities of a listing.
+	 * 
+	 * @return The same entities, in the same order, with the attributes of the plan loaded.
+	 */
+	private List<T> fetch(List<T> entities) {
+		FetchPlan plan = getListingFetchPlan();
+		return ((plan == null) || plan.isEmpty()) ? entities : getDAO().fetch(entities, plan);
+	}
+
+	/**
+	 * Loads the attributes of the listing fetch plan, if any, for the entities of the given page.
+	 * 
+	 * @param page
+	 *          A page of a listing.
+	 * 
+	 * @return A page with the same entities and total, with the attributes of the plan loaded.
+	 */
+	private EntityPage<T> fetch(EntityPage<T> page) {
+		List<T> entities = page.getEntities();
+		List<T> fetched = fetch(entities);
+		return (fetched == entities) ? page : new EntityPage<T>(fetched, page.getTotal(), page.isApproximate());
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.application.ListingService#retrieve(java.lang.Long) */
+	@Override
+	public T retrieve(Long id) {
+		logger.log(Level.FINER, "Retrieving the entity with id {0}...", id);
+		return getDAO().retrieveById(id);
+	}
+
 	/**
 	 * @see br.ufes.inf.nemo.jbutler.ejb.application.ListingService#fetchLazy(br.ufes.inf.nemo.jbutler.ejb.persistence.PersistentObject)
 	 */
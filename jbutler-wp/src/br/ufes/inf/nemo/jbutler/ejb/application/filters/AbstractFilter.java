@@ -32,6 +32,9 @@ public abstract class AbstractFilter<T> implements Filter<T>, Comparable<Abstrac
 	/** The criteria to be applied to the filter query. */
 	protected List<Criterion> criteria = new ArrayList<Criterion>();
 
+	/** The type of criterion used to match the field with the value of the filter (null for the default). */
+	protected CriterionType matchType;
+
 	/**
 	 * Constructor using fields.
 	 * 
@@ -113,6 +116,26 @@ public abstract class AbstractFilter<T> implements Filter<T>, Comparable<Abstrac
 		return null;
 	}
 
+	/** @see br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter#getMatchType() */
+	@Override
+	public CriterionType getMatchType() {
+		return matchType;
+	}
+
+	/**
+	 * Setter for matchType. Simple and like filters compare the field with the value of the filter using = and LIKE
+	 * '%value%', respectively. The latter cannot use indexes, so controllers that list many objects may choose a faster
+	 * strategy, such as STARTS_WITH or EQUALS_IGNORE_CASE, trading substring matching for speed. Other filter types
+	 * ignore this setting.
+	 * 
+	 * @param matchType
+	 *            The type of criterion used to match the field with the value of the filter or <code>null</code>, to use
+	 *            the default of the filter type.
+	 */
+	public void setMatchType(CriterionType matchType) {
+		this.matchType = matchType;
+	}
+
 	/** @see br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter#getCriteria() */
 	@Override
 	public List<Criterion> getCriteria() {
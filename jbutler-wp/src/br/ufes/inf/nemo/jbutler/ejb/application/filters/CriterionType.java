@@ -6,7 +6,7 @@ package br.ufes.inf.nemo.jbutler.ejb.application.filters;
  * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
  * 
  * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
- * @version 1.1
+ * @version 1.2
  */
 public enum CriterionType {
 	/** "field-name is null" criterion. */
@@ -22,5 +22,23 @@ public enum CriterionType {
 	BOOLEAN,
 
 	/** "field-name like '%value%'" criterion. */
-	LIKE;
+	LIKE,
+
+	/** "field-name like 'value%'" criterion, which unlike LIKE can use an index over the field (it's case-sensitive). */
+	STARTS_WITH,
+
+	/** "lower(field-name) = lower(value)" criterion, which can use an index over the lower-cased field. */
+	EQUALS_IGNORE_CASE,
+
+	/** "field-name in (value1, value2, ...)" criterion. Values are given as a collection or separated by commas. */
+	IN,
+
+	/** "field-name between value1 and value2" criterion. Values are given as a collection or separated by commas. */
+	BETWEEN,
+
+	/** "field-name &gt; value" criterion. */
+	GREATER_THAN,
+
+	/** "field-name &lt; value" criterion. */
+	LESS_THAN;
 }
@@ -84,6 +84,14 @@ public interface Filter<T> extends Serializable {
 	 */
 	String getSubFieldNames();
 
+	/**
+	 * Getter for matchType.
+	 * 
+	 * @return The type of criterion used to match the field with the value of the filter or <code>null</code>, if the
+	 *         default of the filter type is used.
+	 */
+	CriterionType getMatchType();
+
 	/**
 	 * Getter for criteria.
 	 * 
@@ -1,14 +1,16 @@
 package br.ufes.inf.nemo.jbutler.ejb.application.filters;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Many-to-many filters can be used when the thing we need to filter is an entity associated with the filtered entities
  * by a many-to-many association. In this case, subFieldNames must contain a comma-separated list of fields of the
  * associated entity, while joinedCriteria should contain an optional list of criteria to be applied to parameters of
- * the associated entity (much like criteria holds for the filtered entity. In the persistence layer, the database will
- * perform an inner join between the filtered entity and the associated entity and apply the criteria to both.
+ * the associated entity (much like criteria holds for the filtered entity. In the persistence layer, the query checks
+ * if there exists an associated entity that satisfies the joined criteria and the filter (a correlated EXISTS
+ * subquery), so each filtered entity is returned only once, no matter how many associated entities match.
  * 
  * As an example, imagine a scenario where products can participate in offers (promotions). Offers can contain many
  * products and products can participate in many offers, given that offers have a starting and ending date. If an offer
@@ -28,6 +30,9 @@ public class ManyToManyFilter extends AbstractFilter<Void> {
 	/** Fields to filter in the associated entity, separated by a comma (","). */
 	protected String subFieldNames;
 
+	/** Fields to filter in the associated entity, parsed from subFieldNames when the filter is created. */
+	protected List<String> subFieldNameList;
+
 	/** Criteria to be applied to the associated entity. */
 	protected List<Criterion> joinedCriteria = new ArrayList<Criterion>();
 
@@ -46,6 +51,7 @@ public class ManyToManyFilter extends AbstractFilter<Void> {
 	public ManyToManyFilter(String key, String fieldName, String label, String subFieldNames) {
 		super(key, fieldName, label);
 		this.subFieldNames = subFieldNames;
+		this.subFieldNameList = parseSubFieldNames(subFieldNames);
 	}
 
 	/**
@@ -68,6 +74,7 @@ public class ManyToManyFilter extends AbstractFilter<Void> {
 	public ManyToManyFilter(String key, String fieldName, String label, String subFieldNames, boolean joinCriteria, Criterion ... criteria) {
 		super(key, fieldName, label);
 		this.subFieldNames = subFieldNames;
+		this.subFieldNameList = parseSubFieldNames(subFieldNames);
 
 		// Adds the criteria to the entity or the joined entity, depending on the choice.
 		if (joinCriteria) {
@@ -101,6 +108,7 @@ public class ManyToManyFilter extends AbstractFilter<Void> {
 	public ManyToManyFilter(String key, String fieldName, String label, String subFieldNames, Criterion[] criteria, Criterion[] joinedCriteria) {
 		super(key, fieldName, label, criteria);
 		this.subFieldNames = subFieldNames;
+		this.subFieldNameList = parseSubFieldNames(subFieldNames);
 		for (Criterion criterion : joinedCriteria) {
 			this.joinedCriteria.add(criterion);
 		}
@@ -112,6 +120,15 @@ public class ManyToManyFilter extends AbstractFilter<Void> {
 		return subFieldNames;
 	}
 
+	/**
+	 * Getter for subFieldNameList.
+	 * 
+	 * @return The fields to filter in the associated entity.
+	 */
+	public List<String> getSubFieldNameList() {
+		return subFieldNameList;
+	}
+
 	/** @see br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter#getType() */
 	public FilterType getType() {
 		return FilterType.MANY_TO_MANY;
@@ -125,4 +142,19 @@ public class ManyToManyFilter extends AbstractFilter<Void> {
 	public List<Criterion> getJoinedCriteria() {
 		return joinedCriteria;
 	}
+
+	/**
+	 * Splits a comma-separated list of field names, ignoring the spaces around them.
+	 * 
+	 * @param subFieldNames
+	 *            Fields to filter in the associated entity, separated by a comma (",").
+	 * 
+	 * @return An unmodifiable list with the names of the fields.
+	 */
+	private static List<String> parseSubFieldNames(String subFieldNames) {
+		List<String> names = new ArrayList<String>();
+		if (subFieldNames != null) for (String name : subFieldNames.split(","))
+			if (!name.trim().isEmpty()) names.add(name.trim());
+		return Collections.unmodifiableList(names);
+	}
 }
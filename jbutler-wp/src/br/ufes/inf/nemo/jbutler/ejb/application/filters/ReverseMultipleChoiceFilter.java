@@ -5,11 +5,12 @@ import java.util.Map;
 
 /**
  * Reverse multiple-choice filters are like normal multiple-choice filter, but the field is not accessible from the CRUD
- * entity and an "IN" query has to be done. E.g.: searching a company selecting a region, given that the Region class
- * has a set of cities and a company is located in a city. In the persistence level, the query would be something like
- * this (example in HQL): "from Company c where c.city in (select r.cities from Region r where r.id = :param)". The
- * property fieldName is set with the name of the field in the CRUD entity ("city"), options is filled with the
- * different choices (the region objects) and subFieldName is set with the field to get in the subquery ("cities").
+ * entity and a subquery has to be done. E.g.: searching a company selecting a region, given that the Region class has
+ * a set of cities and a company is located in a city. In the persistence level, the query would be something like this
+ * (example in HQL): "from Company c where exists (select 1 from Region r join r.cities rc where r.id = :param and rc.id
+ * = c.city.id)". The property fieldName is set with the name of the field in the CRUD entity ("city"), options is
+ * filled with the different choices (the region objects) and subFieldName is set with the field to join in the
+ * subquery ("cities").
  * 
  * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
  * 
@@ -43,7 +44,7 @@ public class ReverseMultipleChoiceFilter<T> extends MultipleChoiceFilter<T> {
 	 */
 	public ReverseMultipleChoiceFilter(String key, String fieldName, String label, List<T> options, Map<String, String> optionsLabels, String subFieldName) {
 		super(key, fieldName, label, options, optionsLabels);
-		this.subFieldName = subFieldName;
+		this.subFieldName = (subFieldName == null) ? null : subFieldName.trim();
 	}
 
 	/**
@@ -66,7 +67,7 @@ public class ReverseMultipleChoiceFilter<T> extends MultipleChoiceFilter<T> {
 	 */
 	public ReverseMultipleChoiceFilter(String key, String fieldName, String label, List<T> options, Map<String, String> optionsLabels, String subFieldName, Criterion ... criteria) {
 		super(key, fieldName, label, options, optionsLabels, criteria);
-		this.subFieldName = subFieldName;
+		this.subFieldName = (subFieldName == null) ? null : subFieldName.trim();
 	}
 
 	/** @see br.ufes.inf.nemo.jbutler.ejb.application.filters.AbstractFilter#getSubFieldNames() */
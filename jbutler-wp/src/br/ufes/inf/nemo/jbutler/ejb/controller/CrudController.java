@@ -2,6 +2,7 @@ package br.ufes.inf.nemo.jbutler.ejb.controller;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.logging.Level;
@@ -168,9 +169,10 @@ public abstract class CrudController<T extends PersistentObject> extends Listing
 		if (id != null) {
 			// Retrieve the selected entity again from the business layer. This merges it to the current session and
 			// updates
-			// its data, avoiding some problems such as stale data and lazy-loading.
+			// its data, avoiding some problems such as stale data and lazy-loading. The service loads, in the same query,
+			// the attributes declared in its form fetch plan.
 			logger.log(Level.INFO, "Retrieving from the application layer entity with id {0}", id);
-			selectedEntity = getCrudService().retrieve(id);
+			selectedEntity = getCrudService().retrieveForForm(id);
 
 			// Asks the CRUD service to fetch any lazy collection that possibly exists.
 			selectedEntity = getCrudService().fetchLazy(selectedEntity);
@@ -349,26 +351,21 @@ public abstract class CrudController<T extends PersistentObject> extends Listing
 	 */
 	public void delete() {
 		logger.log(Level.INFO, "Deleting entities...");
-		List<Object> notDeleted = new ArrayList<Object>();
 
-		// Deletes the entities that are in the trash can. Validates each exclusion, but don't stop in case of errors.
-		for (T entity : trashCan)
-			try {
-				getCrudService().validateDelete(entity);
-				getCrudService().delete(entity);
-			}
-			catch (CrudException crudException) {
-				// Displays error messages as global. Don't stop the deletion process.
-				logger.log(Level.WARNING, "Exception while deleting " + entity, crudException.getMessage());
-				for (CrudValidationError error : crudException)
-					addGlobalI18nMessage(getBundleName(), FacesMessage.SEVERITY_ERROR, error.getMessageKey(), error.getMessageParams());
-
-				// Marks the entity to be removed from the trash can, so we won't list it in the successfull message.
-				notDeleted.add(entity);
-			}
+		// Deletes the entities that are in the trash can all at once. Each exclusion is validated, but the ones that fail
+		// validation don't stop the deletion process.
+		Map<T, CrudException> notDeleted = getCrudService().deleteBatch(trashCan);
+		for (Map.Entry<T, CrudException> failure : notDeleted.entrySet()) {
+			// Displays error messages as global.
+			CrudException crudException = failure.getValue();
+			logger.log(Level.WARNING, "Exception while deleting " + failure.getKey(), crudException.getMessage());
+			for (CrudValidationError error : crudException)
+				addGlobalI18nMessage(getBundleName(), FacesMessage.SEVERITY_ERROR, error.getMessageKey(), error.getMessageParams());
+		}
 
 		// Writes the status message (only if at least one entity was deleted successfully). Empties it afterwards.
-		trashCan.removeAll(notDeleted);
+		// Entities that were not deleted are removed from the trash can, so we won't list them in the successfull message.
+		trashCan.removeAll(notDeleted.keySet());
 		if (!trashCan.isEmpty()) {
 			addGlobalI18nMessage(getBundleName(), FacesMessage.SEVERITY_INFO, getBundlePrefix() + ".text.deleteSucceeded", trashCan.size());
 			trashCan.clear();
@@ -13,6 +13,10 @@ import org.primefaces.model.SortOrder;
 
 import br.ufes.inf.nemo.jbutler.ejb.application.ListingService;
 import br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.CountStrategy;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.EntityPage;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.EntityRow;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.KeysetCursor;
 import br.ufes.inf.nemo.jbutler.ejb.persistence.PersistentObject;
 
 /**
@@ -54,15 +58,27 @@ public abstract class ListingController<T extends PersistentObject> extends JSFC
 	/** List navigation: the number of existing entities in the persistence media. */
 	protected long entityCount;
 
+	/** List navigation: a flag indicating if the entity count is an approximation (see getCountStrategy()). */
+	protected boolean entityCountApproximate;
+
 	/** Output: the list of existing entities. */
 	protected List<T> entities;
 
 	/** Input/Output: the selected entity among the list of existing entities. */
 	protected T selectedEntity;
 
+	/** Output: the list of rows of existing entities, in projection mode (see getProjectionPaths()). */
+	protected List<EntityRow> rows;
+
+	/** Input/Output: the selected row among the list of rows, in projection mode (see getProjectionPaths()). */
+	protected EntityRow selectedRow;
+
 	/** Primefaces lazy data model for use with a lazy p:dataTable component. */
 	protected LazyDataModel<T> lazyEntities;
 
+	/** Output: lazy data model for rows, in projection mode (see getProjectionPaths()). */
+	protected LazyDataModel<EntityRow> lazyRows;
+
 	/** Output: available filters. */
 	protected List<Filter<?>> filters;
 
@@ -84,6 +100,12 @@ public abstract class ListingController<T extends PersistentObject> extends JSFC
 	/** Internal control: a map to locate the filter given its field name. */
 	protected Map<String, Filter<?>> filtersMap = new TreeMap<String, Filter<?>>();
 
+	/** List navigation: keyset cursor positioned at the last entity being displayed, used to seek the next page. */
+	protected KeysetCursor nextPageCursor;
+
+	/** List navigation: the index of the first entity of the page that can be retrieved using the cursor. */
+	protected int nextPageCursorIndex = -1;
+
 	/**
 	 * Getter for firstEntityIndex.
 	 * 
@@ -190,6 +212,15 @@ public abstract class ListingController<T extends PersistentObject> extends JSFC
 		return entityCount;
 	}
 
+	/**
+	 * Getter for entityCountApproximate.
+	 * 
+	 * @return A flag indicating if the entity count is an approximation.
+	 */
+	public boolean isEntityCountApproximate() {
+		return entityCountApproximate;
+	}
+
 	/**
 	 * Getter for entities.
 	 * 
@@ -224,21 +255,64 @@ public abstract class ListingController<T extends PersistentObject> extends JSFC
 					return entities;
 				}
 			};
-			lazyEntities.setRowCount((int) entityCount);
+			updateRowCount();
 		}
 
 		return lazyEntities;
 	}
 
 	/**
-	 * Getter for selectedEntity.
+	 * Getter for rows.
+	 * 
+	 * @return The list of rows of existing entities, in projection mode.
+	 */
+	public List<EntityRow> getRows() {
+		if (rows == null) goFirst();
+		return rows;
+	}
+
+	/**
+	 * Getter for lazyRows.
+	 * 
+	 * @return Primefaces lazy data model for use with a lazy p:dataTable component, in projection mode.
+	 */
+	public LazyDataModel<EntityRow> getLazyRows() {
+		if (lazyRows == null) {
+			count();
+			lazyRows = new PrimefacesLazyRowDataModel() {
+				/** Serialization id. */
+				private static final long serialVersionUID = 1L;
+
+				/**
+				 * @see org.primefaces.model.LazyDataModel#load(int, int, java.lang.String, org.primefaces.model.SortOrder,
+				 *      java.util.Map)
+				 */
+				@Override
+				public List<EntityRow> load(int first, int pageSize, String sortField, SortOrder sortOrder, Map<String, FilterMeta> filters) {
+					firstEntityIndex = first;
+					lastEntityIndex = first + pageSize;
+					retrieveEntities();
+					return rows;
+				}
+			};
+			updateRowCount();
+		}
+
+		return lazyRows;
+	}
+
+	/**
+	 * Getter for selectedEntity. In projection mode, the entity of the selected row is only loaded here, i.e., when it's
+	 * actually needed.
 	 * 
 	 * @return The selected entity among the list of existing entities.
 	 */
 	public T getSelectedEntity() {
 		// Forces authorization check at the CRUD service.
-		getListingService();
+		ListingService<T> listingService = getListingService();
 
+		// Loads the whole entity of the selected row, if it hasn't been loaded yet.
+		if ((selectedEntity == null) && (selectedRow != null)) selectedEntity = listingService.retrieve(selectedRow.getId());
 		return selectedEntity;
 	}
 
@@ -250,9 +324,31 @@ public abstract class ListingController<T extends PersistentObject> extends JSFC
 	 */
 	public void setSelectedEntity(T selectedEntity) {
 		this.selectedEntity = selectedEntity;
+		selectedRow = null;
 		logger.log(Level.FINEST, "Entity \"{0}\" has been selected", selectedEntity);
 	}
 
+	/**
+	 * Getter for selectedRow.
+	 * 
+	 * @return The selected row among the list of rows, in projection mode.
+	 */
+	public EntityRow getSelectedRow() {
+		return selectedRow;
+	}
+
+	/**
+	 * Setter for selectedRow. The entity of the row is not loaded until it's needed (see getSelectedEntity()).
+	 * 
+	 * @param selectedRow
+	 *          The selected row among the list of rows, in projection mode.
+	 */
+	public void setSelectedRow(EntityRow selectedRow) {
+		this.selectedRow = selectedRow;
+		selectedEntity = null;
+		logger.log(Level.FINEST, "Row \"{0}\" has been selected", selectedRow);
+	}
+
 	/**
 	 * Informs to other methods what is the view path where the web pages are to be located. This method may be overridden
 	 * by subclasses if they don't follow the standard naming convention for CRUD Controllers, which is:
@@ -329,22 +425,65 @@ public abstract class ListingController<T extends PersistentObject> extends JSFC
 		filters.add(filter);
 	}
 
+	/**
+	 * Informs how entities should be counted by this controller. This method may be overridden by subclasses that list
+	 * huge numbers of entities, for which an approximate count (e.g., "about 2.3M") is enough and much faster. The
+	 * default implementation returns CountStrategy.EXACT.
+	 * 
+	 * @return The strategy used to count entities.
+	 */
+	protected CountStrategy getCountStrategy() {
+		return CountStrategy.EXACT;
+	}
+
+	/**
+	 * Informs the attributes displayed by the listing, enabling projection mode: instead of whole entities, only these
+	 * attributes are retrieved, as lightweight rows (see getRows() and getLazyRows()). Whole entities are only loaded when
+	 * a row is selected. Default implementation returns null, i.e., projection mode is disabled. Subclasses whose listings
+	 * show a few columns of entities that have many attributes or eager associations should override it.
+	 * 
+	 * @return The paths of the attributes displayed by the listing or <code>null</code>, if whole entities are listed.
+	 */
+	protected String[] getProjectionPaths() {
+		return null;
+	}
+
+	/**
+	 * Updates the row count of the lazy entity model (if there is one) with the entity count, informing it if the count
+	 * is approximate.
+	 */
+	private void updateRowCount() {
+		if (lazyEntities != null) lazyEntities.setRowCount((int) entityCount);
+		if (lazyEntities instanceof PrimefacesLazyEntityDataModel) ((PrimefacesLazyEntityDataModel<T>) lazyEntities).setRowCountApproximate(entityCountApproximate);
+		if (lazyRows != null) lazyRows.setRowCount((int) entityCount);
+	}
+
 	/**
 	 * Retrieves the entity count and stores it for future use.
 	 */
 	protected void count() {
 		logger.log(Level.INFO, "Counting entities. Filtering is {0}", (filtering ? "ON" : "OFF"));
+		count(getCountStrategy());
+	}
 
+	/**
+	 * Retrieves the entity count using the given strategy and stores it for future use.
+	 * 
+	 * @param strategy
+	 *          How the entities should be counted.
+	 */
+	private void count(CountStrategy strategy) {
 		// Checks if there's an active filter.
 		if (filtering)
 			// There is. Count only filtered entities.
-			entityCount = getListingService().countFiltered(filter, filterParam);
+			entityCount = getListingService().countFiltered(filter, filterParam, strategy);
 		else
 			// There's not. Count all entities.
-			entityCount = getListingService().count();
+			entityCount = getListingService().count(strategy);
+		entityCountApproximate = strategy.isApproximate();
 
-		// Since the entity count might have changed, force reloading of the lazy entity model.
-		lazyEntities = null;
+		// Since the entity count might have changed, update it in the lazy entity model (if there is one).
+		updateRowCount();
 
 		// Updates the index of the last entity and checks if it has gone over the limit.
 		lastEntityIndex = firstEntityIndex + MAX_DATA_TABLE_ROWS_PER_PAGE;
@@ -356,23 +495,107 @@ public abstract class ListingController<T extends PersistentObject> extends JSFC
 	 * method is intended to be used internally.
 	 */
 	protected void retrieveEntities() {
-		// Checks if the last entity index is over the number of entities and correct it.
-		if (lastEntityIndex > entityCount) lastEntityIndex = (int) entityCount;
+		retrieveEntities(getCountStrategy());
+	}
+
+	/**
+	 * Retrieves a collection of entities, respecting the selected range, counting them with the given strategy.
+	 * 
+	 * @param strategy
+	 *          How the entities should be counted.
+	 */
+	private void retrieveEntities(CountStrategy strategy) {
+		// In projection mode, rows are retrieved instead.
+		String[] paths = getProjectionPaths();
+		if (paths != null) {
+			retrieveRows(paths, strategy);
+			return;
+		}
 
+		// Checks if the requested page starts right after the page for which a cursor was kept (sequential navigation).
+		// In this case, the cursor is sent along so the database can seek past it instead of skipping all previous entities.
+		KeysetCursor cursor = ((nextPageCursor != null) && (firstEntityIndex > 0) && (firstEntityIndex == nextPageCursorIndex)) ? nextPageCursor : null;
+
+		// Retrieves the page and the entity count in a single call. Based on the count, the DAO decides whether to seek
+		// past the cursor, read the page from the end of the listing or skip to it, and doesn't query empty pages.
 		// Checks if there's an active filter.
+		EntityPage<T> page;
 		if (filtering) {
 			// There is. Retrieve not only within range, but also with filtering.
-			logger.log(Level.INFO, "Retrieving from the application layer {0} of a total of {1} entities: interval [{2}, {3}) using filter \"{4}\" and search param \"{5}\"", new Object[] { (lastEntityIndex - firstEntityIndex), entityCount, firstEntityIndex, lastEntityIndex, filter.getKey(), filterParam });
-			entities = getListingService().filter(filter, filterParam, firstEntityIndex, lastEntityIndex);
+			logger.log(Level.INFO, "Retrieving from the application layer {0} entities: interval [{1}, {2}) using filter \"{3}\" and search param \"{4}\"", new Object[] { (lastEntityIndex - firstEntityIndex), firstEntityIndex, lastEntityIndex, filter.getKey(), filterParam });
+			page = getListingService().filterPage(filter, filterParam, strategy, cursor, firstEntityIndex, lastEntityIndex);
 		}
 		else {
 			// There's not. Retrieve all entities within range.
-			logger.log(Level.INFO, "Retrieving from the application layer {0} of a total of {1} entities: interval [{2}, {3})", new Object[] { (lastEntityIndex - firstEntityIndex), entityCount, firstEntityIndex, lastEntityIndex });
-			entities = getListingService().list(firstEntityIndex, lastEntityIndex);
+			logger.log(Level.INFO, "Retrieving from the application layer {0} entities: interval [{1}, {2})", new Object[] { (lastEntityIndex - firstEntityIndex), firstEntityIndex, lastEntityIndex });
+			page = getListingService().listPage(strategy, cursor, firstEntityIndex, lastEntityIndex);
 		}
+		entities = page.getEntities();
+
+		// Updates the entity count, which might have changed, also in the lazy entity model (if there is one).
+		entityCount = page.getTotal();
+		entityCountApproximate = page.isApproximate();
+		updateRowCount();
 
 		// Adjusts the last entity index.
 		lastEntityIndex = firstEntityIndex + entities.size();
+
+		// Keeps a cursor at the last entity retrieved, so the next page can be retrieved by seeking.
+		nextPageCursor = entities.isEmpty() ? null : getListingService().getDAO().createCursor(entities.get(entities.size() - 1));
+		nextPageCursorIndex = lastEntityIndex;
+	}
+
+	/**
+	 * Retrieves a collection of rows with the given attributes, respecting the selected range, counting them with the
+	 * given strategy (projection mode). Makes the collection available to the view.
+	 * 
+	 * @param paths
+	 *          The paths of the attributes displayed by the listing.
+	 * @param strategy
+	 *          How the entities should be counted.
+	 */
+	private void retrieveRows(String[] paths, CountStrategy strategy) {
+		// Retrieves the page of rows and the entity count in a single call. Checks if there's an active filter.
+		EntityPage<EntityRow> page;
+		if (filtering) {
+			// There is. Retrieve not only within range, but also with filtering.
+			logger.log(Level.INFO, "Retrieving from the application layer {0} rows: interval [{1}, {2}) using filter \"{3}\" and search param \"{4}\"", new Object[] { (lastEntityIndex - firstEntityIndex), firstEntityIndex, lastEntityIndex, filter.getKey(), filterParam });
+			page = getListingService().filterRowPage(filter, filterParam, paths, strategy, firstEntityIndex, lastEntityIndex);
+		}
+		else {
+			// There's not. Retrieve all rows within range.
+			logger.log(Level.INFO, "Retrieving from the application layer {0} rows: interval [{1}, {2})", new Object[] { (lastEntityIndex - firstEntityIndex), firstEntityIndex, lastEntityIndex });
+			page = getListingService().listRowPage(paths, strategy, firstEntityIndex, lastEntityIndex);
+		}
+		rows = page.getEntities();
+
+		// Updates the entity count, which might have changed, also in the lazy row model (if there is one).
+		entityCount = page.getTotal();
+		entityCountApproximate = page.isApproximate();
+		updateRowCount();
+
+		// Adjusts the last entity index. No entities are listed, and there's no cursor, as rows aren't entities.
+		lastEntityIndex = firstEntityIndex + rows.size();
+		entities = new ArrayList<T>();
+		nextPageCursor = null;
+	}
+
+	/**
+	 * Sets the indices to the last page of entities, according to the current entity count.
+	 */
+	private void moveToLastPage() {
+		// Checks for the trivial case of no entities.
+		if (entityCount == 0) firstEntityIndex = lastEntityIndex = 0;
+		else {
+			// Calculates how many entities there are in the last page (the remainder of dividing the count by the max
+			// entities in a page).
+			int remainder = ((int) entityCount % MAX_DATA_TABLE_ROWS_PER_PAGE);
+
+			// Check if the remainder is zero, in which case the last page is full. Otherwise, the remainder is the
+			// number of entities in the last page. Sets the first and last index accordingly.
+			firstEntityIndex = (remainder == 0) ? (int) entityCount - MAX_DATA_TABLE_ROWS_PER_PAGE : (int) entityCount - remainder;
+			lastEntityIndex = (int) entityCount;
+		}
 	}
 
 	/**
@@ -383,12 +606,10 @@ public abstract class ListingController<T extends PersistentObject> extends JSFC
 	public void goFirst() {
 		// Move the first entity index to zero to show the first page.
 		firstEntityIndex = 0;
+		lastEntityIndex = MAX_DATA_TABLE_ROWS_PER_PAGE;
 
-		// Always counts the entities in this method, as it can be called via AJAX from the pages. This also sets the
-		// last entity index.
-		count();
-
-		// Retrieve the entities from the application layer.
+		// Retrieve the entities from the application layer. This also counts the entities, as this method can be called
+		// via AJAX from the pages.
 		retrieveEntities();
 	}
 
@@ -405,13 +626,9 @@ public abstract class ListingController<T extends PersistentObject> extends JSFC
 
 			// Checks if, by any chance, the above shifting took the first entity index too far and correct it.
 			if (firstEntityIndex < 0) firstEntityIndex = 0;
+			lastEntityIndex = firstEntityIndex + MAX_DATA_TABLE_ROWS_PER_PAGE;
 
-			// Always counts the entities in this method, as it can be called via AJAX from the pages. This also sets
-			// the last
-			// entity index.
-			count();
-
-			// Retrieve the entities from the application layer.
+			// Retrieve the entities (and their count) from the application layer.
 			retrieveEntities();
 		}
 	}
@@ -422,8 +639,9 @@ public abstract class ListingController<T extends PersistentObject> extends JSFC
 	 * This method is intended to be used with AJAX.
 	 */
 	public void goNext() {
-		// Always counts the entities in this method, as it can be called via AJAX from the pages.
-		count();
+		// The count is updated with every page retrieved. Only counts again if it says this is the last page, as
+		// entities might have been created since then.
+		if (lastEntityIndex >= entityCount) count();
 
 		// Only moves to the next page if there is one.
 		if (lastEntityIndex < entityCount) {
@@ -433,7 +651,7 @@ public abstract class ListingController<T extends PersistentObject> extends JSFC
 			// Set the last entity index to a full page of entities starting from the first index.
 			lastEntityIndex = firstEntityIndex + MAX_DATA_TABLE_ROWS_PER_PAGE;
 
-			// Retrieve the entities from the application layer.
+			// Retrieve the entities (and their count) from the application layer.
 			retrieveEntities();
 		}
 	}
@@ -444,26 +662,19 @@ public abstract class ListingController<T extends PersistentObject> extends JSFC
 	 * This method is intended to be used with AJAX.
 	 */
 	public void goLast() {
-		// Always counts the entities in this method, as it can be called via AJAX from the pages.
-		count();
-
-		// Checks for the trivial case of no entities.
-		if (entityCount == 0) firstEntityIndex = lastEntityIndex = 0;
-		else {
-			// Calculates how many entities there are in the last page (the remainder of dividing the count by the max
-			// entities in a page).
-			int remainder = ((int) entityCount % MAX_DATA_TABLE_ROWS_PER_PAGE);
-
-			// Check if the remainder is zero, in which case the last page is full. Otherwise, the remainder is the
-			// number of
-			// entities in
-			// the last page. Sets the first and last index accordingly.
-			firstEntityIndex = (remainder == 0) ? (int) entityCount - MAX_DATA_TABLE_ROWS_PER_PAGE : (int) entityCount - remainder;
-			lastEntityIndex = (int) entityCount;
+		// The last page can only be located with an exact count.
+		if (entityCountApproximate) count(CountStrategy.EXACT);
+
+		// Moves to the last page according to the count obtained with the current page and retrieve its entities.
+		moveToLastPage();
+		long previousCount = entityCount;
+		retrieveEntities(CountStrategy.EXACT);
+
+		// If the count has changed meanwhile, the last page has moved. Retrieve it again using the new count.
+		if (entityCount != previousCount) {
+			moveToLastPage();
+			retrieveEntities(CountStrategy.EXACT);
 		}
-
-		// Retrieve the entities from the application layer.
-		retrieveEntities();
 	}
 
 	/**
@@ -555,13 +766,14 @@ public abstract class ListingController<T extends PersistentObject> extends JSFC
 		// Clears the selection.
 		selectedEntity = null;
 
-		// Gets the entity count.
-		count();
-
-		// Checks if the index of the listing should be changed and reload the page.
+		// Checks if the index of the listing should be changed and reload the page. If the current page no longer
+		// exists (e.g., entities were deleted), goes to the last one.
 		if (firstEntityIndex < 0) goFirst();
-		else if (lastEntityIndex > entityCount) goLast();
-		else retrieveEntities();
+		else {
+			lastEntityIndex = firstEntityIndex + MAX_DATA_TABLE_ROWS_PER_PAGE;
+			retrieveEntities();
+			if (entities.isEmpty() && (entityCount > 0)) goLast();
+		}
 
 		// Goes to the listing.
 		return getViewPath() + getListingPageName() + "?faces-redirect=" + getFacesRedirect();
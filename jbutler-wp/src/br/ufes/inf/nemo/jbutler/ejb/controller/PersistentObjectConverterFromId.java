@@ -1,6 +1,9 @@
 package br.ufes.inf.nemo.jbutler.ejb.controller;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -37,6 +40,9 @@ public class PersistentObjectConverterFromId<T extends PersistentObject> impleme
 	/** The persistent class being handled by this converter. */
 	private Class<T> persistentClass;
 
+	/** Objects retrieved in advance by preload(), indexed by their IDs. */
+	private transient Map<Long, T> preloadedObjects;
+
 	/**
 	 * Constructor using fields.
 	 * 
@@ -48,6 +54,21 @@ public class PersistentObjectConverterFromId<T extends PersistentObject> impleme
 		persistentClass = dao.getDomainClass();
 	}
 
+	/**
+	 * Retrieves at once the objects with the given IDs, so that converting them with getAsObject() doesn't retrieve them
+	 * one by one. Useful before converting the many values of "select many" components, such as pickers with hundreds of
+	 * options. Objects are kept by the converter until the next call to this method.
+	 * 
+	 * @param ids
+	 *            The IDs of the objects that are going to be converted.
+	 */
+	public void preload(Collection<Long> ids) {
+		preloadedObjects = new HashMap<Long, T>();
+		for (T entity : dao.retrieveByIds(ids))
+			preloadedObjects.put(entity.getId(), entity);
+		logger.log(Level.FINE, "Preloaded {0} instances of {1} from {2} ids", new Object[] { preloadedObjects.size(), persistentClass.getSimpleName(), ids.size() });
+	}
+
 	/**
 	 * @see javax.faces.convert.Converter#getAsObject(javax.faces.context.FacesContext,
 	 *      javax.faces.component.UIComponent, java.lang.String)
@@ -62,7 +83,8 @@ public class PersistentObjectConverterFromId<T extends PersistentObject> impleme
 			// Loads the entity given the id.
 			try {
 				Long id = Long.valueOf(value);
-				entity = dao.retrieveById(id);
+				entity = (preloadedObjects == null) ? null : preloadedObjects.get(id);
+				if (entity == null) entity = dao.retrieveById(id);
 			}
 			catch (NumberFormatException e) {
 				logger.log(Level.WARNING, "Value is not a number (Long): {0}", value);
@@ -1,5 +1,6 @@
 package br.ufes.inf.nemo.jbutler.ejb.controller;
 
+import java.text.NumberFormat;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -29,6 +30,9 @@ public abstract class PrimefacesLazyEntityDataModel<T extends PersistentObject>
 	/** If not used in a CRUD, the controller should provide the DAO that can access the row data. */
 	private BaseDAO<T> entityDAO;
 
+	/** Indicates if the row count is an approximation (see ListingController#getCountStrategy()). */
+	private boolean rowCountApproximate;
+
 	/**
 	 * Constructor from superclass.
 	 * 
@@ -39,6 +43,42 @@ public abstract class PrimefacesLazyEntityDataModel<T extends PersistentObject>
 		this.entityDAO = entityDAO;
 	}
 
+	/**
+	 * Getter for rowCountApproximate.
+	 * 
+	 * @return <code>true</code> if the row count is an approximation, <code>false</code> if it is exact.
+	 */
+	public boolean isRowCountApproximate() {
+		return rowCountApproximate;
+	}
+
+	/**
+	 * Setter for rowCountApproximate.
+	 * 
+	 * @param rowCountApproximate
+	 *            Indicates if the row count is an approximation.
+	 */
+	public void setRowCountApproximate(boolean rowCountApproximate) {
+		this.rowCountApproximate = rowCountApproximate;
+	}
+
+	/**
+	 * Provides the row count to be displayed in the view. Exact counts are displayed as they are, whereas approximate
+	 * ones are rounded to two significant digits and preceded by a tilde (e.g., "~2,300,000").
+	 * 
+	 * @return The row count, formatted for display.
+	 */
+	public String getRowCountLabel() {
+		long count = getRowCount();
+		if (!rowCountApproximate) return NumberFormat.getIntegerInstance().format(count);
+
+		// Rounds the approximate count to two significant digits.
+		long magnitude = 1;
+		while (count / magnitude >= 100)
+			magnitude *= 10;
+		return "~" + NumberFormat.getIntegerInstance().format(Math.round((double) count / magnitude) * magnitude);
+	}
+
 	/** @see org.primefaces.model.LazyDataModel#getRowKey(java.lang.Object) */
 	@Override
 	public Object getRowKey(T object) {
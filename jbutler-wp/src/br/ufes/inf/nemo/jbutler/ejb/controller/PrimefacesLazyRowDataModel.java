@@ -0,0 +1,48 @@
+package br.ufes.inf.nemo.jbutler.ejb.controller;
+
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.primefaces.model.LazyDataModel;
+import org.primefaces.model.SelectableDataModel;
+
+import br.ufes.inf.nemo.jbutler.ejb.persistence.EntityRow;
+
+/**
+ * Abstract implementation of a PrimeFaces' lazy data model for lightweight rows of a listing (projection mode, see
+ * ListingController#getProjectionPaths()). Rows are identified by the UUID of their entities and are found among the
+ * rows of the current page, so selecting a row doesn't require accessing the persistent media.
+ *
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+public abstract class PrimefacesLazyRowDataModel extends LazyDataModel<EntityRow> implements SelectableDataModel<EntityRow> {
+	/** Serialization id. */
+	private static final long serialVersionUID = 1L;
+
+	/** The logger. */
+	private static final Logger logger = Logger.getLogger(PrimefacesLazyRowDataModel.class.getCanonicalName());
+
+	/** @see org.primefaces.model.LazyDataModel#getRowKey(java.lang.Object) */
+	@Override
+	public Object getRowKey(EntityRow row) {
+		logger.log(Level.FINEST, "Obtaining the row key of row \"{0}\" from the data model", row);
+		return row.getUuid();
+	}
+
+	/** @see org.primefaces.model.LazyDataModel#getRowData(java.lang.String) */
+	@Override
+	public EntityRow getRowData(String rowKey) {
+		logger.log(Level.FINEST, "Obtaining the row data for key \"{0}\" from the data model", rowKey);
+
+		// Looks for the row among the ones of the current page.
+		List<EntityRow> rows = getWrappedData();
+		if (rows != null) for (EntityRow row : rows)
+			if (rowKey.equals(row.getUuid())) return row;
+		logger.log(Level.WARNING, "Trying to obtain row data with UUID {0} but no row with that UUID was found in the current page", rowKey);
+		return null;
+	}
+}
@@ -0,0 +1,109 @@
+package br.ufes.inf.nemo.jbutler.ejb.domain;
+
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.MappedSuperclass;
+import javax.persistence.PrePersist;
+
+/**
+ * Alternative to DomainObjectSupport that keeps the UUID in its binary form: two longs in memory and 16 bytes in the
+ * database (see BinaryUuidConverter), instead of a 36-character string. This makes rows and the UUID index smaller and
+ * comparisons (equals(), hashCode() and compareTo()) faster. The UUID is still exposed as a string by getUuid().
+ * 
+ * Use it instead of DomainObjectSupport (or, for persistent objects, use BinaryUuidPersistentObjectSupport instead of
+ * PersistentObjectSupport). Notice that the UUID column of existing tables would have to be migrated. As in
+ * DomainObjectSupport, the UUID is generated when it is first needed or right before the object is persisted.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ * @see br.ufes.inf.nemo.jbutler.ejb.domain.DomainObjectSupport
+ */
+@MappedSuperclass
+public abstract class BinaryUuidDomainObjectSupport implements DomainObject {
+	/** Serialization id. */
+	private static final long serialVersionUID = 1L;
+
+	/** Unique Universal Identifier (UUID), stored in binary form. Unique, so the database indexes it. */
+	@Convert(converter = BinaryUuidConverter.class)
+	@Column(nullable = false, length = 16, unique = true)
+	protected UUID uuid;
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.domain.DomainObject#getUuid() */
+	@Override
+	public String getUuid() {
+		return getUuidValue().toString();
+	}
+
+	/**
+	 * Returns the UUID in its binary form, generating it the first time it's needed.
+	 * 
+	 * @return The Unique Universal Identifier.
+	 */
+	protected UUID getUuidValue() {
+		if (uuid == null) uuid = getUuidGenerator().generate();
+		return uuid;
+	}
+
+	/**
+	 * Setter for uuid.
+	 * 
+	 * @param uuid
+	 *          The Unique Universal Identifier, in its string representation.
+	 */
+	protected void setUuid(String uuid) {
+		this.uuid = UUID.fromString(uuid);
+	}
+
+	/**
+	 * Method that can be overriden by the subclasses to determine how their UUIDs are generated. By default, the
+	 * application-wide generator is used.
+	 * 
+	 * @return The generator of UUIDs for objects of this class.
+	 * @see br.ufes.inf.nemo.jbutler.ejb.domain.UuidGenerators#getDefault()
+	 */
+	protected UuidGenerator getUuidGenerator() {
+		return UuidGenerators.getDefault();
+	}
+
+	/** Callback that makes sure the UUID has been generated before the object is stored in the database. */
+	@PrePersist
+	protected void assignUuid() {
+		getUuidValue();
+	}
+
+	/** @see java.lang.Object#equals(java.lang.Object) */
+	@Override
+	public boolean equals(Object obj) {
+		// Checks if the class is the same.
+		if ((obj == null) || (!getClass().equals(obj.getClass()))) { return false; }
+		BinaryUuidDomainObjectSupport o = (BinaryUuidDomainObjectSupport) obj;
+
+		// Checks if the UUID is the same.
+		return getUuidValue().equals(o.getUuidValue());
+	}
+
+	/** @see java.lang.Object#hashCode() */
+	@Override
+	public int hashCode() {
+		return getUuidValue().hashCode();
+	}
+
+	/**
+	 * Base implementation of compareTo() method that compares two domain objects by UUID, like the one in
+	 * DomainObjectSupport, but comparing the two longs of the UUIDs instead of strings.
+	 * 
+	 * @param o
+	 *          The object to be compared to.
+	 * 
+	 * @see java.lang.Comparable#compareTo(java.lang.Object)
+	 * @return a negative value if this &lt; o, zero if this == 0 and a positive value if this &gt; o.
+	 */
+	public int compareTo(BinaryUuidDomainObjectSupport o) {
+		// Compares by UUID.
+		return getUuidValue().compareTo(o.getUuidValue());
+	}
+}
@@ -0,0 +1,18 @@
+package br.ufes.inf.nemo.jbutler.ejb.domain;
+
+import java.util.UUID;
+
+import javax.persistence.metamodel.SingularAttribute;
+import javax.persistence.metamodel.StaticMetamodel;
+
+/**
+ * Meta-model for the BinaryUuidDomainObjectSupport domain class, which allows DAOs to perform programmatic queries
+ * using JPA2's Criteria API.
+ * 
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @see br.ufes.inf.nemo.jbutler.ejb.domain.BinaryUuidDomainObjectSupport
+ */
+@StaticMetamodel(BinaryUuidDomainObjectSupport.class)
+public class BinaryUuidDomainObjectSupport_ {
+	public static volatile SingularAttribute<BinaryUuidDomainObjectSupport, UUID> uuid;
+}
@@ -1,19 +1,22 @@
 package br.ufes.inf.nemo.jbutler.ejb.domain;
 
-import java.util.UUID;
-
 import javax.persistence.Basic;
 import javax.persistence.Column;
 import javax.persistence.MappedSuperclass;
+import javax.persistence.PrePersist;
 
 /**
  * Implementation of the equals() / hashCode() strategy proposed by the DomainObject interface. It also integrates with
  * the persistence framework, as it provides persistence mappings for EJB3.
  * 
+ * The UUID is not generated during construction, but when it is first needed (e.g., by getUuid(), equals() or
+ * hashCode()) or right before the object is persisted, so transient objects that are created and thrown away (e.g., to
+ * render an empty form) do not pay for it. UUIDs are generated by the UuidGenerator returned by getUuidGenerator().
+ * 
  * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
  * 
  * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
- * @version 1.1
+ * @version 1.2
  * @see br.ufes.inf.nemo.jbutler.ejb.domain.DomainObject
  */
 @MappedSuperclass
@@ -21,20 +24,16 @@ public abstract class DomainObjectSupport implements DomainObject {
 	/** Serialization id. */
 	private static final long serialVersionUID = 1L;
 
-	/** Unique Universal Identifier (UUID). */
+	/** Unique Universal Identifier (UUID). Unique, so the database indexes it for retrieval by UUID. */
 	@Basic
-	@Column(nullable = false, length = 40)
+	@Column(nullable = false, length = 40, unique = true)
 	protected String uuid;
 
-	/** Default constructor. */
-	public DomainObjectSupport() {
-		// Generates UUID during object construction.
-		uuid = UUID.randomUUID().toString();
-	}
-
 	/** @see br.ufes.inf.nemo.jbutler.ejb.domain.DomainObject#getUuid() */
 	@Override
 	public String getUuid() {
+		// Generates the UUID the first time it's needed.
+		if (uuid == null) uuid = getUuidGenerator().generate().toString();
 		return uuid;
 	}
 
@@ -48,6 +47,23 @@ public abstract class DomainObjectSupport implements DomainObject {
 		this.uuid = uuid;
 	}
 
+	/**
+	 * Method that can be overriden by the subclasses to determine how their UUIDs are generated. By default, the
+	 * application-wide generator is used.
+	 * 
+	 * @return The generator of UUIDs for objects of this class.
+	 * @see br.ufes.inf.nemo.jbutler.ejb.domain.UuidGenerators#getDefault()
+	 */
+	protected UuidGenerator getUuidGenerator() {
+		return UuidGenerators.getDefault();
+	}
+
+	/** Callback that makes sure the UUID has been generated before the object is stored in the database. */
+	@PrePersist
+	protected void assignUuid() {
+		getUuid();
+	}
+
 	/** @see java.lang.Object#equals(java.lang.Object) */
 	@Override
 	public boolean equals(Object obj) {
@@ -56,13 +72,13 @@ public abstract class DomainObjectSupport implements DomainObject {
 		DomainObjectSupport o = (DomainObjectSupport) obj;
 
 		// Checks if the UUID is the same.
-		return uuid.equals(o.uuid);
+		return getUuid().equals(o.getUuid());
 	}
 
 	/** @see java.lang.Object#hashCode() */
 	@Override
 	public int hashCode() {
-		return uuid.hashCode();
+		return getUuid().hashCode();
 	}
 
 	/**
@@ -79,6 +95,6 @@ public abstract class DomainObjectSupport implements DomainObject {
 	 */
 	public int compareTo(DomainObjectSupport o) {
 		// Compares by UUID.
-		return uuid.compareTo(o.uuid);
+		return getUuid().compareTo(o.getUuid());
 	}
 }
@@ -0,0 +1,22 @@
+package br.ufes.inf.nemo.jbutler.ejb.domain;
+
+import java.util.UUID;
+
+/**
+ * UUID generator that produces random (version 4) UUIDs using java.util.UUID.randomUUID(), which was the behavior of
+ * domain objects before generators became pluggable. Random UUIDs are spread all over the UUID index and every
+ * generation goes through a shared SecureRandom, so TimeOrderedUuidGenerator is preferred.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ * @see br.ufes.inf.nemo.jbutler.ejb.domain.TimeOrderedUuidGenerator
+ */
+public class RandomUuidGenerator implements UuidGenerator {
+	/** @see br.ufes.inf.nemo.jbutler.ejb.domain.UuidGenerator#generate() */
+	@Override
+	public UUID generate() {
+		return UUID.randomUUID();
+	}
+}
@@ -0,0 +1,50 @@
+package br.ufes.inf.nemo.jbutler.ejb.domain;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UUID generator that produces time-ordered UUIDs, following the layout of version 7 UUIDs: the first 48 bits hold the
+ * current time in milliseconds, followed by the version, a 12-bit sequence, the variant and 62 random bits.
+ * 
+ * Because UUIDs generated later are greater than the ones generated before, new rows are appended to the end of the UUID
+ * index instead of being spread all over it. The sequence keeps UUIDs generated in the same millisecond ordered and is
+ * advanced with a compare-and-set, while the random bits come from ThreadLocalRandom, so no locks are involved. The
+ * random bits are not cryptographically secure, which is not required from identifiers.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+public class TimeOrderedUuidGenerator implements UuidGenerator {
+	/** Number of bits of the sequence that orders UUIDs generated in the same millisecond. */
+	private static final int SEQUENCE_BITS = 12;
+
+	/** The last timestamp used, shifted to the left, followed by the sequence within that timestamp. */
+	private final AtomicLong lastState = new AtomicLong();
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.domain.UuidGenerator#generate() */
+	@Override
+	public UUID generate() {
+		// Determines the next state: the current time or, if the clock didn't advance, the last state plus one. When the
+		// sequence overflows, the state moves into the next millisecond, keeping the order.
+		long now = System.currentTimeMillis() << SEQUENCE_BITS;
+		long last, next;
+		do {
+			last = lastState.get();
+			next = (now > last) ? now : last + 1;
+		}
+		while (!lastState.compareAndSet(last, next));
+
+		// Timestamp (48 bits), version 7 (4 bits) and sequence (12 bits).
+		long timestamp = next >>> SEQUENCE_BITS;
+		long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+		long mostSigBits = (timestamp << 16) | 0x7000L | sequence;
+
+		// Variant (2 bits) and random bits (62 bits).
+		long leastSigBits = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+		return new UUID(mostSigBits, leastSigBits);
+	}
+}
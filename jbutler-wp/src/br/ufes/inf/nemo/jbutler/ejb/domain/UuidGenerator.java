@@ -0,0 +1,26 @@
+package br.ufes.inf.nemo.jbutler.ejb.domain;
+
+import java.util.UUID;
+
+/**
+ * Strategy used by domain objects to generate their Unique Universal Identifiers (UUIDs). The default strategy is
+ * provided by UuidGenerators and can be replaced application-wide or, by overriding getUuidGenerator(), for specific
+ * domain classes.
+ * 
+ * Implementations are shared by all domain objects and, therefore, must be thread-safe.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ * @see br.ufes.inf.nemo.jbutler.ejb.domain.UuidGenerators
+ * @see br.ufes.inf.nemo.jbutler.ejb.domain.DomainObjectSupport#getUuidGenerator()
+ */
+public interface UuidGenerator {
+	/**
+	 * Generates a new UUID.
+	 * 
+	 * @return A new, unique, UUID.
+	 */
+	UUID generate();
+}
@@ -0,0 +1,39 @@
+package br.ufes.inf.nemo.jbutler.ejb.domain;
+
+/**
+ * Holder of the UUID generator used by domain objects that do not specify their own. By default, a
+ * TimeOrderedUuidGenerator is used. Applications can replace it at startup, e.g., with a RandomUuidGenerator.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ * @see br.ufes.inf.nemo.jbutler.ejb.domain.UuidGenerator
+ */
+public final class UuidGenerators {
+	/** The UUID generator used by default. */
+	private static volatile UuidGenerator defaultGenerator = new TimeOrderedUuidGenerator();
+
+	/** Private constructor, as this class should not be instantiated. */
+	private UuidGenerators() {}
+
+	/**
+	 * Getter for defaultGenerator.
+	 * 
+	 * @return The UUID generator used by domain objects that do not specify their own.
+	 */
+	public static UuidGenerator getDefault() {
+		return defaultGenerator;
+	}
+
+	/**
+	 * Setter for defaultGenerator.
+	 * 
+	 * @param generator
+	 *          The UUID generator to be used by domain objects that do not specify their own.
+	 */
+	public static void setDefault(UuidGenerator generator) {
+		if (generator == null) throw new IllegalArgumentException("The default UUID generator cannot be null");
+		defaultGenerator = generator;
+	}
+}
@@ -1,9 +1,14 @@
 package br.ufes.inf.nemo.jbutler.ejb.persistence;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
 
 import br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.cache.CacheStatistics;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.cache.CoalescingStatistics;
 import br.ufes.inf.nemo.jbutler.ejb.persistence.exceptions.MultiplePersistentObjectsFoundException;
 import br.ufes.inf.nemo.jbutler.ejb.persistence.exceptions.PersistentObjectNotFoundException;
 
@@ -43,6 +48,16 @@ public interface BaseDAO<T extends PersistentObject> extends Serializable {
 	 */
 	long retrieveCount();
 
+	/**
+	 * Returns the number of persistent objects of this class, counted using the given strategy.
+	 * 
+	 * @param strategy
+	 *          How the objects should be counted (exactly, reusing a recent count or estimating).
+	 * 
+	 * @return Number (or approximate number) of existing persistent objects of this class.
+	 */
+	long retrieveCount(CountStrategy strategy);
+
 	/**
 	 * Returns the number of persistent objects of this class that match the specified filter.
 	 * 
@@ -67,6 +82,40 @@ public interface BaseDAO<T extends PersistentObject> extends Serializable {
 	 */
 	long retrieveFilteredCount(Filter<?>[] filters, String[] values);
 
+	/**
+	 * Returns the number of persistent objects of this class that match the specified filters, counted using the given
+	 * strategy.
+	 * 
+	 * @param filters
+	 *          The specification that filters the objects from the persistent class.
+	 * @param values
+	 *          The filters' respective input.
+	 * @param strategy
+	 *          How the objects should be counted (exactly, reusing a recent count or estimating).
+	 * 
+	 * @return Number (or approximate number) of existing persistent objects of this class that match the given filter.
+	 */
+	long retrieveFilteredCount(Filter<?>[] filters, String[] values, CountStrategy strategy);
+
+	/**
+	 * Counts, for each option of a multiple-choice filter (including enum multiple-choice filters), the persistent
+	 * objects of this class that have that option and match the specified filters, with a single query that groups the
+	 * objects by the field of the facet. Used by listings that show the number of objects next to each option.
+	 * 
+	 * @param facet
+	 *          The multiple-choice filter whose options are counted. If it's also one of the active filters, it's ignored
+	 *          there, so the counts show what would happen if another option were chosen.
+	 * @param activeFilters
+	 *          The specification that filters the objects from the persistent class.
+	 * @param values
+	 *          The filters' respective input.
+	 * 
+	 * @return The number of objects for each option, indexed by the value of the option as used by the filter (the id of
+	 *         the related object or the name of the enumeration constant). Options declared by the filter with no objects
+	 *         have count zero.
+	 */
+	Map<String, Long> retrieveFacetCounts(Filter<?> facet, Filter<?>[] activeFilters, String[] values);
+
 	/**
 	 * Retrieves all objects from the persistent class.
 	 * 
@@ -137,7 +186,242 @@ public interface BaseDAO<T extends PersistentObject> extends Serializable {
 	List<T> retrieveSomeWithFilters(Filter<?>[] filters, String[] values, int[] interval);
 
 	/**
-	 * Obtains a persistent object given its id.
+	 * Retrieve some rows of the persistent class that match the specified filters, each of them containing only the
+	 * attributes given by their paths instead of the whole object (projection). Rows are in the same order as the objects
+	 * returned by retrieveSomeWithFilters(). Associations navigated by the paths are outer-joined, so objects for which
+	 * they are null are still listed (with null values).
+	 * 
+	 * @param paths
+	 *          The paths of the attributes to be selected, separated by dots for attributes of associated objects.
+	 * @param filters
+	 *          The specification that filters the objects from the persistent class.
+	 * @param values
+	 *          The filters' respective input.
+	 * @param interval
+	 *          Array of size 2 with the interval [a, b) (retrieves rows from index a through b-1).
+	 * 
+	 * @return List with some rows (according to the given interval and filters) from the persistent domain class.
+	 */
+	List<EntityRow> retrieveRowsWithFilters(String[] paths, Filter<?>[] filters, String[] values, int[] interval);
+
+	/**
+	 * Builds (or rebuilds) the in-memory full-text indexes of the fields that the DAO indexes, if any, by scanning all
+	 * objects of the persistent class. Indexes are otherwise built in the background the first time they're needed, and
+	 * searches don't use them until then, so applications may call this method at startup (e.g., from a singleton bean
+	 * annotated with <code>@Startup</code>) to have them ready from the first search.
+	 */
+	void buildFullTextIndexes();
+
+	/**
+	 * Builds the in-memory full-text index of the given field, if the DAO indexes it and it's not ready yet,
+	 * asynchronously, in a transaction of its own. Used by the DAO itself to build indexes in the background the first
+	 * time they're needed (see BaseJPADAO.getFullTextIndexedFields()).
+	 * 
+	 * @param fieldName
+	 *          The name of the indexed field.
+	 */
+	void buildFullTextIndexAsynchronously(String fieldName);
+
+	/**
+	 * Retrieves some objects from the persistent class, counting the interval from the end of the DAO's ordering. The
+	 * query inverts the ordering and reads only the needed objects, so retrieving pages near the end of a large listing
+	 * is as cheap as retrieving pages near its beginning.
+	 * 
+	 * @param interval
+	 *          Array of size 2 with the interval [a, b) counted from the end (retrieves objects from the a-th to the
+	 *          (b-1)-th last objects, where the 0-th last is the last object).
+	 * 
+	 * @return List with some objects (according to the given interval) from the persistent domain class, in the
+	 *         regular order of the DAO.
+	 */
+	List<T> retrieveSomeFromEnd(int[] interval);
+
+	/**
+	 * Retrieve some objects from the persistent class that match the specified filters, counting the interval from the
+	 * end of the DAO's ordering.
+	 * 
+	 * @param filters
+	 *          The specification that filters the objects from the persistent class.
+	 * @param values
+	 *          The filters' respective input.
+	 * @param interval
+	 *          Array of size 2 with the interval [a, b) counted from the end (retrieves objects from the a-th to the
+	 *          (b-1)-th last objects, where the 0-th last is the last object).
+	 * 
+	 * @return List with some objects (according to the given interval and filters) from the persistent domain class, in
+	 *         the regular order of the DAO.
+	 */
+	List<T> retrieveSomeWithFiltersFromEnd(Filter<?>[] filters, String[] values, int[] interval);
+
+	/**
+	 * Creates a keyset cursor positioned at the given object, so the objects that follow it in the DAO's ordering can be
+	 * retrieved without the database having to skip the previous ones.
+	 * 
+	 * @param object
+	 *          The object at which the cursor should be positioned (usually the last object of a page).
+	 * 
+	 * @return A cursor positioned at the given object or <code>null</code> if the ordering of the DAO does not allow
+	 *         keyset pagination (e.g., ordering by computed expressions or ordering keys with null values).
+	 */
+	KeysetCursor createCursor(T object);
+
+	/**
+	 * Retrieves objects from the persistent class that come after the given cursor, using keyset (seek) pagination.
+	 * 
+	 * @param cursor
+	 *          The position after which objects should be retrieved. If <code>null</code>, retrieves from the beginning.
+	 * @param maxResults
+	 *          The maximum number of objects to retrieve.
+	 * 
+	 * @return List with the objects that follow the cursor in the persistent domain class.
+	 */
+	List<T> retrieveSomeAfter(KeysetCursor cursor, int maxResults);
+
+	/**
+	 * Retrieves objects from the persistent class that match the specified filters and come after the given cursor,
+	 * using keyset (seek) pagination.
+	 * 
+	 * @param filters
+	 *          The specification that filters the objects from the persistent class.
+	 * @param values
+	 *          The filters' respective input.
+	 * @param cursor
+	 *          The position after which objects should be retrieved. If <code>null</code>, retrieves from the beginning.
+	 * @param maxResults
+	 *          The maximum number of objects to retrieve.
+	 * 
+	 * @return List with the objects that match the filters and follow the cursor in the persistent domain class.
+	 */
+	List<T> retrieveSomeWithFiltersAfter(Filter<?>[] filters, String[] values, KeysetCursor cursor, int maxResults);
+
+	/**
+	 * Retrieves a page of objects from the persistent class together with the total number of objects, so listings can
+	 * be displayed with a single call to the DAO. The count is used to decide how to read the page: after the cursor
+	 * (keyset pagination) if one is given, from the end of the ordering if the page is closer to the end of the listing
+	 * or using the regular offset otherwise. If the count shows that the page is empty, no objects are queried.
+	 * 
+	 * @param interval
+	 *          Array of size 2 with the interval [a, b) (retrieves objects from index a through b-1).
+	 * @param cursor
+	 *          Position of the object at index a-1, if known, or <code>null</code>.
+	 * 
+	 * @return A page with some objects (according to the given interval) from the persistent domain class and the total
+	 *         number of objects.
+	 */
+	EntityPage<T> retrievePage(int[] interval, KeysetCursor cursor);
+
+	/**
+	 * Retrieves a page of objects from the persistent class that match the specified filters, together with the total
+	 * number of objects that match them.
+	 * 
+	 * @param filters
+	 *          The specification that filters the objects from the persistent class.
+	 * @param values
+	 *          The filters' respective input.
+	 * @param interval
+	 *          Array of size 2 with the interval [a, b) (retrieves objects from index a through b-1).
+	 * @param cursor
+	 *          Position of the object at index a-1, if known, or <code>null</code>.
+	 * 
+	 * @return A page with some objects (according to the given interval and filters) from the persistent domain class and
+	 *         the total number of objects that match the filters.
+	 * @see #retrievePage(int[], KeysetCursor)
+	 */
+	EntityPage<T> retrievePageWithFilters(Filter<?>[] filters, String[] values, int[] interval, KeysetCursor cursor);
+
+	/**
+	 * Retrieves a page of objects from the persistent class that match the specified filters, together with the number
+	 * of objects that match them, counted using the given strategy. With approximate strategies, the page is read without
+	 * relying on the count, which is corrected when the page itself shows that it's wrong (e.g., a page that is not full
+	 * is the last one), and the page indicates whether its total is approximate.
+	 * 
+	 * @param filters
+	 *          The specification that filters the objects from the persistent class.
+	 * @param values
+	 *          The filters' respective input.
+	 * @param interval
+	 *          Array of size 2 with the interval [a, b) (retrieves objects from index a through b-1).
+	 * @param cursor
+	 *          Position of the object at index a-1, if known, or <code>null</code>.
+	 * @param strategy
+	 *          How the objects should be counted (exactly, reusing a recent count or estimating).
+	 * 
+	 * @return A page with some objects (according to the given interval and filters) from the persistent domain class and
+	 *         the (possibly approximate) total number of objects that match the filters.
+	 * @see #retrievePageWithFilters(Filter[], String[], int[], KeysetCursor)
+	 */
+	EntityPage<T> retrievePageWithFilters(Filter<?>[] filters, String[] values, int[] interval, KeysetCursor cursor, CountStrategy strategy);
+
+	/**
+	 * Retrieves a page of rows of the persistent class that match the specified filters (see retrieveRowsWithFilters()),
+	 * together with the number of objects that match them, counted using the given strategy.
+	 * 
+	 * @param paths
+	 *          The paths of the attributes to be selected, separated by dots for attributes of associated objects.
+	 * @param filters
+	 *          The specification that filters the objects from the persistent class.
+	 * @param values
+	 *          The filters' respective input.
+	 * @param interval
+	 *          Array of size 2 with the interval [a, b) (retrieves rows from index a through b-1).
+	 * @param strategy
+	 *          How the objects should be counted (exactly, reusing a recent count or estimating).
+	 * 
+	 * @return A page with some rows (according to the given interval and filters) from the persistent domain class and
+	 *         the (possibly approximate) total number of objects that match the filters.
+	 * @see #retrievePageWithFilters(Filter[], String[], int[], KeysetCursor, CountStrategy)
+	 */
+	EntityPage<EntityRow> retrieveRowPageWithFilters(String[] paths, Filter<?>[] filters, String[] values, int[] interval, CountStrategy strategy);
+
+	/**
+	 * Returns the number of persistent objects of this class that match the specified filters, counting them
+	 * asynchronously, in a transaction of its own. Used by the DAO itself to count the objects of a page while the page
+	 * is being read (see BaseJPADAO.isParallelCountEnabled()).
+	 * 
+	 * @param filters
+	 *          The specification that filters the objects from the persistent class.
+	 * @param values
+	 *          The filters' respective input.
+	 * 
+	 * @return The result of the count, available when it's finished.
+	 */
+	Future<Long> retrieveFilteredCountAsynchronously(Filter<?>[] filters, String[] values);
+
+	/**
+	 * Processes all objects from the persistent class, in the DAO's ordering, without loading all of them into memory.
+	 * Objects are read in chunks in read-only mode and detached from the persistence context once processed, so changes
+	 * made to them by the processor are not persisted. After each chunk, pending changes are flushed and the persistence
+	 * context is cleared (which also detaches the objects associated with the processed ones), so memory use remains
+	 * constant regardless of the number of objects. Therefore, objects that the caller obtained in the same transaction
+	 * before calling this method are detached once it returns.
+	 * 
+	 * @param processor
+	 *          The callback that processes each object.
+	 * 
+	 * @return The number of objects processed.
+	 */
+	long forEach(EntityProcessor<T> processor);
+
+	/**
+	 * Processes all objects from the persistent class that match the specified filters, in the DAO's ordering, without
+	 * loading all of them into memory.
+	 * 
+	 * @param filters
+	 *          The specification that filters the objects from the persistent class.
+	 * @param values
+	 *          The filters' respective input.
+	 * @param processor
+	 *          The callback that processes each object.
+	 * 
+	 * @return The number of objects processed.
+	 * @see #forEach(EntityProcessor)
+	 */
+	long forEachWithFilters(Filter<?>[] filters, String[] values, EntityProcessor<T> processor);
+
+	/**
+	 * Obtains a persistent object given its id. If the cache of persistent objects is enabled in the DAO, objects that
+	 * are not managed in the current transaction may be returned as detached copies taken from the cache, after checking
+	 * their version against the database.
 	 * 
 	 * @param id
 	 *          The persistent object's id.
@@ -146,6 +430,55 @@ public interface BaseDAO<T extends PersistentObject> extends Serializable {
 	 */
 	T retrieveById(Long id);
 
+	/**
+	 * Obtains a persistent object given its id, loading in the same query the attributes named in the given fetch plan.
+	 * 
+	 * @param id
+	 *          The persistent object's id.
+	 * @param plan
+	 *          The attributes to be loaded together with the object. If <code>null</code> or empty, the object is
+	 *          retrieved as in retrieveById(Long).
+	 * 
+	 * @return The persistent object that has the given id.
+	 */
+	T retrieveById(Long id, FetchPlan plan);
+
+	/**
+	 * Loads the attributes named in the given fetch plan for a list of persistent objects (e.g., a page of a listing),
+	 * using a single query for all of them instead of one query per object and attribute. Objects whose attributes are
+	 * all loaded already are not retrieved again.
+	 * 
+	 * @param objects
+	 *          The objects whose attributes should be loaded.
+	 * @param plan
+	 *          The attributes to be loaded.
+	 * 
+	 * @return The objects, in the same order, with the attributes of the fetch plan loaded.
+	 */
+	List<T> fetch(List<T> objects, FetchPlan plan);
+
+	/**
+	 * Provides the counters of the cache of persistent objects used by retrieveById(), if the DAO enables it.
+	 * 
+	 * @return The statistics of the cache or <code>null</code>, if the cache is disabled.
+	 */
+	CacheStatistics getEntityCacheStatistics();
+
+	/**
+	 * Provides the counters of the cache of filtered query results, if the DAO enables it.
+	 * 
+	 * @return The statistics of the cache or <code>null</code>, if the cache is disabled.
+	 */
+	CacheStatistics getQueryCacheStatistics();
+
+	/**
+	 * Provides the counters of the count and page queries executed by the DAO: how many were sent to the database and how
+	 * many were coalesced with an identical query that was already being executed.
+	 * 
+	 * @return The statistics of the coalesced queries or <code>null</code>, if coalescing is disabled.
+	 */
+	CoalescingStatistics getCoalescingStatistics();
+
 	/**
 	 * Obtains a persistent object given its UUID.
 	 * 
@@ -161,6 +494,31 @@ public interface BaseDAO<T extends PersistentObject> extends Serializable {
 	 */
 	T retrieveByUuid(String uuid) throws PersistentObjectNotFoundException, MultiplePersistentObjectsFoundException;
 
+	/**
+	 * Obtains many persistent objects given their ids, e.g., the selected options of a many-to-many picker. Objects that
+	 * the DAO has already loaded or saved in the current transaction are used as they are and the others are retrieved
+	 * with as few queries as possible, instead of one query per id.
+	 * 
+	 * @param ids
+	 *          The persistent objects' ids.
+	 * 
+	 * @return The persistent objects, in the order of the given ids. Ids that don't correspond to any object are skipped.
+	 */
+	List<T> retrieveByIds(Collection<Long> ids);
+
+	/**
+	 * Obtains many persistent objects given their UUIDs, with as few queries as possible instead of one query per UUID.
+	 * 
+	 * @param uuids
+	 *          The persistent objects' UUIDs.
+	 * 
+	 * @return The persistent objects, in the order of the given UUIDs. UUIDs that don't correspond to any object are
+	 *         skipped.
+	 * 
+	 * @see #retrieveByIds(Collection)
+	 */
+	List<T> retrieveByUuids(Collection<String> uuids);
+
 	/**
 	 * Stores an object in the persistent media.
 	 * 
@@ -170,13 +528,99 @@ public interface BaseDAO<T extends PersistentObject> extends Serializable {
 	void save(T object);
 
 	/**
-	 * Removes an object from the persistent media.
+	 * Removes an object from the persistent media. Detached objects (e.g., coming from the presentation layer) are not
+	 * merged: if the DAO has already loaded the same object in the current transaction, the managed instance is removed;
+	 * otherwise, they are deleted with a single statement if their class allows it, or through a reference to the
+	 * object. In all cases their version is checked and their state is not copied to the persistence context.
 	 * 
 	 * @param object
 	 *          The object to delete.
 	 */
 	void delete(T object);
 
+	/**
+	 * Removes an object from the persistent media given its id, with a single statement and without loading it. If a
+	 * version is given, the object is only removed if its version hasn't changed. Like other bulk statements, this
+	 * bypasses the persistence context, cascades and entity callbacks.
+	 * 
+	 * @param id
+	 *          The id of the object to delete.
+	 * @param version
+	 *          The version of the object to delete, or <code>null</code> to delete it regardless of its version.
+	 * 
+	 * @return <code>true</code> if the object was deleted, <code>false</code> if it doesn't exist or, if a version was
+	 *         given, it was changed since.
+	 */
+	boolean deleteById(Long id, Long version);
+
+	/**
+	 * Stores many objects in the persistent media. Objects are processed in chunks and, after each chunk, the persistence
+	 * context is flushed (so the JDBC driver can batch the statements) and the objects of the chunk that the call brought
+	 * into it are detached (so it doesn't grow without limit): new objects and the managed copies of detached objects.
+	 * Objects that were managed by the persistence context before the call, including those given to it, stay managed.
+	 * 
+	 * @param objects
+	 *          The objects to store.
+	 * 
+	 * @return Statistics on the chunks in which the objects were stored.
+	 */
+	BatchStatistics saveAll(Collection<T> objects);
+
+	/**
+	 * Removes many objects from the persistent media, in chunks, flushing the persistence context after each chunk.
+	 * Other objects managed by the persistence context are not affected.
+	 * 
+	 * @param objects
+	 *          The objects to delete.
+	 * 
+	 * @return Statistics on the chunks in which the objects were deleted.
+	 * @see #saveAll(Collection)
+	 */
+	BatchStatistics deleteAll(Collection<T> objects);
+
+	/**
+	 * Removes many objects from the persistent media given their ids, in chunks. The objects of each chunk are retrieved
+	 * with a single query and the persistence context is flushed after each chunk. Ids that do not correspond to existing
+	 * objects are ignored.
+	 * 
+	 * @param ids
+	 *          The ids of the objects to delete.
+	 * 
+	 * @return Statistics on the chunks in which the objects were deleted.
+	 * @see #saveAll(Collection)
+	 */
+	BatchStatistics deleteAllById(Collection<Long> ids);
+
+	/**
+	 * Removes all objects that match the specified filters from the persistent media with a single bulk statement,
+	 * without loading them. Bulk statements bypass the persistence context: objects already loaded in it are not
+	 * removed from it and cascades and entity callbacks are not applied.
+	 * 
+	 * @param filters
+	 *          The specification that filters the objects from the persistent class.
+	 * @param values
+	 *          The filters' respective input.
+	 * 
+	 * @return The number of objects deleted.
+	 */
+	int deleteWithFilters(Filter<?>[] filters, String[] values);
+
+	/**
+	 * Changes attributes of all objects that match the specified filters with a single bulk statement, without loading
+	 * them. The version of the objects, if any, is incremented. Bulk statements bypass the persistence context: objects
+	 * already loaded in it are not updated.
+	 * 
+	 * @param filters
+	 *          The specification that filters the objects from the persistent class.
+	 * @param values
+	 *          The filters' respective input.
+	 * @param assignments
+	 *          The new values, indexed by the names of the attributes to which they should be assigned.
+	 * 
+	 * @return The number of objects updated.
+	 */
+	int updateWithFilters(Filter<?>[] filters, String[] values, Map<String, Object> assignments);
+
 	/**
 	 * Merges the object with the current persistence session. This method should be called by service classes when they
 	 * are about to use an attribute of an object which is persisted lazily in order to avoid Lazy Initialization
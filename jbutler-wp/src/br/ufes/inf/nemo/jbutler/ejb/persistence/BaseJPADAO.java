@@ -1,41 +1,104 @@
 package br.ufes.inf.nemo.jbutler.ejb.persistence;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.annotation.Resource;
+import javax.ejb.AsyncResult;
+import javax.ejb.Asynchronous;
+import javax.ejb.SessionContext;
+import javax.persistence.CascadeType;
+import javax.persistence.ElementCollection;
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityListeners;
 import javax.persistence.EntityManager;
+import javax.persistence.EntityNotFoundException;
+import javax.persistence.ManyToMany;
+import javax.persistence.ManyToOne;
 import javax.persistence.NoResultException;
 import javax.persistence.NonUniqueResultException;
+import javax.persistence.OneToMany;
+import javax.persistence.OneToOne;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.PostRemove;
+import javax.persistence.PreRemove;
 import javax.persistence.Query;
+import javax.persistence.Subgraph;
+import javax.persistence.Tuple;
 import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CommonAbstractCriteria;
 import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.From;
 import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Order;
+import javax.persistence.criteria.ParameterExpression;
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
 import javax.persistence.criteria.Subquery;
 import javax.persistence.metamodel.Attribute;
-import javax.persistence.metamodel.CollectionAttribute;
 import javax.persistence.metamodel.EntityType;
-import javax.persistence.metamodel.ListAttribute;
 import javax.persistence.metamodel.ManagedType;
-import javax.persistence.metamodel.MapAttribute;
 import javax.persistence.metamodel.PluralAttribute;
-import javax.persistence.metamodel.SetAttribute;
 import javax.persistence.metamodel.SingularAttribute;
 import javax.persistence.metamodel.Type;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
 
 import br.ufes.inf.nemo.jbutler.ReflectionUtil;
 import br.ufes.inf.nemo.jbutler.ejb.application.filters.Criterion;
 import br.ufes.inf.nemo.jbutler.ejb.application.filters.CriterionType;
 import br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter;
+import br.ufes.inf.nemo.jbutler.ejb.application.filters.FilterType;
 import br.ufes.inf.nemo.jbutler.ejb.application.filters.ManyToManyFilter;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.cache.BoundedCache;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.cache.CacheStatistics;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.cache.CoalescingStatistics;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.cache.QueryResultCache;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.cache.SingleFlight;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.cache.TinyLfuCache;
+import br.ufes.inf.nemo.jbutler.ejb.persistence.cache.TrigramIndex;
 import br.ufes.inf.nemo.jbutler.ejb.persistence.exceptions.MultiplePersistentObjectsFoundException;
 import br.ufes.inf.nemo.jbutler.ejb.persistence.exceptions.PersistentObjectNotFoundException;
 
@@ -64,9 +127,65 @@ public abstract class BaseJPADAO<T extends PersistentObject> implements BaseDAO<
 	/** The logger. */
 	private static final Logger logger = Logger.getLogger(BaseJPADAO.class.getCanonicalName());
 
+	/** Prefix of the keys of the per-transaction maps of managed objects kept in the transaction registry. */
+	private static final String MANAGED_OBJECTS_KEY = BaseJPADAO.class.getName() + ".managedObjects.";
+
+	/** Prefix of the keys of the per-transaction changes to the full-text indexes kept in the transaction registry. */
+	private static final String FULL_TEXT_INDEX_CHANGES_KEY = BaseJPADAO.class.getName() + ".fullTextIndexChanges.";
+
+	/** Prefix of the keys that mark, in the transaction registry, the transactions that modified each domain class. */
+	private static final String MODIFICATION_COUNTER_BUMP_KEY = BaseJPADAO.class.getName() + ".modificationCounterBump.";
+
+	/** Escape character used in LIKE patterns built from values given by the user (see escapeLikePattern()). */
+	private static final char LIKE_ESCAPE_CHAR = '!';
+
+	/** Query hint that tells the persistence provider which entity graph to load (JPA 2.1). */
+	private static final String LOAD_GRAPH_HINT = "javax.persistence.loadgraph";
+
+	/** Caches that map UUIDs to ids, shared by all DAO instances, one for each domain class. */
+	private static final ConcurrentMap<Class<?>, BoundedCache<String, Long>> uuidCaches = new ConcurrentHashMap<Class<?>, BoundedCache<String, Long>>();
+
+	/** Caches of persistent objects indexed by their ids, shared by all DAO instances, one for each domain class. */
+	private static final ConcurrentMap<Class<?>, TinyLfuCache<Long, EntitySnapshot>> entityCaches = new ConcurrentHashMap<Class<?>, TinyLfuCache<Long, EntitySnapshot>>();
+
+	/** Caches of the results of filtered queries (ids and counts), shared by all DAO instances, one for each domain class. */
+	private static final ConcurrentMap<Class<?>, QueryResultCache<String, Object>> queryCaches = new ConcurrentHashMap<Class<?>, QueryResultCache<String, Object>>();
+
+	/** Counters of the modifications made through the DAOs, one for each domain class. Part of the keys of query results. */
+	private static final ConcurrentMap<Class<?>, AtomicLong> modificationCounters = new ConcurrentHashMap<Class<?>, AtomicLong>();
+
+	/** Counts reused by the CACHED count strategy, shared by all DAO instances, one cache for each domain class. */
+	private static final ConcurrentMap<Class<?>, QueryResultCache<String, Object>> countCaches = new ConcurrentHashMap<Class<?>, QueryResultCache<String, Object>>();
+
+	/** Count and page queries being executed, shared by all DAO instances so identical ones are coalesced. */
+	private static final ConcurrentMap<Class<?>, SingleFlight<String>> singleFlights = new ConcurrentHashMap<Class<?>, SingleFlight<String>>();
+
+	/** Full-text indexes of the fields of each domain class, shared by all DAO instances (see getFullTextIndexedFields()). */
+	private static final ConcurrentMap<Class<?>, ConcurrentMap<String, TrigramIndex>> fullTextIndexes = new ConcurrentHashMap<Class<?>, ConcurrentMap<String, TrigramIndex>>();
+
+	/** Whether each domain class can be safely deleted with a single statement (see isBulkDeleteSafe()). */
+	private static final ConcurrentMap<Class<?>, Boolean> bulkDeleteSafety = new ConcurrentHashMap<Class<?>, Boolean>();
+
+	/** Chains of attributes navigated by field names, indexed by the managed type where they start (see getAttributeChain()). */
+	private static final ConcurrentMap<ManagedType<?>, ConcurrentMap<String, AttributeChain>> attributeChains = new ConcurrentHashMap<ManagedType<?>, ConcurrentMap<String, AttributeChain>>();
+
 	/** The domain class. */
 	private Class<T> domainClass;
 
+	/**
+	 * Filter queries already built by this DAO instance, indexed by their signature (see getFilterSignature()). Each
+	 * instance keeps its own, as the EJB container never lets two threads use the same instance at the same time.
+	 */
+	private transient BoundedCache<String, CompiledQuery<?>> compiledQueries;
+
+	/** The context of the session bean, injected by the EJB container, used to call the DAO asynchronously. */
+	@Resource
+	private SessionContext sessionContext;
+
+	/** The registry of the current JTA transaction, injected by the EJB container, used to keep per-transaction state. */
+	@Resource
+	private TransactionSynchronizationRegistry transactionRegistry;
+
 	/** Constructor. */
 	@SuppressWarnings("unchecked")
 	public BaseJPADAO() {
@@ -106,235 +225,2174 @@ public abstract class BaseJPADAO<T extends PersistentObject> implements BaseDAO<
 	}
 
 	/**
-	 * Applies ordering to a query under construction, if any ordering has been provided by the concrete DAO class.
+	 * Method that can be overriden by the subclasses to enable the cache of filter queries. Queries that use the same
+	 * filters have the same structure regardless of the filters' values, which are bound as parameters. Therefore, they
+	 * can be built once and reused. The default implementation returns <code>false</code>, as the order list (see
+	 * getOrderList()) is not part of the structure: only subclasses whose order list is always the same should enable it.
 	 * 
-	 * @param cb
-	 *          The criteria builder object, needed to build queries.
-	 * @param root
-	 *          The root of the query, meta-object that represents the class of objects beind queried.
-	 * @param cq
-	 *          The query being constructed.
+	 * Criteria queries are not thread-safe, so each DAO instance keeps its own cache (see getFilterQueryCacheSize()). As
+	 * the EJB container pools the instances of stateless beans, a query may be built once per instance in the pool.
+	 * 
+	 * @return <code>true</code> if filter queries should be cached, <code>false</code> otherwise.
 	 */
-	protected void applyOrdering(CriteriaBuilder cb, Root<T> root, CriteriaQuery<T> cq) {
-		// Checks if the order list has been provided and applies it.
-		List<Order> orderList = getOrderList(cb, root);
-		if (orderList != null) cq.orderBy(orderList);
+	protected boolean isFilterQueryCacheEnabled() {
+		return false;
 	}
 
 	/**
-	 * Executes a criteria query that expects a single result, throwing checked exceptions in case the expected object
-	 * doesn't exist or also if multiple objects fit the query. JPA provides these exceptions, but they were replaced by
-	 * our own because the container does its own exception handling with JPA's exceptions, which is undesired in many
-	 * cases.
+	 * Method that can be overriden by the subclasses to determine how many filter queries each DAO instance keeps in its
+	 * cache (see isFilterQueryCacheEnabled()). When the cache is full, the least recently used query is discarded. The
+	 * default implementation returns 100.
 	 * 
-	 * @param cq
-	 *          The criteria query to execute.
-	 * @param params
-	 *          The parameters used in the criteria query, which will be included in the exceptions for completeness.
-	 * 
-	 * @return A single object of the managed class which is the result of the query.
-	 * 
-	 * @throws PersistentObjectNotFoundException
-	 *           If no objects matched the query.
-	 * @throws MultiplePersistentObjectsFoundException
-	 *           If more than one object matched the query.
+	 * @return The maximum number of filter queries cached by each DAO instance.
 	 */
-	protected T executeSingleResultQuery(CriteriaQuery<T> cq, Object ... params) throws PersistentObjectNotFoundException, MultiplePersistentObjectsFoundException {
-		// Looks for a single result. Throws a checked exception if the entity is not found or in case of multiple
-		// results.
-		try {
-			T result = getEntityManager().createQuery(cq).getSingleResult();
-			return result;
-		}
-		catch (NoResultException e) {
-			logger.log(Level.WARNING, "NoResultException thrown for params: " + params, e);
-			throw new PersistentObjectNotFoundException(e, getDomainClass(), params);
-		}
-		catch (NonUniqueResultException e) {
-			logger.log(Level.WARNING, "NonUniqueResultException thrown for params: " + params, e);
-			throw new MultiplePersistentObjectsFoundException(e, getDomainClass(), params);
-		}
+	protected int getFilterQueryCacheSize() {
+		return 100;
 	}
 
-	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveCount() */
-	@Override
-	public long retrieveCount() {
-		// Using the entity manager, create a criteria query to retrieve the object count.
-		EntityManager em = getEntityManager();
-		CriteriaBuilder cb = em.getCriteriaBuilder();
-		CriteriaQuery<Long> cq = cb.createQuery(Long.class);
-		Root<T> rt = cq.from(getDomainClass());
-		cq.select(cb.count(rt));
-		Query q = em.createQuery(cq);
-
-		// Retrieve the value and return.
-		long count = ((Long) q.getSingleResult()).longValue();
-		logger.log(Level.INFO, "Retrieved count for {0}: {1}", new Object[] { getDomainClass().getName(), count });
-		return count;
+	/**
+	 * Returns the cache of filter queries of this DAO instance, creating it if necessary.
+	 * 
+	 * @return The cache of filter queries or <code>null</code>, if disabled.
+	 */
+	private BoundedCache<String, CompiledQuery<?>> getCompiledQueries() {
+		if (!isFilterQueryCacheEnabled()) return null;
+		if (compiledQueries == null) compiledQueries = new BoundedCache<String, CompiledQuery<?>>(getFilterQueryCacheSize());
+		return compiledQueries;
 	}
 
 	/**
-	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveFilteredCount(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter,
-	 *      java.lang.String)
+	 * Method that can be overriden by the subclasses to determine how many objects are read at a time when processing
+	 * objects with forEach(). This is used both as the JDBC fetch size and as the number of objects that are kept in the
+	 * persistence context before being detached. The default implementation returns 500.
+	 * 
+	 * @return The number of objects read at a time.
 	 */
-	@Override
-	public long retrieveFilteredCount(Filter<?> filter, String value) {
-		return retrieveFilteredCount(new Filter<?>[] { filter }, new String[] { value });
+	protected int getFetchSize() {
+		return 500;
 	}
 
 	/**
-	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveFilteredCount(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter[],
-	 *      java.lang.String[])
+	 * Method that can be overriden by the subclasses to determine how many objects are processed by batch operations
+	 * (e.g., saveAll()) before the persistence context is flushed and the objects of the chunk are detached. For the
+	 * statements to be batched by the JDBC driver, this should match the batch size configured in the JPA provider. The
+	 * default implementation returns 50.
+	 * 
+	 * @return The number of objects in each chunk of a batch operation.
 	 */
-	public long retrieveFilteredCount(Filter<?>[] filters, String[] values) {
-		// Builds the filtered query.
-		EntityManager em = getEntityManager();
-		CriteriaQuery<Long> cq = buildFilteredCountCriteriaQuery(filters, values);
-		Query q = em.createQuery(cq);
-
-		// Retrieve the value and return.
-		long count = ((Long) q.getSingleResult()).longValue();
-		logger.log(Level.INFO, "Retrieved count for {0}, with {1} filter(s): {2}", new Object[] { getDomainClass().getName(), filters.length, count });
-		return count;
+	protected int getBatchSize() {
+		return 50;
 	}
 
-	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveAll() */
-	@Override
-	public List<T> retrieveAll() {
-		logger.log(Level.FINER, "Retrieving all objects of class \"{0}\"...", getDomainClass().getName());
-
-		// Using the entity manager, create a criteria query to retrieve all objects of the domain class.
-		EntityManager em = getEntityManager();
-		CriteriaBuilder cb = em.getCriteriaBuilder();
-		CriteriaQuery<T> cq = cb.createQuery(getDomainClass());
-		Root<T> root = cq.from(getDomainClass());
-		cq.select(root);
+	/**
+	 * Method that can be overriden by the subclasses to determine if, when a page of a listing depends on the count
+	 * (i.e., any page but the first), the count and the page should be queried in parallel instead of one after the
+	 * other. The count is then executed asynchronously, through the EJB container, in a transaction (and database
+	 * connection) of its own, so it doesn't see changes not yet committed by the caller's transaction, and the page is
+	 * read by its offset or cursor, without the optimizations that depend on the count (such as reading pages near the
+	 * end of the listing from the end). The default implementation returns <code>false</code>.
+	 * 
+	 * @return <code>true</code> if the count of a page should be queried in parallel with the page, <code>false</code>
+	 *         otherwise.
+	 */
+	protected boolean isParallelCountEnabled() {
+		return false;
+	}
 
-		// Applies ordering.
-		applyOrdering(cb, root, cq);
+	/**
+	 * Method that can be overriden by the subclasses to determine how many ids or UUIDs are sent in each IN list when
+	 * retrieving many objects at once (e.g., retrieveByIds()). Lists that are longer are split into chunks of this size,
+	 * as databases limit the number of elements (or parameters) of a statement. The default implementation returns 500.
+	 * 
+	 * @return The maximum number of elements in an IN list.
+	 */
+	protected int getInListSize() {
+		return 500;
+	}
 
-		// Return the list of objects.
-		List<T> result = em.createQuery(cq).getResultList();
-		logger.log(Level.INFO, "Retrieve all for class \"{0}\" returned \"{1}\" objects", new Object[] { getDomainClass().getName(), result.size() });
-		return result;
+	/**
+	 * Method that can be overriden by the subclasses to keep in-memory full-text indexes of fields that users search by
+	 * substring (e.g., names and titles) with a LikeFilter. The default implementation returns null, i.e., no fields are
+	 * indexed.
+	 * 
+	 * Each index is built by a scan of the objects in the background the first time it's needed (or when
+	 * buildFullTextIndexes() is called, e.g., by a @Startup bean) and, until it's ready, searches are answered by the
+	 * database as usual. Filtered queries then resolve LIKE filters over the indexed fields to the ids of the matching
+	 * objects, retrieving only those by their primary key instead of scanning the table. The LIKE predicate is still
+	 * applied to these objects, so objects that the index finds by mistake are discarded, but the ones it misses are not
+	 * found. Therefore, objects saved and deleted through the DAO reach the indexes only when their transaction commits,
+	 * and a transaction that has made such changes doesn't use the indexes, so it sees its own changes. Bulk operations
+	 * (deleteWithFilters() and updateWithFilters()) make the indexes be built again once they commit. Objects changed
+	 * without going through the DAO (e.g., by other applications) may not be found until the index is built again.
+	 * Indexes take memory proportional to the size of the values, so only fields of the domain class itself (without
+	 * navigation) with short values should be indexed.
+	 * 
+	 * @return The names of the fields that should be indexed or <code>null</code>, if none.
+	 */
+	protected String[] getFullTextIndexedFields() {
+		return null;
 	}
 
 	/**
-	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveWithFilter(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter,
-	 *      java.lang.String)
+	 * Returns the full-text index of a field of the domain class, starting to build it in the background if it hasn't been
+	 * built yet.
+	 * 
+	 * @param fieldName
+	 *          The name of the field.
+	 * 
+	 * @return The index of the field or <code>null</code>, if the field is not indexed or its index is not ready yet.
 	 */
-	@Override
-	public List<T> retrieveWithFilter(Filter<?> filter, String value) {
-		return retrieveWithFilters(new Filter<?>[] { filter }, new String[] { value });
+	private TrigramIndex getFullTextIndex(String fieldName) {
+		TrigramIndex index = findFullTextIndex(fieldName);
+		if (index == null) return null;
+		if ((!index.isReady()) && index.tryStartBuilding()) startBuildingFullTextIndex(index, fieldName);
+		return index.isReady() ? index : null;
 	}
 
 	/**
-	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveWithFilters(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter[],
-	 *      java.lang.String[])
+	 * Returns the full-text index of a field of the domain class, creating it (empty and not ready) if necessary.
+	 * 
+	 * @param fieldName
+	 *          The name of the field.
+	 * 
+	 * @return The index of the field or <code>null</code>, if the field is not indexed.
 	 */
-	public List<T> retrieveWithFilters(Filter<?>[] filters, String[] values) {
-		logger.log(Level.FINER, "Retrieving all objects of class \"{0}\" using {1} filter(s)...", new Object[] { getDomainClass().getName(), filters.length });
+	private TrigramIndex findFullTextIndex(String fieldName) {
+		String[] indexedFields = getFullTextIndexedFields();
+		if ((indexedFields == null) || !Arrays.asList(indexedFields).contains(fieldName)) return null;
+		ConcurrentMap<String, TrigramIndex> indexes = fullTextIndexes.get(getDomainClass());
+		if (indexes == null) {
+			fullTextIndexes.putIfAbsent(getDomainClass(), new ConcurrentHashMap<String, TrigramIndex>());
+			indexes = fullTextIndexes.get(getDomainClass());
+		}
+		TrigramIndex index = indexes.get(fieldName);
+		if (index == null) {
+			indexes.putIfAbsent(fieldName, new TrigramIndex());
+			index = indexes.get(fieldName);
+		}
+		return index;
+	}
 
-		// Builds the filtered query and returns the result.
-		EntityManager em = getEntityManager();
-		CriteriaQuery<T> cq = buildFilteredCriteriaQuery(filters, values);
-		List<T> result = em.createQuery(cq).getResultList();
-		logger.log(Level.INFO, "Retrieve with {0} filter(s) for class \"{1}\" returned \"{2}\" objects", new Object[] { filters.length, getDomainClass().getName(), result.size() });
-		return result;
+	/**
+	 * Starts building a full-text index asynchronously, so the request that needed it isn't delayed by the scan. The DAO
+	 * calls itself through the EJB container, using the business interface through which it has been invoked. If that's
+	 * not possible, the index is left to be built later (e.g., by buildFullTextIndexes()).
+	 * 
+	 * @param index
+	 *          The index to be built, already marked as being built.
+	 * @param fieldName
+	 *          The name of the field.
+	 */
+	@SuppressWarnings("unchecked")
+	private void startBuildingFullTextIndex(TrigramIndex index, String fieldName) {
+		try {
+			if (sessionContext == null) throw new IllegalStateException("no session context");
+			BaseDAO<T> self = (BaseDAO<T>) sessionContext.getBusinessObject(sessionContext.getInvokedBusinessInterface());
+			self.buildFullTextIndexAsynchronously(fieldName);
+		}
+		catch (IllegalStateException e) {
+			logger.log(Level.FINE, "Could not build full-text index of field \"{0}\" of class \"{1}\" in the background: {2}", new Object[] { fieldName, getDomainClass().getName(), e.getMessage() });
+			index.clear();
+		}
 	}
 
-	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveSome(int[]) */
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#buildFullTextIndexAsynchronously(java.lang.String) */
 	@Override
-	public List<T> retrieveSome(int[] interval) {
-		logger.log(Level.FINER, "Retrieving objects of class \"{0}\" in interval [{1}, {2})...", new Object[] { getDomainClass().getName(), interval[0], interval[1] });
+	@Asynchronous
+	public void buildFullTextIndexAsynchronously(String fieldName) {
+		TrigramIndex index = findFullTextIndex(fieldName);
+		if ((index != null) && (!index.isReady())) buildFullTextIndex(index, fieldName);
+	}
 
-		// Using the entity manager, create a criteria query to retrieve objects of the domain class.
+	/**
+	 * Fills a full-text index with the values of a field of all objects of the domain class. Objects are read in chunks,
+	 * ordered by id, selecting only their ids and the values of the field. Objects saved or deleted by transactions that
+	 * commit during the scan keep the values given by those transactions (see TrigramIndex.putScanned()).
+	 * 
+	 * @param index
+	 *          The index to be filled.
+	 * @param fieldName
+	 *          The name of the field.
+	 */
+	private void buildFullTextIndex(TrigramIndex index, String fieldName) {
+		logger.log(Level.FINER, "Building full-text index of field \"{0}\" of class \"{1}\"...", new Object[] { fieldName, getDomainClass().getName() });
+		long generation = index.getGeneration();
 		EntityManager em = getEntityManager();
 		CriteriaBuilder cb = em.getCriteriaBuilder();
-		CriteriaQuery<T> cq = cb.createQuery(getDomainClass());
-		Root<T> root = cq.from(getDomainClass());
-		cq.select(root);
-
-		// Applies ordering.
-		applyOrdering(cb, root, cq);
+		int chunkSize = getFetchSize();
+		long lastId = Long.MIN_VALUE;
+		List<Tuple> chunk;
+		try {
+			do {
+				CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+				Root<T> root = cq.from(getDomainClass());
+				Path<Long> idPath = root.get("id");
+				cq.multiselect(idPath, findPath(root, root.getModel(), fieldName));
+				cq.where(cb.greaterThan(idPath, lastId));
+				cq.orderBy(cb.asc(idPath));
+				TypedQuery<Tuple> q = em.createQuery(cq);
+				q.setMaxResults(chunkSize);
+				applyStreamingHints(q);
+				chunk = q.getResultList();
+				for (Tuple tuple : chunk) {
+					lastId = (Long) tuple.get(0);
+					Object value = tuple.get(1);
+					index.putScanned(lastId, (value == null) ? null : value.toString());
+				}
+			}
+			while (chunk.size() == chunkSize);
+		}
+		catch (RuntimeException e) {
+			// Allows the index to be built again later, unless it has already been cleared.
+			if (index.getGeneration() == generation) index.clear();
+			throw e;
+		}
 
-		// Determine the interval to retrieve.
-		TypedQuery<T> q = em.createQuery(cq);
-		q.setMaxResults(interval[1] - interval[0]);
-		q.setFirstResult(interval[0]);
+		// If the index has been cleared during the scan (e.g., by a bulk operation), the values read may be outdated.
+		if (index.finishBuilding(generation)) logger.log(Level.INFO, "Built full-text index of field \"{0}\" of class \"{1}\": {2}", new Object[] { fieldName, getDomainClass().getName(), index });
+		else logger.log(Level.INFO, "Discarded full-text index of field \"{0}\" of class \"{1}\", cleared while being built", new Object[] { fieldName, getDomainClass().getName() });
+	}
 
-		// Return the list of objects.
-		List<T> result = q.getResultList();
-		logger.log(Level.INFO, "Retrieve in interval [{0}, {1}) for class \"{2}\" returned \"{3}\" objects", new Object[] { interval[0], interval[1], getDomainClass().getName(), result.size() });
-		return result;
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#buildFullTextIndexes() */
+	@Override
+	public void buildFullTextIndexes() {
+		String[] indexedFields = getFullTextIndexedFields();
+		if (indexedFields == null) return;
+		for (String fieldName : indexedFields) {
+			TrigramIndex index = findFullTextIndex(fieldName);
+			index.clear();
+			if (index.tryStartBuilding()) buildFullTextIndex(index, fieldName);
+		}
 	}
 
 	/**
-	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveSomeWithFilter(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter,
-	 *      java.lang.String, int[])
+	 * Returns the changes made to the full-text indexes of the domain class in the current transaction, which are applied
+	 * to the indexes only if it commits.
+	 * 
+	 * @param indexes
+	 *          The full-text indexes of the domain class.
+	 * @param create
+	 *          Whether the changes should be created (and registered with the transaction) if there are none yet.
+	 * 
+	 * @return The changes of the current transaction or, if there's no transaction, changes that are applied as soon as
+	 *         they're made (<code>null</code>, when not creating).
 	 */
-	@Override
-	public List<T> retrieveSomeWithFilter(Filter<?> filter, String value, int[] interval) {
-		return retrieveSomeWithFilters(new Filter<?>[] { filter }, new String[] { value }, interval);
+	private FullTextIndexChanges getFullTextIndexChanges(ConcurrentMap<String, TrigramIndex> indexes, boolean create) {
+		if (transactionRegistry != null) try {
+			if (transactionRegistry.getTransactionKey() != null) {
+				String key = FULL_TEXT_INDEX_CHANGES_KEY + getDomainClass().getName();
+				FullTextIndexChanges changes = (FullTextIndexChanges) transactionRegistry.getResource(key);
+				if ((changes == null) && create) {
+					changes = new FullTextIndexChanges(indexes, true);
+					transactionRegistry.registerInterposedSynchronization(changes);
+					transactionRegistry.putResource(key, changes);
+				}
+				return changes;
+			}
+		}
+		catch (IllegalStateException e) {
+			// The outcome of the transaction cannot be followed (e.g., it's completing), so the indexes are built again.
+			if (!create) return null;
+			logger.log(Level.FINE, "Could not defer changes to the full-text indexes of class \"{0}\", clearing them: {1}", new Object[] { getDomainClass().getName(), e.getMessage() });
+			FullTextIndexChanges changes = new FullTextIndexChanges(indexes, false);
+			changes.clear();
+			return changes;
+		}
+		return create ? new FullTextIndexChanges(indexes, false) : null;
 	}
 
-	public List<T> retrieveSomeWithFilters(Filter<?>[] filters, String[] values, int[] interval) {
-		logger.log(Level.FINER, "Retrieving objects of class \"{0}\" in interval [{1}, {2}) using {3} filter(s)...", new Object[] { getDomainClass().getName(), interval[0], interval[1], filters.length });
+	/**
+	 * Updates the full-text indexes, if any, with the values of the given object, once the transaction commits.
+	 * 
+	 * @param object
+	 *          The object that has been saved.
+	 */
+	private void updateFullTextIndexes(T object) {
+		ConcurrentMap<String, TrigramIndex> indexes = fullTextIndexes.get(getDomainClass());
+		if ((indexes == null) || (object.getId() == null)) return;
+		EntityType<T> model = getEntityManager().getMetamodel().entity(getDomainClass());
+		Map<String, String> fieldValues = new HashMap<String, String>();
+		for (String fieldName : indexes.keySet()) {
+			Object value = readAttributeValue(getAttributeChain(model, fieldName).attribute, object);
+			fieldValues.put(fieldName, (value == null) ? null : value.toString());
+		}
+		getFullTextIndexChanges(indexes, true).put(object.getId(), fieldValues);
+	}
 
-		// Builds the filtered query.
-		EntityManager em = getEntityManager();
-		CriteriaQuery<T> cq = buildFilteredCriteriaQuery(filters, values);
+	/**
+	 * Removes an object from the full-text indexes, if any, once the transaction commits.
+	 * 
+	 * @param id
+	 *          The id of the object that has been deleted.
+	 */
+	private void removeFromFullTextIndexes(Long id) {
+		ConcurrentMap<String, TrigramIndex> indexes = fullTextIndexes.get(getDomainClass());
+		if ((indexes != null) && (id != null)) getFullTextIndexChanges(indexes, true).remove(id);
+	}
 
-		// Determine the interval to retrieve and return the result.
-		TypedQuery<T> q = em.createQuery(cq);
-		q.setMaxResults(interval[1] - interval[0]);
-		q.setFirstResult(interval[0]);
-		List<T> result = q.getResultList();
-		logger.log(Level.INFO, "Retrieve in interval [{0}, {1}) with {2} filter(s) for class \"{3}\" returned \"{4}\" objects", new Object[] { interval[0], interval[1], filters.length, getDomainClass().getName(), result.size() });
-		return result;
+	/**
+	 * Clears the full-text indexes, if any, once the transaction commits, so they're built again when needed. Used after
+	 * bulk operations.
+	 */
+	private void clearFullTextIndexes() {
+		ConcurrentMap<String, TrigramIndex> indexes = fullTextIndexes.get(getDomainClass());
+		if (indexes != null) getFullTextIndexChanges(indexes, true).clear();
 	}
 
-	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveById(java.lang.Long) */
-	@Override
-	public T retrieveById(Long id) {
-		logger.log(Level.FINER, "Retrieving object of class \"{0}\" with id {1}...", new Object[] { getDomainClass().getName(), id });
+	/**
+	 * Resolves the first LIKE filter over a field with a full-text index to the ids of the objects that match it. Filters
+	 * that declare another match type, values with wildcards and values too short for the index are not resolved.
+	 * 
+	 * @param filters
+	 *          The filters to be applied to the query.
+	 * @param values
+	 *          The values associated with their respective filters.
+	 * 
+	 * @return The ids of the objects that match one of the LIKE filters or <code>null</code>, if none can be resolved.
+	 */
+	private long[] searchFullTextIndexes(Filter<?>[] filters, String[] values) {
+		if (getFullTextIndexedFields() == null) return null;
 
-		// Uses the Persistence Context to retrieve an object given its id.
-		EntityManager em = getEntityManager();
-		T result = (T) em.find(getDomainClass(), id);
-		logger.log(Level.INFO, "Retrieve object of class {0} with id {1} returned \"{2}\"", new Object[] { getDomainClass().getName(), id, result });
-		return result;
+		// The indexes don't have the changes of the current transaction yet, so it can only see them through the database.
+		ConcurrentMap<String, TrigramIndex> indexes = fullTextIndexes.get(getDomainClass());
+		FullTextIndexChanges changes = (indexes == null) ? null : getFullTextIndexChanges(indexes, false);
+		if ((changes != null) && !changes.isEmpty()) return null;
+		for (int i = 0; i < filters.length; i++) {
+			Filter<?> filter = filters[i];
+			String value = values[i];
+			if ((filter.getType() != FilterType.LIKE) || (getMatchType(filter, CriterionType.LIKE) != CriterionType.LIKE)) continue;
+			if ((value == null) || (value.indexOf('%') != -1) || (value.indexOf('_') != -1)) continue;
+			TrigramIndex index = getFullTextIndex(filter.getFieldName());
+			long[] ids = (index == null) ? null : index.search(value);
+			if (ids != null) {
+				logger.log(Level.FINEST, "Full-text index of field \"{0}\" of class \"{1}\" found {2} objects for \"{3}\"", new Object[] { filter.getFieldName(), getDomainClass().getName(), ids.length, value });
+				return ids;
+			}
+		}
+		return null;
 	}
 
-	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveByUuid(java.lang.String) */
-	@Override
-	public T retrieveByUuid(String uuid) throws PersistentObjectNotFoundException, MultiplePersistentObjectsFoundException {
-		logger.log(Level.FINER, "Retrieving object of class \"{0}\" with UUID {1}...", new Object[] { getDomainClass().getName(), uuid });
-
-		// Constructs the query over the PersistentObject class.
+	/**
+	 * Builds a query that retrieves (or counts) the objects among the given ids that match the given filters.
+	 * 
+	 * @param cq
+	 *          The criteria query, whose selection is already defined.
+	 * @param root
+	 *          The root of the query.
+	 * @param filters
+	 *          The filters to be applied to the query.
+	 * @param values
+	 *          The values associated with their respective filters.
+	 * @param ids
+	 *          The ids of the objects that may be retrieved (at most getInListSize() of them).
+	 * 
+	 * @return The query, with its parameters already bound, ready to be executed.
+	 */
+	private <Q> TypedQuery<Q> buildQueryAmongIds(CriteriaQuery<Q> cq, Root<T> root, Filter<?>[] filters, String[] values, long[] ids) {
 		EntityManager em = getEntityManager();
 		CriteriaBuilder cb = em.getCriteriaBuilder();
-		CriteriaQuery<T> cq = cb.createQuery(getDomainClass());
-		Root<T> root = cq.from(getDomainClass());
-
-		// Filters the query with the name.
-		cq.where(cb.equal(root.get("uuid"), uuid));
-		T result = executeSingleResultQuery(cq, uuid);
-		return result;
+		List<Long> idList = new ArrayList<Long>(ids.length);
+		for (long id : ids)
+			idList.add(id);
+		List<ParameterExpression<?>> parameters = new ArrayList<ParameterExpression<?>>();
+		List<Predicate> predicates = buildFilterPredicates(cb, cq, root, filters, parameters);
+		predicates.add(root.get("id").in(idList));
+		cq.where(predicates.toArray(new Predicate[0]));
+		TypedQuery<Q> q = em.createQuery(cq);
+		bindFilterParameters(q, parameters, filters, values);
+		return q;
 	}
 
 	/**
-	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#save(br.ufes.inf.nemo.jbutler.ejb.persistence.PersistentObject)
+	 * Method that can be overriden by the subclasses to determine if detached objects can be deleted with a single
+	 * statement (see deleteById()), without loading them first. This is only safe if the domain class has no cascades,
+	 * orphan removal, collection tables or entity callbacks that should be applied on removal, since the statement
+	 * bypasses the persistence context. The default implementation inspects the annotations of the domain class and its
+	 * superclasses, returning <code>true</code> only if none of these are declared. Subclasses whose mappings or listeners
+	 * are declared in XML (e.g., orm.xml) should override it.
+	 * 
+	 * @return <code>true</code> if objects can be deleted directly, <code>false</code> otherwise.
 	 */
-	@Override
-	public void save(T object) {
-		logger.log(Level.FINER, "Saving an object of class {0}: \"{1}\"...", new Object[] { getDomainClass().getName(), object });
+	protected boolean isBulkDeleteSafe() {
+		Boolean safe = bulkDeleteSafety.get(getDomainClass());
+		if (safe == null) {
+			safe = isBulkDeleteSafe(getDomainClass());
+			bulkDeleteSafety.put(getDomainClass(), safe);
+			logger.log(Level.FINE, "Objects of class \"{0}\" can be deleted with a single statement: {1}", new Object[] { getDomainClass().getName(), safe });
+		}
+		return safe;
+	}
+
+	/**
+	 * Checks the annotations of a class and its superclasses for anything that a statement that deletes its objects
+	 * directly would bypass: entity listeners or callbacks on removal, element collections, many-to-many associations
+	 * (whose join tables would not be cleaned), cascades of removal and orphan removal.
+	 * 
+	 * @param clazz
+	 *          The class to be checked.
+	 * 
+	 * @return <code>true</code> if none of the above are declared, <code>false</code> otherwise.
+	 */
+	private static boolean isBulkDeleteSafe(Class<?> clazz) {
+		for (Class<?> type = clazz; (type != null) && (type != Object.class); type = type.getSuperclass()) {
+			if (type.isAnnotationPresent(EntityListeners.class)) return false;
+			List<AccessibleObject> members = new ArrayList<AccessibleObject>();
+			members.addAll(Arrays.asList(type.getDeclaredFields()));
+			members.addAll(Arrays.asList(type.getDeclaredMethods()));
+			for (AccessibleObject member : members) {
+				if (member.isAnnotationPresent(PreRemove.class) || member.isAnnotationPresent(PostRemove.class)) return false;
+				if (member.isAnnotationPresent(ElementCollection.class) || member.isAnnotationPresent(ManyToMany.class)) return false;
+				OneToMany oneToMany = member.getAnnotation(OneToMany.class);
+				if ((oneToMany != null) && (oneToMany.orphanRemoval() || cascadesRemoval(oneToMany.cascade()))) return false;
+				OneToOne oneToOne = member.getAnnotation(OneToOne.class);
+				if ((oneToOne != null) && (oneToOne.orphanRemoval() || cascadesRemoval(oneToOne.cascade()))) return false;
+				ManyToOne manyToOne = member.getAnnotation(ManyToOne.class);
+				if ((manyToOne != null) && cascadesRemoval(manyToOne.cascade())) return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks if the cascade of an association includes removal.
+	 * 
+	 * @param cascade
+	 *          The cascade types of the association.
+	 * 
+	 * @return <code>true</code> if removals are cascaded, <code>false</code> otherwise.
+	 */
+	private static boolean cascadesRemoval(CascadeType[] cascade) {
+		for (CascadeType type : cascade)
+			if ((type == CascadeType.ALL) || (type == CascadeType.REMOVE)) return true;
+		return false;
+	}
+
+	/**
+	 * Method that can be overriden by the subclasses to determine how many UUIDs of the domain class are mapped to their
+	 * ids in memory, so retrieveByUuid() can look objects up by their primary key. The default implementation returns
+	 * 10000. Return zero to disable the cache.
+	 * 
+	 * @return The maximum number of entries in the UUID cache.
+	 */
+	protected int getUuidCacheSize() {
+		return 10000;
+	}
+
+	/**
+	 * Returns the cache that maps UUIDs to ids for the domain class, creating it if necessary.
+	 * 
+	 * @return The UUID cache or <code>null</code>, if disabled.
+	 */
+	private BoundedCache<String, Long> getUuidCache() {
+		int size = getUuidCacheSize();
+		if (size <= 0) return null;
+		BoundedCache<String, Long> cache = uuidCaches.get(getDomainClass());
+		if (cache == null) {
+			uuidCaches.putIfAbsent(getDomainClass(), new BoundedCache<String, Long>(size));
+			cache = uuidCaches.get(getDomainClass());
+		}
+		return cache;
+	}
+
+	/**
+	 * Stores the UUIDs and ids of the given objects in the UUID cache, if enabled. Objects that haven't been assigned an
+	 * id yet are ignored.
+	 * 
+	 * @param objects
+	 *          The objects whose UUIDs should be cached.
+	 */
+	private void cacheUuids(List<T> objects) {
+		BoundedCache<String, Long> cache = getUuidCache();
+		if (cache != null) for (T object : objects)
+			if (object.getId() != null) cache.put(object.getUuid(), object.getId());
+	}
+
+	/**
+	 * Method that can be overriden by the subclasses to enable a cache of the persistent objects retrieved by id (see
+	 * retrieveById()), determining its maximum number of entries. The default implementation returns zero, which
+	 * disables the cache.
+	 * 
+	 * The cache keeps serialized snapshots of the objects, which are checked against the version stored in the database
+	 * (a query that reads a single column through the primary key) before being used, and discarded when the object is
+	 * saved, merged or deleted through the DAO. Objects obtained from the cache are detached copies: changes made to them
+	 * are not detected by the persistence context and their lazy attributes cannot be loaded, so it should only be enabled
+	 * for classes whose objects are serializable, read often and not changed through the persistence context (i.e.,
+	 * without calling save() or merge()). Objects that the DAO has already loaded or saved in the current transaction are
+	 * returned as the managed instances, without using the cache. Classes without a version attribute are never cached.
+	 * 
+	 * @return The maximum number of entries in the cache of persistent objects.
+	 */
+	protected int getEntityCacheSize() {
+		return 0;
+	}
+
+	/**
+	 * Returns the cache of persistent objects of the domain class, creating it if necessary.
+	 * 
+	 * @return The cache of persistent objects or <code>null</code>, if disabled.
+	 */
+	private TinyLfuCache<Long, EntitySnapshot> getEntityCache() {
+		TinyLfuCache<Long, EntitySnapshot> cache = entityCaches.get(getDomainClass());
+		if (cache == null) {
+			// Checks if the cache is enabled and if the domain class has a version to validate the cached objects.
+			int size = getEntityCacheSize();
+			if ((size <= 0) || (getVersionAttribute(getEntityManager().getMetamodel().entity(getDomainClass())) == null)) return null;
+			entityCaches.putIfAbsent(getDomainClass(), new TinyLfuCache<Long, EntitySnapshot>(size));
+			cache = entityCaches.get(getDomainClass());
+		}
+		return cache;
+	}
+
+	/**
+	 * Removes an object from the cache of persistent objects, if enabled.
+	 * 
+	 * @param id
+	 *          The id of the object.
+	 */
+	private void evictEntity(Long id) {
+		TinyLfuCache<Long, EntitySnapshot> cache = (id == null) ? null : entityCaches.get(getDomainClass());
+		if (cache != null) cache.remove(id);
+	}
+
+	/** Removes all objects from the cache of persistent objects, if enabled. Used after bulk operations. */
+	private void evictAllEntities() {
+		TinyLfuCache<Long, EntitySnapshot> cache = entityCaches.get(getDomainClass());
+		if (cache != null) cache.clear();
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#getEntityCacheStatistics() */
+	@Override
+	public CacheStatistics getEntityCacheStatistics() {
+		TinyLfuCache<Long, EntitySnapshot> cache = getEntityCache();
+		return (cache == null) ? null : cache.getStatistics();
+	}
+
+	/**
+	 * Returns the map of the objects of the domain class that the DAO has loaded or saved in the current transaction,
+	 * indexed by their ids. As the persistence context of a container-managed entity manager lasts as long as the
+	 * transaction, the objects of this map that are still contained in the entity manager are the managed instances of
+	 * their ids, and can be returned without querying the database or the cache of persistent objects.
+	 * 
+	 * @param create
+	 *          Whether the map should be created if the transaction doesn't have one yet.
+	 * 
+	 * @return The map of managed objects or <code>null</code>, if there is no transaction (or no map, when not creating).
+	 */
+	@SuppressWarnings("unchecked")
+	private Map<Long, T> getManagedObjects(boolean create) {
+		if (transactionRegistry == null) return null;
+		try {
+			if (transactionRegistry.getTransactionKey() == null) return null;
+			String key = MANAGED_OBJECTS_KEY + getDomainClass().getName();
+			Map<Long, T> managedObjects = (Map<Long, T>) transactionRegistry.getResource(key);
+			if ((managedObjects == null) && create) {
+				managedObjects = new HashMap<Long, T>();
+				transactionRegistry.putResource(key, managedObjects);
+			}
+			return managedObjects;
+		}
+		catch (IllegalStateException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Records that the given object is managed by the persistence context of the current transaction (see
+	 * getManagedObjects()). Objects that haven't been assigned an id yet are ignored.
+	 * 
+	 * @param object
+	 *          The managed object.
+	 */
+	private void trackManaged(T object) {
+		if ((object == null) || (object.getId() == null)) return;
+		Map<Long, T> managedObjects = getManagedObjects(true);
+		if (managedObjects != null) managedObjects.put(object.getId(), object);
+	}
+
+	/**
+	 * Returns the instance of the object with the given id that is managed by the persistence context of the current
+	 * transaction, if the DAO has loaded or saved it in this transaction and it's still managed (see
+	 * getManagedObjects()).
+	 * 
+	 * @param id
+	 *          The id of the object.
+	 * 
+	 * @return The managed object or <code>null</code>, if it's not known to be managed.
+	 */
+	private T findManaged(Long id) {
+		Map<Long, T> managedObjects = (id == null) ? null : getManagedObjects(false);
+		T object = (managedObjects == null) ? null : managedObjects.get(id);
+		if ((object != null) && !getEntityManager().contains(object)) {
+			managedObjects.remove(id);
+			object = null;
+		}
+		return object;
+	}
+
+	/**
+	 * Method that can be overriden by the subclasses to enable a cache of the results of filtered queries (see
+	 * retrieveSomeWithFilters() and retrieveFilteredCount()), determining how much memory it can take, in bytes (an
+	 * estimate based on the number of ids stored). The default implementation returns zero, which disables the cache.
+	 * 
+	 * The cache stores the ids of the objects in each page (which are then retrieved by id, through the cache of
+	 * persistent objects if enabled, or all at once otherwise) and the counts. Results are indexed by the filters, their
+	 * values, the interval and the number of modifications made to the domain class through the DAO (save(), delete(),
+	 * etc.), so any modification makes previous results obsolete. Changes made by other means (other nodes of a cluster,
+	 * changes to related classes that are used in the filters, etc.) are only seen when results expire (see
+	 * getQueryCacheTimeToLive()). Therefore, the cache should be enabled only for classes that change rarely.
+	 * 
+	 * @return The memory budget of the cache of query results, in bytes.
+	 */
+	protected long getQueryCacheBudget() {
+		return 0;
+	}
+
+	/**
+	 * Method that can be overriden by the subclasses to determine how long the results of filtered queries are kept in
+	 * the cache (see getQueryCacheBudget()). The default implementation returns 60000 (one minute).
+	 * 
+	 * @return The time to live of cached query results, in milliseconds.
+	 */
+	protected long getQueryCacheTimeToLive() {
+		return 60000;
+	}
+
+	/**
+	 * Returns the cache of query results of the domain class, creating it if necessary.
+	 * 
+	 * @return The cache of query results or <code>null</code>, if disabled.
+	 */
+	private QueryResultCache<String, Object> getQueryCache() {
+		long budget = getQueryCacheBudget();
+		if (budget <= 0) return null;
+		QueryResultCache<String, Object> cache = queryCaches.get(getDomainClass());
+		if (cache == null) {
+			queryCaches.putIfAbsent(getDomainClass(), new QueryResultCache<String, Object>(budget, getQueryCacheTimeToLive()));
+			cache = queryCaches.get(getDomainClass());
+		}
+		return cache;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#getQueryCacheStatistics() */
+	@Override
+	public CacheStatistics getQueryCacheStatistics() {
+		QueryResultCache<String, Object> cache = getQueryCache();
+		return (cache == null) ? null : cache.getStatistics();
+	}
+
+	/**
+	 * Returns the counter of modifications made to objects of the domain class through the DAOs, creating it if
+	 * necessary.
+	 * 
+	 * @return The modification counter.
+	 */
+	private AtomicLong getModificationCounter() {
+		AtomicLong counter = modificationCounters.get(getDomainClass());
+		if (counter == null) {
+			modificationCounters.putIfAbsent(getDomainClass(), new AtomicLong());
+			counter = modificationCounters.get(getDomainClass());
+		}
+		return counter;
+	}
+
+	/**
+	 * Registers that objects of the domain class are being modified, which makes the cached query results obsolete and
+	 * removes the given object from the cache of persistent objects.
+	 * 
+	 * @param id
+	 *          The id of the modified object, or <code>null</code> if unknown (e.g., new objects or bulk operations).
+	 */
+	private void registerModification(Long id) {
+		bumpModificationCounter();
+		evictEntity(id);
+	}
+
+	/**
+	 * Increments the counter of modifications of the domain class, so the transaction doesn't read cached query results
+	 * that precede its changes. If in a transaction, the counter is incremented again when it completes (commits or
+	 * rolls back), because results computed by other transactions in the meantime don't see the changes, yet are cached
+	 * under the incremented counter.
+	 */
+	private void bumpModificationCounter() {
+		AtomicLong counter = getModificationCounter();
+		counter.incrementAndGet();
+		if (transactionRegistry != null) try {
+			if (transactionRegistry.getTransactionKey() != null) {
+				String key = MODIFICATION_COUNTER_BUMP_KEY + getDomainClass().getName();
+				if (transactionRegistry.getResource(key) == null) {
+					transactionRegistry.registerInterposedSynchronization(new ModificationCounterBump(counter));
+					transactionRegistry.putResource(key, Boolean.TRUE);
+				}
+			}
+		}
+		catch (IllegalStateException e) {
+			// The transaction is completing, so there's nothing left to follow.
+			logger.log(Level.FINE, "Could not follow the completion of the transaction for class \"{0}\": {1}", new Object[] { getDomainClass().getName(), e.getMessage() });
+		}
+	}
+
+	/**
+	 * Produces the key of a filtered query in the cache of query results: the signature of the query, the number of
+	 * modifications of the domain class, the arguments bound to the query and, if given, the interval.
+	 * 
+	 * @param kind
+	 *          The kind of query (count, list, etc.).
+	 * @param filters
+	 *          The filters to be applied to the query.
+	 * @param values
+	 *          The values for the filters.
+	 * @param interval
+	 *          The interval of the query, or <code>null</code> if not applicable.
+	 * 
+	 * @return The key of the results of the query.
+	 */
+	private String getQueryCacheKey(String kind, Filter<?>[] filters, String[] values, int[] interval) {
+		return getQueryCacheKey(kind, filters, values, interval, true);
+	}
+
+	/**
+	 * Produces the key of a filtered query, optionally without the number of modifications of the domain class (for
+	 * results that are meant to be reused even if the objects change).
+	 * 
+	 * @param kind
+	 *          The kind of query (count, list, etc.).
+	 * @param filters
+	 *          The filters to be applied to the query.
+	 * @param values
+	 *          The values for the filters.
+	 * @param interval
+	 *          The interval of the query, or <code>null</code> if not applicable.
+	 * @param versioned
+	 *          If <code>true</code>, the number of modifications of the domain class is part of the key.
+	 * 
+	 * @return The key of the results of the query.
+	 * @see #getQueryCacheKey(String, Filter[], String[], int[])
+	 */
+	private String getQueryCacheKey(String kind, Filter<?>[] filters, String[] values, int[] interval, boolean versioned) {
+		StringBuilder key = new StringBuilder(getFilterSignature(kind, filters));
+		if (versioned) key.append('@').append(getModificationCounter().get());
+		for (Object argument : collectFilterArguments(filters, values)) {
+			String text = String.valueOf(argument);
+			key.append('|').append(text.length()).append(':').append(text);
+		}
+		if (interval != null) key.append('[').append(interval[0]).append(',').append(interval[1]).append(')');
+		return key.toString();
+	}
+
+	/**
+	 * Method that can be overriden by the subclasses to determine if identical count and page queries that are executed
+	 * concurrently (e.g., when a popular listing is opened by many users at once) should be coalesced: only the first one
+	 * is sent to the database and the others wait for its result. Counts are shared as they are, whereas pages are shared
+	 * as lists of ids, so each caller retrieves the objects in its own persistence context. The default implementation
+	 * returns <code>false</code>.
+	 * 
+	 * Coalescing should only be enabled for read-only listings that are not executed within transactions that change
+	 * objects of the domain class. A caller that joins a query in flight gets the result of another transaction, which
+	 * may include changes not yet committed (or later rolled back) and doesn't include the caller's own uncommitted
+	 * changes. Moreover, each page received this way costs an additional query to retrieve its objects by id.
+	 * 
+	 * @return <code>true</code> if identical concurrent queries should be coalesced, <code>false</code> otherwise.
+	 */
+	protected boolean isQueryCoalescingEnabled() {
+		return false;
+	}
+
+	/**
+	 * Returns the object that coalesces the queries of the domain class, creating it if necessary.
+	 * 
+	 * @return The single-flight object or <code>null</code>, if coalescing is disabled.
+	 */
+	private SingleFlight<String> getSingleFlight() {
+		if (!isQueryCoalescingEnabled()) return null;
+		SingleFlight<String> flights = singleFlights.get(getDomainClass());
+		if (flights == null) {
+			singleFlights.putIfAbsent(getDomainClass(), new SingleFlight<String>());
+			flights = singleFlights.get(getDomainClass());
+		}
+		return flights;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#getCoalescingStatistics() */
+	@Override
+	public CoalescingStatistics getCoalescingStatistics() {
+		SingleFlight<String> flights = getSingleFlight();
+		return (flights == null) ? null : flights.getStatistics();
+	}
+
+	/**
+	 * Executes a count query, unless an identical one is already being executed, in which case its result is used.
+	 * 
+	 * @param key
+	 *          The key of the query (see getQueryCacheKey()).
+	 * @param query
+	 *          The operation that executes the query.
+	 * 
+	 * @return The count.
+	 */
+	private long executeCoalescedCount(String key, Callable<Long> query) {
+		SingleFlight<String> flights = getSingleFlight();
+		return (flights == null) ? call(query) : flights.execute(key, query);
+	}
+
+	/**
+	 * Executes a page query, unless an identical one is already being executed. In that case, the ids of the objects it
+	 * retrieves are used to retrieve the same objects in the persistence context of this caller.
+	 * 
+	 * @param key
+	 *          The key of the query (see getQueryCacheKey()).
+	 * @param query
+	 *          The operation that executes the query.
+	 * 
+	 * @return The objects in the page.
+	 */
+	private List<T> executeCoalescedPage(String key, final Callable<List<T>> query) {
+		SingleFlight<String> flights = getSingleFlight();
+		if (flights == null) return call(query);
+
+		// The caller that executes the query keeps its objects, the others receive only their ids.
+		final List<List<T>> executed = new ArrayList<List<T>>(1);
+		long[] ids = flights.execute(key, new Callable<long[]>() {
+			@Override
+			public long[] call() throws Exception {
+				List<T> result = query.call();
+				executed.add(result);
+				return getIds(result);
+			}
+		});
+		if (!executed.isEmpty()) return executed.get(0);
+
+		// If any of the objects was deleted in the meantime, executes the query again.
+		logger.log(Level.FINEST, "Page query of class \"{0}\" coalesced with an identical one: {1} objects", new Object[] { getDomainClass().getName(), ids.length });
+		List<T> result = retrieveCachedIds(ids);
+		return (result != null) ? result : call(query);
+	}
+
+	/**
+	 * Executes a query operation, rethrowing unchecked exceptions as they are.
+	 * 
+	 * @param query
+	 *          The operation that executes the query.
+	 * 
+	 * @return The result of the query.
+	 */
+	private static <V> V call(Callable<V> query) {
+		try {
+			return query.call();
+		}
+		catch (RuntimeException e) {
+			throw e;
+		}
+		catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Extracts the ids of a list of persistent objects.
+	 * 
+	 * @param objects
+	 *          The persistent objects.
+	 * 
+	 * @return The ids of the objects, in the same order.
+	 */
+	private static long[] getIds(List<? extends PersistentObject> objects) {
+		long[] ids = new long[objects.size()];
+		for (int i = 0; i < ids.length; i++)
+			ids[i] = objects.get(i).getId();
+		return ids;
+	}
+
+	/**
+	 * Retrieves the objects whose ids were stored in the cache of query results, in the same order. Uses retrieveById()
+	 * if the cache of persistent objects is enabled, or a single query otherwise.
+	 * 
+	 * @param ids
+	 *          The ids of the objects.
+	 * 
+	 * @return The objects or <code>null</code>, if any of them no longer exists.
+	 */
+	private List<T> retrieveCachedIds(long[] ids) {
+		List<T> result = new ArrayList<T>(ids.length);
+		if (ids.length == 0) return result;
+
+		// If the objects themselves are cached, retrieves them one by one.
+		if (getEntityCache() != null) {
+			for (long id : ids) {
+				T object = retrieveById(id);
+				if (object == null) return null;
+				result.add(object);
+			}
+			return result;
+		}
+
+		// Otherwise, retrieves all of them at once, in order.
+		List<Long> idList = new ArrayList<Long>(ids.length);
+		for (long id : ids)
+			idList.add(id);
+		result = retrieveByIds(idList);
+		return (result.size() == ids.length) ? result : null;
+	}
+
+	/**
+	 * Retrieves the version stored in the database for the object with the given id.
+	 * 
+	 * @param id
+	 *          The id of the object.
+	 * 
+	 * @return The version of the object or <code>null</code>, if there is no object with the given id.
+	 */
+	private Object retrieveVersion(Long id) {
+		EntityManager em = getEntityManager();
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Object> cq = cb.createQuery(Object.class);
+		Root<T> root = cq.from(getDomainClass());
+		cq.select(root.get(getVersionAttribute(root.getModel()).getName()));
+		cq.where(cb.equal(root.get("id"), id));
+		List<Object> versions = em.createQuery(cq).getResultList();
+		return versions.isEmpty() ? null : versions.get(0);
+	}
+
+	/**
+	 * Returns the ordering provided by the concrete DAO class (if any) followed by the ascending order of the persistent
+	 * id. The id works as a tie-breaker that makes the ordering total, which is required by keyset pagination and also
+	 * guarantees that pages retrieved by offset do not repeat or skip objects whose ordering keys are equal.
+	 * 
+	 * @param cb
+	 *          The criteria builder object, needed to build queries.
+	 * @param root
+	 *          The root of the query, meta-object that represents the class of objects beind queried.
+	 * 
+	 * @return A list of Order objects, the last one always referring to the persistent id.
+	 */
+	protected List<Order> getTotalOrderList(CriteriaBuilder cb, Root<T> root) {
+		List<Order> totalOrderList = new ArrayList<Order>();
+		List<Order> orderList = getOrderList(cb, root);
+		if (orderList != null) totalOrderList.addAll(orderList);
+		totalOrderList.add(cb.asc(root.get("id")));
+		return totalOrderList;
+	}
+
+	/**
+	 * Applies ordering to a query under construction: the ordering provided by the concrete DAO class, if any, followed
+	 * by the persistent id as tie-breaker.
+	 * 
+	 * @param cb
+	 *          The criteria builder object, needed to build queries.
+	 * @param root
+	 *          The root of the query, meta-object that represents the class of objects beind queried.
+	 * @param cq
+	 *          The query being constructed.
+	 */
+	protected void applyOrdering(CriteriaBuilder cb, Root<T> root, CriteriaQuery<T> cq) {
+		cq.orderBy(getTotalOrderList(cb, root));
+	}
+
+	/**
+	 * Executes a criteria query that expects a single result, throwing checked exceptions in case the expected object
+	 * doesn't exist or also if multiple objects fit the query. JPA provides these exceptions, but they were replaced by
+	 * our own because the container does its own exception handling with JPA's exceptions, which is undesired in many
+	 * cases.
+	 * 
+	 * @param cq
+	 *          The criteria query to execute.
+	 * @param params
+	 *          The parameters used in the criteria query, which will be included in the exceptions for completeness.
+	 * 
+	 * @return A single object of the managed class which is the result of the query.
+	 * 
+	 * @throws PersistentObjectNotFoundException
+	 *           If no objects matched the query.
+	 * @throws MultiplePersistentObjectsFoundException
+	 *           If more than one object matched the query.
+	 */
+	protected T executeSingleResultQuery(CriteriaQuery<T> cq, Object ... params) throws PersistentObjectNotFoundException, MultiplePersistentObjectsFoundException {
+		// Looks for a single result. Throws a checked exception if the entity is not found or in case of multiple
+		// results.
+		try {
+			T result = getEntityManager().createQuery(cq).getSingleResult();
+			return result;
+		}
+		catch (NoResultException e) {
+			logger.log(Level.WARNING, "NoResultException thrown for params: " + params, e);
+			throw new PersistentObjectNotFoundException(e, getDomainClass(), params);
+		}
+		catch (NonUniqueResultException e) {
+			logger.log(Level.WARNING, "NonUniqueResultException thrown for params: " + params, e);
+			throw new MultiplePersistentObjectsFoundException(e, getDomainClass(), params);
+		}
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveCount() */
+	@Override
+	public long retrieveCount() {
+		// Counts through an operation, so identical counts executed concurrently are coalesced.
+		long count = executeCoalescedCount(getQueryCacheKey("count", new Filter<?>[0], new String[0], null), new Callable<Long>() {
+			@Override
+			public Long call() {
+				// Using the entity manager, create a criteria query to retrieve the object count.
+				EntityManager em = getEntityManager();
+				CriteriaBuilder cb = em.getCriteriaBuilder();
+				CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+				Root<T> rt = cq.from(getDomainClass());
+				cq.select(cb.count(rt));
+				Query q = em.createQuery(cq);
+
+				// Retrieve the value and return.
+				return (Long) q.getSingleResult();
+			}
+		});
+		logger.log(Level.INFO, "Retrieved count for {0}: {1}", new Object[] { getDomainClass().getName(), count });
+		return count;
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveFilteredCount(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter,
+	 *      java.lang.String)
+	 */
+	@Override
+	public long retrieveFilteredCount(Filter<?> filter, String value) {
+		return retrieveFilteredCount(new Filter<?>[] { filter }, new String[] { value });
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveFilteredCount(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter[],
+	 *      java.lang.String[])
+	 */
+	public long retrieveFilteredCount(final Filter<?>[] filters, final String[] values) {
+		// Checks if a LIKE filter can be resolved by a full-text index, in which case only the matching objects are counted.
+		long[] matches = searchFullTextIndexes(filters, values);
+		if ((matches != null) && (matches.length <= getInListSize())) {
+			if (matches.length == 0) return 0;
+			CriteriaBuilder cb = getEntityManager().getCriteriaBuilder();
+			CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+			Root<T> root = cq.from(getDomainClass());
+			cq.select(cb.count(root));
+			long count = buildQueryAmongIds(cq, root, filters, values, matches).getSingleResult();
+			logger.log(Level.INFO, "Retrieved count for {0}, with {1} filter(s), among {2} indexed matches: {3}", new Object[] { getDomainClass().getName(), filters.length, matches.length, count });
+			return count;
+		}
+
+		// Checks the cache of query results, if enabled.
+		QueryResultCache<String, Object> cache = getQueryCache();
+		String key = getQueryCacheKey("count", filters, values, null);
+		Long cached = (cache == null) ? null : (Long) cache.get(key);
+		if (cached != null) {
+			logger.log(Level.FINEST, "Count for {0}, with {1} filter(s), found in the cache: {2}", new Object[] { getDomainClass().getName(), filters.length, cached });
+			return cached;
+		}
+
+		// Counts through an operation, so identical counts executed concurrently are coalesced.
+		long count = executeCoalescedCount(key, new Callable<Long>() {
+			@Override
+			public Long call() {
+				// Obtains the filtered query and binds the values of the filters.
+				EntityManager em = getEntityManager();
+				CompiledQuery<Long> compiled = compileFilteredCountCriteriaQuery(filters);
+				TypedQuery<Long> q = em.createQuery(compiled.query);
+				bindFilterParameters(q, compiled.parameters, filters, values);
+
+				// Retrieve the value and return.
+				return q.getSingleResult();
+			}
+		});
+		if (cache != null) cache.put(key, count, 2 * key.length() + 64);
+		logger.log(Level.INFO, "Retrieved count for {0}, with {1} filter(s): {2}", new Object[] { getDomainClass().getName(), filters.length, count });
+		return count;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveCount(br.ufes.inf.nemo.jbutler.ejb.persistence.CountStrategy) */
+	@Override
+	public long retrieveCount(CountStrategy strategy) {
+		return retrieveFilteredCount(new Filter<?>[0], new String[0], strategy);
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveFilteredCount(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter[],
+	 *      java.lang.String[], br.ufes.inf.nemo.jbutler.ejb.persistence.CountStrategy)
+	 */
+	@Override
+	public long retrieveFilteredCount(Filter<?>[] filters, String[] values, CountStrategy strategy) {
+		switch (strategy) {
+		case CACHED:
+			return retrieveCachedCount(filters, values);
+
+		case ESTIMATED:
+			return retrieveEstimatedCount(filters, values);
+
+		default:
+			return (filters.length == 0) ? retrieveCount() : retrieveFilteredCount(filters, values);
+		}
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveFacetCounts(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter,
+	 *      br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter[], java.lang.String[])
+	 */
+	@Override
+	public Map<String, Long> retrieveFacetCounts(Filter<?> facet, Filter<?>[] activeFilters, String[] values) {
+		logger.log(Level.FINER, "Retrieving counts of the options of filter \"{0}\" for class \"{1}\" using {2} filter(s)...", new Object[] { facet.getKey(), getDomainClass().getName(), activeFilters.length });
+
+		// Determines the field by which objects are grouped: the id of the related object or the enumeration itself.
+		String groupFieldName;
+		switch (facet.getType()) {
+		case MULTIPLE_CHOICE:
+			groupFieldName = facet.getFieldName() + ".id";
+			break;
+		case ENUM_MULTIPLE_CHOICE:
+			groupFieldName = facet.getFieldName();
+			break;
+		default:
+			throw new IllegalArgumentException("Facet counts are only available for multiple-choice filters, not " + facet.getType() + " (filter \"" + facet.getKey() + "\").");
+		}
+
+		// Ignores the facet among the active filters, otherwise only the option chosen in it would be counted.
+		List<Filter<?>> filterList = new ArrayList<Filter<?>>();
+		List<String> valueList = new ArrayList<String>();
+		for (int i = 0; i < activeFilters.length; i++)
+			if (!facet.getKey().equals(activeFilters[i].getKey())) {
+				filterList.add(activeFilters[i]);
+				valueList.add(values[i]);
+			}
+		Filter<?>[] filters = filterList.toArray(new Filter<?>[0]);
+		String[] filterValues = valueList.toArray(new String[0]);
+
+		// Checks the cache of query results, if enabled.
+		QueryResultCache<String, Object> cache = getQueryCache();
+		String key = getQueryCacheKey("facet:" + facet.getKey() + ':' + groupFieldName, filters, filterValues, null);
+		@SuppressWarnings("unchecked")
+		Map<String, Long> counts = (cache == null) ? null : (Map<String, Long>) cache.get(key);
+		if (counts != null) {
+			logger.log(Level.FINEST, "Counts of the options of filter \"{0}\" for class \"{1}\" found in the cache: {2}", new Object[] { facet.getKey(), getDomainClass().getName(), counts });
+			return new LinkedHashMap<String, Long>(counts);
+		}
+
+		// Starts with the options declared by the filter, so the ones without objects are also present.
+		counts = new LinkedHashMap<String, Long>();
+		Map<String, String> optionsLabels = facet.getOptionsLabels();
+		if (optionsLabels != null) for (String option : optionsLabels.keySet())
+			counts.put(option, 0L);
+
+		// Builds a query that selects each value of the field and the number of objects with it, applying the filters.
+		EntityManager em = getEntityManager();
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+		Root<T> root = cq.from(getDomainClass());
+		Path<?> groupPath = findPath(root, root.getModel(), groupFieldName);
+		List<ParameterExpression<?>> parameters = new ArrayList<ParameterExpression<?>>();
+		List<Predicate> predicates = buildFilterPredicates(cb, cq, root, filters, parameters);
+		cq.multiselect(groupPath, cb.count(root));
+		cq.where(predicates.toArray(new Predicate[0]));
+		cq.groupBy(groupPath);
+		TypedQuery<Tuple> q = em.createQuery(cq);
+		bindFilterParameters(q, parameters, filters, filterValues);
+
+		// Indexes the counts by the value of each option, as used by the filter.
+		for (Tuple tuple : q.getResultList()) {
+			Object value = tuple.get(0);
+			if (value == null) continue;
+			String option = (value instanceof Enum) ? ((Enum<?>) value).name() : value.toString();
+			counts.put(option, (Long) tuple.get(1));
+		}
+		if (cache != null) cache.put(key, new LinkedHashMap<String, Long>(counts), 2 * key.length() + 64 * counts.size());
+		logger.log(Level.INFO, "Retrieved counts of {0} option(s) of filter \"{1}\" for class \"{2}\", with {3} filter(s)", new Object[] { counts.size(), facet.getKey(), getDomainClass().getName(), filters.length });
+		return counts;
+	}
+
+	/**
+	 * Method that can be overriden by the subclasses to determine for how long counts are reused by the CACHED count
+	 * strategy. The default implementation returns 60000 (one minute).
+	 * 
+	 * @return The time to live of cached counts, in milliseconds.
+	 */
+	protected long getCountCacheTimeToLive() {
+		return 60000;
+	}
+
+	/**
+	 * Method that can be overriden by the subclasses to determine how many counts (one for each combination of filters and
+	 * values) are kept for the CACHED count strategy, the least recently used being discarded when the cache is full. The
+	 * default implementation returns 1000. If zero or less, counts are not kept and the CACHED strategy counts every time.
+	 * 
+	 * @return The maximum number of counts in the cache of counts.
+	 */
+	protected int getCountCacheSize() {
+		return 1000;
+	}
+
+	/**
+	 * Method that can be overriden by the subclasses to provide the number of objects of the domain class according to
+	 * the statistics the database keeps about its tables, which is used by the ESTIMATED count strategy. Since this is
+	 * database-specific, the default implementation returns <code>null</code>, in which case the ESTIMATED strategy
+	 * falls back to counting all objects of the domain class in the database (a full count, as in the CACHED strategy),
+	 * reusing the result for getCountCacheTimeToLive(). Therefore, on big tables this method should be overriden for the
+	 * ESTIMATED strategy to be cheaper than the CACHED one. Implementations usually run a native query, e.g., <code>SELECT reltuples FROM pg_class WHERE relname =
+	 * 'table'</code> in PostgreSQL or <code>SELECT table_rows FROM information_schema.tables WHERE table_name =
+	 * 'table'</code> in MySQL.
+	 * 
+	 * @return The estimated number of objects of the domain class or <code>null</code>, if not available.
+	 */
+	protected Long retrieveStatisticsCount() {
+		return null;
+	}
+
+	/**
+	 * Method that can be overriden by the subclasses to determine how many objects are sampled by the ESTIMATED count
+	 * strategy when counting objects that match filters. If there are fewer objects than this, they are counted exactly.
+	 * The default implementation returns 10000.
+	 * 
+	 * @return The number of objects in the sample.
+	 */
+	protected int getCountSampleSize() {
+		return 10000;
+	}
+
+	/**
+	 * Counts the objects that match the given filters, reusing a previous count if it hasn't expired (see
+	 * getCountCacheTimeToLive()).
+	 * 
+	 * @param filters
+	 *          The filters to be applied to the count.
+	 * @param values
+	 *          The values for the filters.
+	 * 
+	 * @return The (possibly outdated) number of objects that match the filters.
+	 */
+	private long retrieveCachedCount(Filter<?>[] filters, String[] values) {
+		// Obtains the cache of counts of the domain class, creating it if necessary. Without a cache, counts every time.
+		QueryResultCache<String, Object> cache = countCaches.get(getDomainClass());
+		if (cache == null) {
+			int size = getCountCacheSize();
+			if (size <= 0) return (filters.length == 0) ? retrieveCount() : retrieveFilteredCount(filters, values);
+			countCaches.putIfAbsent(getDomainClass(), new QueryResultCache<String, Object>(size, getCountCacheTimeToLive()));
+			cache = countCaches.get(getDomainClass());
+		}
+
+		// Looks for the count or counts again. Each count weighs one, so the cache keeps up to getCountCacheSize() counts.
+		String key = getQueryCacheKey("count", filters, values, null, false);
+		Long count = (Long) cache.get(key);
+		if (count == null) {
+			count = (filters.length == 0) ? retrieveCount() : retrieveFilteredCount(filters, values);
+			cache.put(key, count, 1);
+		}
+		return count;
+	}
+
+	/**
+	 * Estimates the number of objects that match the given filters. The total number of objects is obtained from the
+	 * statistics of the database (see retrieveStatisticsCount()) or, if these are not available, by counting all objects
+	 * through the cache of counts (see retrieveCachedCount()). If there are filters, the
+	 * objects in a random range of ids that is expected to contain about getCountSampleSize() objects are counted, with
+	 * and without the filters, and the ratio between these counts is applied to the total.
+	 * 
+	 * @param filters
+	 *          The filters to be applied to the count.
+	 * @param values
+	 *          The values for the filters.
+	 * 
+	 * @return The estimated number of objects that match the filters.
+	 */
+	private long retrieveEstimatedCount(Filter<?>[] filters, String[] values) {
+		// Estimates the total number of objects.
+		Long statisticsCount = retrieveStatisticsCount();
+		long total;
+		if ((statisticsCount != null) && (statisticsCount >= 0)) total = statisticsCount;
+		else {
+			logger.log(Level.FINE, "No statistics count for class \"{0}\", estimating with a full (cached) count instead", getDomainClass().getName());
+			total = retrieveCachedCount(new Filter<?>[0], new String[0]);
+		}
+		if (filters.length == 0) return total;
+
+		// If there are few objects, counts them exactly.
+		int sampleSize = getCountSampleSize();
+		if (total <= sampleSize) return retrieveFilteredCount(filters, values);
+
+		// Determines the range of ids and picks a random window that should contain about sampleSize objects.
+		EntityManager em = getEntityManager();
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
+		Root<T> root = cq.from(getDomainClass());
+		Path<Long> idPath = root.get("id");
+		cq.multiselect(cb.min(idPath), cb.max(idPath));
+		Object[] range = em.createQuery(cq).getSingleResult();
+		if (range[0] == null) return 0;
+		long minId = ((Number) range[0]).longValue(), maxId = ((Number) range[1]).longValue();
+		long width = Math.max(1, (long) ((double) (maxId - minId + 1) * sampleSize / total));
+		long firstId = minId + ((maxId - minId + 1 > width) ? ThreadLocalRandom.current().nextLong(maxId - minId + 2 - width) : 0);
+		long lastId = firstId + width - 1;
+
+		// Counts the objects in the window with and without the filters and extrapolates.
+		long sampled = countInIdRange(new Filter<?>[0], new String[0], firstId, lastId);
+		if (sampled == 0) return retrieveFilteredCount(filters, values);
+		long matched = countInIdRange(filters, values, firstId, lastId);
+		long estimate = Math.round((double) total * matched / sampled);
+		logger.log(Level.FINE, "Estimated count for {0}, with {1} filter(s): {2} ({3} of {4} objects matched in the sample)", new Object[] { getDomainClass().getName(), filters.length, estimate, matched, sampled });
+		return estimate;
+	}
+
+	/**
+	 * Counts the objects that match the given filters and whose ids are in the given range.
+	 * 
+	 * @param filters
+	 *          The filters to be applied to the count.
+	 * @param values
+	 *          The values for the filters.
+	 * @param firstId
+	 *          The first id of the range.
+	 * @param lastId
+	 *          The last id of the range (inclusive).
+	 * 
+	 * @return The number of objects that match the filters in the range.
+	 */
+	private long countInIdRange(Filter<?>[] filters, String[] values, long firstId, long lastId) {
+		EntityManager em = getEntityManager();
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+		Root<T> root = cq.from(getDomainClass());
+		cq.select(cb.count(root));
+		List<ParameterExpression<?>> parameters = new ArrayList<ParameterExpression<?>>();
+		List<Predicate> predicates = buildFilterPredicates(cb, cq, root, filters, parameters);
+		predicates.add(cb.between(root.<Long> get("id"), firstId, lastId));
+		cq.where(predicates.toArray(new Predicate[0]));
+		TypedQuery<Long> q = em.createQuery(cq);
+		bindFilterParameters(q, parameters, filters, values);
+		return q.getSingleResult();
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveAll() */
+	@Override
+	public List<T> retrieveAll() {
+		logger.log(Level.FINER, "Retrieving all objects of class \"{0}\"...", getDomainClass().getName());
+
+		// Using the entity manager, create a criteria query to retrieve all objects of the domain class.
+		EntityManager em = getEntityManager();
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<T> cq = cb.createQuery(getDomainClass());
+		Root<T> root = cq.from(getDomainClass());
+		cq.select(root);
+
+		// Applies ordering.
+		applyOrdering(cb, root, cq);
+
+		// Return the list of objects.
+		List<T> result = em.createQuery(cq).getResultList();
+		logger.log(Level.INFO, "Retrieve all for class \"{0}\" returned \"{1}\" objects", new Object[] { getDomainClass().getName(), result.size() });
+		return result;
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveWithFilter(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter,
+	 *      java.lang.String)
+	 */
+	@Override
+	public List<T> retrieveWithFilter(Filter<?> filter, String value) {
+		return retrieveWithFilters(new Filter<?>[] { filter }, new String[] { value });
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveWithFilters(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter[],
+	 *      java.lang.String[])
+	 */
+	public List<T> retrieveWithFilters(Filter<?>[] filters, String[] values) {
+		logger.log(Level.FINER, "Retrieving all objects of class \"{0}\" using {1} filter(s)...", new Object[] { getDomainClass().getName(), filters.length });
+
+		// Obtains the filtered query, binds the values of the filters and returns the result.
+		EntityManager em = getEntityManager();
+		CompiledQuery<T> compiled = compileFilteredCriteriaQuery(filters, false);
+		TypedQuery<T> q = em.createQuery(compiled.query);
+		bindFilterParameters(q, compiled.parameters, filters, values);
+		List<T> result = q.getResultList();
+		logger.log(Level.INFO, "Retrieve with {0} filter(s) for class \"{1}\" returned \"{2}\" objects", new Object[] { filters.length, getDomainClass().getName(), result.size() });
+		return result;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveSome(int[]) */
+	@Override
+	public List<T> retrieveSome(final int[] interval) {
+		logger.log(Level.FINER, "Retrieving objects of class \"{0}\" in interval [{1}, {2})...", new Object[] { getDomainClass().getName(), interval[0], interval[1] });
+
+		// Queries through an operation, so identical queries executed concurrently are coalesced.
+		List<T> result = executeCoalescedPage(getQueryCacheKey("all", new Filter<?>[0], new String[0], interval), new Callable<List<T>>() {
+			@Override
+			public List<T> call() {
+				// Using the entity manager, create a criteria query to retrieve objects of the domain class.
+				EntityManager em = getEntityManager();
+				CriteriaBuilder cb = em.getCriteriaBuilder();
+				CriteriaQuery<T> cq = cb.createQuery(getDomainClass());
+				Root<T> root = cq.from(getDomainClass());
+				cq.select(root);
+
+				// Applies ordering.
+				applyOrdering(cb, root, cq);
+
+				// Determine the interval to retrieve.
+				TypedQuery<T> q = em.createQuery(cq);
+				q.setMaxResults(interval[1] - interval[0]);
+				q.setFirstResult(interval[0]);
+
+				// Return the list of objects.
+				return q.getResultList();
+			}
+		});
+		logger.log(Level.INFO, "Retrieve in interval [{0}, {1}) for class \"{2}\" returned \"{3}\" objects", new Object[] { interval[0], interval[1], getDomainClass().getName(), result.size() });
+		return result;
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveSomeWithFilter(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter,
+	 *      java.lang.String, int[])
+	 */
+	@Override
+	public List<T> retrieveSomeWithFilter(Filter<?> filter, String value, int[] interval) {
+		return retrieveSomeWithFilters(new Filter<?>[] { filter }, new String[] { value }, interval);
+	}
+
+	public List<T> retrieveSomeWithFilters(final Filter<?>[] filters, final String[] values, final int[] interval) {
+		logger.log(Level.FINER, "Retrieving objects of class \"{0}\" in interval [{1}, {2}) using {3} filter(s)...", new Object[] { getDomainClass().getName(), interval[0], interval[1], filters.length });
+
+		// Checks if a LIKE filter can be resolved by a full-text index, in which case only the matching objects are queried.
+		long[] matches = searchFullTextIndexes(filters, values);
+		if ((matches != null) && (matches.length <= getInListSize())) {
+			List<T> result = new ArrayList<T>();
+			if (matches.length > 0) {
+				CriteriaBuilder cb = getEntityManager().getCriteriaBuilder();
+				CriteriaQuery<T> cq = cb.createQuery(getDomainClass());
+				Root<T> root = cq.from(getDomainClass());
+				cq.select(root);
+				applyOrdering(cb, root, cq);
+				TypedQuery<T> q = buildQueryAmongIds(cq, root, filters, values, matches);
+				q.setMaxResults(interval[1] - interval[0]);
+				q.setFirstResult(interval[0]);
+				result = q.getResultList();
+			}
+			logger.log(Level.INFO, "Retrieve in interval [{0}, {1}) with {2} filter(s) for class \"{3}\" among {4} indexed matches returned \"{5}\" objects", new Object[] { interval[0], interval[1], filters.length, getDomainClass().getName(), matches.length, result.size() });
+			return result;
+		}
+
+		// Checks the cache of query results, if enabled. If any of the cached objects no longer exists, queries again.
+		QueryResultCache<String, Object> cache = getQueryCache();
+		String key = getQueryCacheKey("some", filters, values, interval);
+		long[] ids = (cache == null) ? null : (long[]) cache.get(key);
+		if (ids != null) {
+			List<T> result = retrieveCachedIds(ids);
+			if (result != null) {
+				logger.log(Level.FINEST, "Ids of objects of class \"{0}\" in interval [{1}, {2}) with {3} filter(s) found in the cache: {4}", new Object[] { getDomainClass().getName(), interval[0], interval[1], filters.length, ids.length });
+				return result;
+			}
+			cache.remove(key);
+		}
+
+		// Queries through an operation, so identical queries executed concurrently are coalesced.
+		List<T> result = executeCoalescedPage(key, new Callable<List<T>>() {
+			@Override
+			public List<T> call() {
+				// Obtains the filtered query and binds the values of the filters.
+				EntityManager em = getEntityManager();
+				CompiledQuery<T> compiled = compileFilteredCriteriaQuery(filters, false);
+				TypedQuery<T> q = em.createQuery(compiled.query);
+				bindFilterParameters(q, compiled.parameters, filters, values);
+
+				// Determine the interval to retrieve and return the result.
+				q.setMaxResults(interval[1] - interval[0]);
+				q.setFirstResult(interval[0]);
+				return q.getResultList();
+			}
+		});
+
+		// Stores the ids of the objects in the cache of query results, if enabled.
+		if (cache != null) {
+			ids = getIds(result);
+			cache.put(key, ids, 2 * key.length() + 8 * ids.length + 64);
+		}
+		logger.log(Level.INFO, "Retrieve in interval [{0}, {1}) with {2} filter(s) for class \"{3}\" returned \"{4}\" objects", new Object[] { interval[0], interval[1], filters.length, getDomainClass().getName(), result.size() });
+		return result;
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveRowsWithFilters(java.lang.String[],
+	 *      br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter[], java.lang.String[], int[])
+	 */
+	@Override
+	public List<EntityRow> retrieveRowsWithFilters(String[] paths, Filter<?>[] filters, String[] values, int[] interval) {
+		logger.log(Level.FINER, "Retrieving {0} attribute(s) of objects of class \"{1}\" in interval [{2}, {3}) using {4} filter(s)...", new Object[] { paths.length, getDomainClass().getName(), interval[0], interval[1], filters.length });
+
+		// Using the entity manager, create a tuple query that selects the id, the UUID and the given attributes.
+		EntityManager em = getEntityManager();
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+		Root<T> root = cq.from(getDomainClass());
+		List<Selection<?>> selections = new ArrayList<Selection<?>>(paths.length + 2);
+		selections.add(root.get("id"));
+		selections.add(root.get("uuid"));
+		Map<String, From<?, ?>> joins = new HashMap<String, From<?, ?>>();
+		for (String path : paths)
+			selections.add(findProjectionPath(root, path, joins));
+		cq.multiselect(selections);
+
+		// Filters the query and applies the same ordering as the queries that retrieve whole objects.
+		List<ParameterExpression<?>> parameters = new ArrayList<ParameterExpression<?>>();
+		filterCriteriaQuery(cb, cq, root, filters, parameters);
+		cq.orderBy(getTotalOrderList(cb, root));
+		TypedQuery<Tuple> q = em.createQuery(cq);
+		bindFilterParameters(q, parameters, filters, values);
+		q.setMaxResults(interval[1] - interval[0]);
+		q.setFirstResult(interval[0]);
+
+		// Builds the rows from the tuples, indexing the values by their paths.
+		List<EntityRow> result = new ArrayList<EntityRow>();
+		for (Tuple tuple : q.getResultList()) {
+			Map<String, Object> rowValues = new LinkedHashMap<String, Object>();
+			for (int i = 0; i < paths.length; i++)
+				rowValues.put(paths[i], tuple.get(i + 2));
+			Object uuid = tuple.get(1);
+			result.add(new EntityRow((Long) tuple.get(0), (uuid == null) ? null : uuid.toString(), rowValues));
+		}
+		logger.log(Level.INFO, "Retrieve of {0} attribute(s) in interval [{1}, {2}) with {3} filter(s) for class \"{4}\" returned \"{5}\" rows", new Object[] { paths.length, interval[0], interval[1], filters.length, getDomainClass().getName(), result.size() });
+		return result;
+	}
+
+	/**
+	 * Finds the path of an attribute selected by a projection query. Unlike findPath(), which is used by filters and
+	 * inner-joins the associations it navigates, associations are left-joined here, so objects with null associations are
+	 * not excluded from the listing. Joins are shared among the paths of the same query.
+	 * 
+	 * @param root
+	 *          The root of the projection query.
+	 * @param fieldName
+	 *          The JPQL-formatted name of the field, something like: product.promotion.endDate.
+	 * @param joins
+	 *          The joins already made in the query, indexed by the path of the association.
+	 * 
+	 * @return The Path object representing the attribute that should be selected.
+	 */
+	private Path<?> findProjectionPath(Root<T> root, String fieldName, Map<String, From<?, ?>> joins) {
+		From<?, ?> from = root;
+		int idx = fieldName.indexOf('.');
+		while (idx != -1) {
+			String association = fieldName.substring(0, idx);
+			From<?, ?> join = joins.get(association);
+			if (join == null) {
+				join = from.join(association.substring(association.lastIndexOf('.') + 1), JoinType.LEFT);
+				joins.put(association, join);
+			}
+			from = join;
+			idx = fieldName.indexOf('.', idx + 1);
+		}
+		return from.get(fieldName.substring(fieldName.lastIndexOf('.') + 1));
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveSomeFromEnd(int[]) */
+	@Override
+	public List<T> retrieveSomeFromEnd(int[] interval) {
+		return retrieveSomeWithFiltersFromEnd(new Filter<?>[0], new String[0], interval);
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveSomeWithFiltersFromEnd(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter[],
+	 *      java.lang.String[], int[])
+	 */
+	@Override
+	public List<T> retrieveSomeWithFiltersFromEnd(Filter<?>[] filters, String[] values, int[] interval) {
+		logger.log(Level.FINER, "Retrieving objects of class \"{0}\" in interval [{1}, {2}) from the end using {3} filter(s)...", new Object[] { getDomainClass().getName(), interval[0], interval[1], filters.length });
+
+		// Obtains the filtered query with inverted ordering, so the objects at the end of the listing come first.
+		EntityManager em = getEntityManager();
+		CompiledQuery<T> compiled = compileFilteredCriteriaQuery(filters, true);
+		TypedQuery<T> q = em.createQuery(compiled.query);
+		bindFilterParameters(q, compiled.parameters, filters, values);
+
+		// Determine the interval to retrieve, which is now close to the beginning of the inverted ordering.
+		q.setMaxResults(interval[1] - interval[0]);
+		q.setFirstResult(interval[0]);
+
+		// Puts the objects back in the regular order and returns.
+		List<T> result = new ArrayList<T>(q.getResultList());
+		Collections.reverse(result);
+		logger.log(Level.INFO, "Retrieve in interval [{0}, {1}) from the end with {2} filter(s) for class \"{3}\" returned \"{4}\" objects", new Object[] { interval[0], interval[1], filters.length, getDomainClass().getName(), result.size() });
+		return result;
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#createCursor(br.ufes.inf.nemo.jbutler.ejb.persistence.PersistentObject)
+	 */
+	@Override
+	public KeysetCursor createCursor(T object) {
+		// Objects that have not been persisted have no position in the listing.
+		if ((object == null) || (!object.isPersistent())) return null;
+
+		// Builds the ordering over a throwaway query, only to inspect the ordering keys (the last one is the id).
+		CriteriaBuilder cb = getEntityManager().getCriteriaBuilder();
+		CriteriaQuery<T> cq = cb.createQuery(getDomainClass());
+		Root<T> root = cq.from(getDomainClass());
+		List<Order> orderList = getTotalOrderList(cb, root);
+
+		// Reads the value of each ordering key from the object. Only paths to non-null attributes are supported.
+		Object[] keys = new Object[orderList.size() - 1];
+		for (int i = 0; i < keys.length; i++) {
+			Expression<?> expression = orderList.get(i).getExpression();
+			keys[i] = (expression instanceof Path) ? readPathValue((Path<?>) expression, object) : null;
+			if (keys[i] == null) {
+				logger.log(Level.FINE, "Ordering key #{0} of class \"{1}\" cannot be read from \"{2}\". Keyset pagination not available.", new Object[] { i, getDomainClass().getName(), object });
+				return null;
+			}
+		}
+
+		KeysetCursor cursor = new KeysetCursor(keys, object.getId());
+		logger.log(Level.FINEST, "Created cursor for class \"{0}\": {1}", new Object[] { getDomainClass().getName(), cursor });
+		return cursor;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveSomeAfter(br.ufes.inf.nemo.jbutler.ejb.persistence.KeysetCursor, int) */
+	@Override
+	public List<T> retrieveSomeAfter(KeysetCursor cursor, int maxResults) {
+		return retrieveSomeWithFiltersAfter(new Filter<?>[0], new String[0], cursor, maxResults);
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveSomeWithFiltersAfter(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter[],
+	 *      java.lang.String[], br.ufes.inf.nemo.jbutler.ejb.persistence.KeysetCursor, int)
+	 */
+	@Override
+	public List<T> retrieveSomeWithFiltersAfter(Filter<?>[] filters, String[] values, KeysetCursor cursor, int maxResults) {
+		logger.log(Level.FINER, "Retrieving {0} objects of class \"{1}\" after {2} using {3} filter(s)...", new Object[] { maxResults, getDomainClass().getName(), cursor, filters.length });
+
+		// Builds the query and retrieves the objects.
+		List<T> result = buildSeekQuery(filters, values, cursor, maxResults).getResultList();
+		logger.log(Level.INFO, "Retrieve of {0} objects after {1} with {2} filter(s) for class \"{3}\" returned \"{4}\" objects", new Object[] { maxResults, cursor, filters.length, getDomainClass().getName(), result.size() });
+		return result;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrievePage(int[], br.ufes.inf.nemo.jbutler.ejb.persistence.KeysetCursor) */
+	@Override
+	public EntityPage<T> retrievePage(int[] interval, KeysetCursor cursor) {
+		return retrievePageWithFilters(new Filter<?>[0], new String[0], interval, cursor);
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrievePageWithFilters(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter[],
+	 *      java.lang.String[], int[], br.ufes.inf.nemo.jbutler.ejb.persistence.KeysetCursor)
+	 */
+	@Override
+	public EntityPage<T> retrievePageWithFilters(Filter<?>[] filters, String[] values, int[] interval, KeysetCursor cursor) {
+		return retrievePageWithFilters(filters, values, interval, cursor, CountStrategy.EXACT);
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrievePageWithFilters(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter[],
+	 *      java.lang.String[], int[], br.ufes.inf.nemo.jbutler.ejb.persistence.KeysetCursor,
+	 *      br.ufes.inf.nemo.jbutler.ejb.persistence.CountStrategy)
+	 */
+	@Override
+	public EntityPage<T> retrievePageWithFilters(Filter<?>[] filters, String[] values, int[] interval, KeysetCursor cursor, CountStrategy strategy) {
+		if (strategy.isApproximate()) return retrieveApproximatePageWithFilters(filters, values, interval, cursor, strategy);
+		logger.log(Level.FINER, "Retrieving page [{0}, {1}) of class \"{2}\" using {3} filter(s)...", new Object[] { interval[0], interval[1], getDomainClass().getName(), filters.length });
+		int pageSize = interval[1] - interval[0];
+		List<T> entities;
+		long count;
+		Future<Long> parallelCount;
+
+		// The first page is read before counting: if it isn't full, its size is the count and the count query is skipped.
+		if ((interval[0] == 0) && (cursor == null)) {
+			entities = retrieveSomeWithFilters(filters, values, interval);
+			count = (entities.size() < pageSize) ? entities.size() : retrieveFilteredCount(filters, values);
+		}
+
+		// Other pages depend on the count to decide how to read the page (or whether to read it at all), unless the count
+		// is executed in parallel with the page.
+		else if ((parallelCount = startParallelCount(filters, values)) != null) {
+			entities = (cursor != null) ? retrieveSomeWithFiltersAfter(filters, values, cursor, pageSize) : retrieveSomeWithFilters(filters, values, interval);
+			count = awaitParallelCount(parallelCount);
+		}
+		else {
+			count = retrieveFilteredCount(filters, values);
+			int last = (int) Math.min(interval[1], count);
+			if (interval[0] >= last) entities = new ArrayList<T>();
+			else if (cursor != null) entities = retrieveSomeWithFiltersAfter(filters, values, cursor, last - interval[0]);
+			else if (interval[0] > count - last) entities = retrieveSomeWithFiltersFromEnd(filters, values, new int[] { (int) count - last, (int) count - interval[0] });
+			else entities = retrieveSomeWithFilters(filters, values, new int[] { interval[0], last });
+		}
+
+		// Objects that are listed are likely to be selected, which is done by UUID.
+		cacheUuids(entities);
+		EntityPage<T> page = new EntityPage<T>(entities, count);
+		logger.log(Level.INFO, "Retrieve page [{0}, {1}) with {2} filter(s) for class \"{3}\" returned: {4}", new Object[] { interval[0], interval[1], filters.length, getDomainClass().getName(), page });
+		return page;
+	}
+
+	/**
+	 * Retrieves a page of objects that match the given filters without relying on the count, which is obtained with an
+	 * approximate strategy. The page tells if the count is actually exact: if the page is not full, it is the last one.
+	 * 
+	 * @param filters
+	 *          The filters to be applied to the query.
+	 * @param values
+	 *          The values for the filters.
+	 * @param interval
+	 *          Array of size 2 with the interval [a, b) (retrieves objects from index a through b-1).
+	 * @param cursor
+	 *          Position of the object at index a-1, if known, or <code>null</code>.
+	 * @param strategy
+	 *          The approximate strategy used to count the objects.
+	 * 
+	 * @return A page with the objects and their (possibly approximate) total.
+	 */
+	private EntityPage<T> retrieveApproximatePageWithFilters(Filter<?>[] filters, String[] values, int[] interval, KeysetCursor cursor, CountStrategy strategy) {
+		logger.log(Level.FINER, "Retrieving page [{0}, {1}) of class \"{2}\" using {3} filter(s) and {4} count...", new Object[] { interval[0], interval[1], getDomainClass().getName(), filters.length, strategy });
+		int pageSize = interval[1] - interval[0];
+		List<T> entities = ((cursor != null) && (interval[0] > 0)) ? retrieveSomeWithFiltersAfter(filters, values, cursor, pageSize) : retrieveSomeWithFilters(filters, values, interval);
+
+		// A full page means there may be more objects: uses the approximate count, which must include this page. A page
+		// that is not full is the last one, so the count is known, unless it's empty (the count may be less than its start).
+		long count;
+		boolean approximate = true;
+		if (entities.size() == pageSize) count = Math.max(retrieveFilteredCount(filters, values, strategy), interval[1]);
+		else if ((!entities.isEmpty()) || (interval[0] == 0)) {
+			count = interval[0] + entities.size();
+			approximate = false;
+		}
+		else count = Math.min(retrieveFilteredCount(filters, values, strategy), interval[0]);
+
+		cacheUuids(entities);
+		EntityPage<T> page = new EntityPage<T>(entities, count, approximate);
+		logger.log(Level.INFO, "Retrieve page [{0}, {1}) with {2} filter(s) for class \"{3}\" and {4} count returned: {5}", new Object[] { interval[0], interval[1], filters.length, getDomainClass().getName(), strategy, page });
+		return page;
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveRowPageWithFilters(java.lang.String[],
+	 *      br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter[], java.lang.String[], int[],
+	 *      br.ufes.inf.nemo.jbutler.ejb.persistence.CountStrategy)
+	 */
+	@Override
+	public EntityPage<EntityRow> retrieveRowPageWithFilters(String[] paths, Filter<?>[] filters, String[] values, int[] interval, CountStrategy strategy) {
+		logger.log(Level.FINER, "Retrieving page [{0}, {1}) of rows of class \"{2}\" using {3} filter(s) and {4} count...", new Object[] { interval[0], interval[1], getDomainClass().getName(), filters.length, strategy });
+		int pageSize = interval[1] - interval[0];
+
+		// Rows are always read by offset, so the count is only needed to inform the total. It can be executed in parallel.
+		Future<Long> parallelCount = ((interval[0] > 0) && !strategy.isApproximate()) ? startParallelCount(filters, values) : null;
+		List<EntityRow> rows = retrieveRowsWithFilters(paths, filters, values, interval);
+
+		// A page that is not full is the last one, so the count is known, unless it's empty (there may be fewer objects
+		// than its start). Otherwise, the objects are counted, which with approximate strategies must include this page.
+		long count;
+		boolean approximate = false;
+		if ((rows.size() < pageSize) && ((!rows.isEmpty()) || (interval[0] == 0))) {
+			count = interval[0] + rows.size();
+			if (parallelCount != null) parallelCount.cancel(false);
+		}
+		else if (parallelCount != null) count = awaitParallelCount(parallelCount);
+		else if (strategy.isApproximate()) {
+			approximate = true;
+			long estimate = retrieveFilteredCount(filters, values, strategy);
+			count = rows.isEmpty() ? Math.min(estimate, interval[0]) : Math.max(estimate, interval[1]);
+		}
+		else count = retrieveFilteredCount(filters, values);
+
+		EntityPage<EntityRow> page = new EntityPage<EntityRow>(rows, count, approximate);
+		logger.log(Level.INFO, "Retrieve page [{0}, {1}) of rows with {2} filter(s) for class \"{3}\" and {4} count returned: {5}", new Object[] { interval[0], interval[1], filters.length, getDomainClass().getName(), strategy, page });
+		return page;
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveFilteredCountAsynchronously(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter[],
+	 *      java.lang.String[])
+	 */
+	@Override
+	@Asynchronous
+	public Future<Long> retrieveFilteredCountAsynchronously(Filter<?>[] filters, String[] values) {
+		return new AsyncResult<Long>(retrieveFilteredCount(filters, values));
+	}
+
+	/**
+	 * Starts counting the objects that match the given filters asynchronously, if parallel counts are enabled (see
+	 * isParallelCountEnabled()). The DAO calls itself through the EJB container, using the business interface through
+	 * which it has been invoked.
+	 * 
+	 * @param filters
+	 *          The filters to be applied to the count.
+	 * @param values
+	 *          The values for the filters.
+	 * 
+	 * @return The result of the count, available when it's finished, or <code>null</code> if the count should be executed
+	 *         by the caller (parallel counts are disabled or the DAO is not running in an EJB container).
+	 */
+	@SuppressWarnings("unchecked")
+	private Future<Long> startParallelCount(Filter<?>[] filters, String[] values) {
+		if ((!isParallelCountEnabled()) || (sessionContext == null)) return null;
+		try {
+			BaseDAO<T> self = (BaseDAO<T>) sessionContext.getBusinessObject(sessionContext.getInvokedBusinessInterface());
+			return self.retrieveFilteredCountAsynchronously(filters, values);
+		}
+		catch (IllegalStateException e) {
+			logger.log(Level.FINE, "Could not count objects of class \"{0}\" in parallel, counting them sequentially: {1}", new Object[] { getDomainClass().getName(), e.getMessage() });
+			return null;
+		}
+	}
+
+	/**
+	 * Waits for a count started by startParallelCount(), rethrowing unchecked exceptions as they are.
+	 * 
+	 * @param parallelCount
+	 *          The result of the count.
+	 * 
+	 * @return The count.
+	 */
+	private static long awaitParallelCount(Future<Long> parallelCount) {
+		try {
+			return parallelCount.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#forEach(br.ufes.inf.nemo.jbutler.ejb.persistence.EntityProcessor) */
+	@Override
+	public long forEach(EntityProcessor<T> processor) {
+		return forEachWithFilters(new Filter<?>[0], new String[0], processor);
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#forEachWithFilters(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter[],
+	 *      java.lang.String[], br.ufes.inf.nemo.jbutler.ejb.persistence.EntityProcessor)
+	 */
+	@Override
+	public long forEachWithFilters(Filter<?>[] filters, String[] values, EntityProcessor<T> processor) {
+		logger.log(Level.FINER, "Processing all objects of class \"{0}\" using {1} filter(s)...", new Object[] { getDomainClass().getName(), filters.length });
+		EntityManager em = getEntityManager();
+		int chunkSize = getFetchSize();
+		long count = 0;
+		KeysetCursor cursor = null;
+		List<T> chunk;
+
+		// Reads one chunk at a time, seeking past the last object of the previous chunk. If the ordering of the DAO does
+		// not allow it, falls back to skipping the objects that have already been processed.
+		do {
+			TypedQuery<T> q;
+			if ((count == 0) || (cursor != null)) q = buildSeekQuery(filters, values, cursor, chunkSize);
+			else {
+				CompiledQuery<T> compiled = compileFilteredCriteriaQuery(filters, false);
+				q = em.createQuery(compiled.query);
+				bindFilterParameters(q, compiled.parameters, filters, values);
+				q.setFirstResult((int) count);
+				q.setMaxResults(chunkSize);
+			}
+			applyStreamingHints(q);
+			chunk = q.getResultList();
+
+			// Processes the objects and detaches them, so they are not kept in (nor dirty-checked by) the persistence context.
+			// Then, clears the context, as objects associated with them (e.g., loaded eagerly) are still managed. Pending
+			// changes of the caller are flushed first, so they're not lost.
+			for (T object : chunk) {
+				processor.process(object);
+				em.detach(object);
+			}
+			if (em.isJoinedToTransaction()) em.flush();
+			em.clear();
+			count += chunk.size();
+			if (!chunk.isEmpty()) cursor = createCursor(chunk.get(chunk.size() - 1));
+			logger.log(Level.FINEST, "Processed {0} objects of class \"{1}\" so far", new Object[] { count, getDomainClass().getName() });
+		}
+		while (chunk.size() == chunkSize);
+
+		logger.log(Level.INFO, "Processing with {0} filter(s) for class \"{1}\" went through \"{2}\" objects", new Object[] { filters.length, getDomainClass().getName(), count });
+		return count;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveById(java.lang.Long) */
+	@Override
+	public T retrieveById(Long id) {
+		logger.log(Level.FINER, "Retrieving object of class \"{0}\" with id {1}...", new Object[] { getDomainClass().getName(), id });
+
+		// Objects already managed in this transaction are returned as they are, keeping their changes and lazy attributes.
+		T managed = findManaged(id);
+		if (managed != null) {
+			logger.log(Level.FINEST, "Object of class \"{0}\" with id {1} found in the persistence context", new Object[] { getDomainClass().getName(), id });
+			return managed;
+		}
+
+		// Checks the cache of persistent objects, if enabled. Snapshots are only used if the object hasn't changed since.
+		TinyLfuCache<Long, EntitySnapshot> cache = (id == null) ? null : getEntityCache();
+		EntitySnapshot snapshot = (cache == null) ? null : cache.get(id);
+		if (snapshot != null) {
+			if (snapshot.version.equals(retrieveVersion(id))) {
+				T result = getDomainClass().cast(snapshot.restore(getDomainClass().getClassLoader()));
+				if (result != null) {
+					logger.log(Level.FINEST, "Object of class \"{0}\" with id {1} found in the cache (version {2})", new Object[] { getDomainClass().getName(), id, snapshot.version });
+					return result;
+				}
+			}
+			cache.remove(id);
+		}
+
+		// Uses the Persistence Context to retrieve an object given its id, caching a snapshot of it if enabled.
+		EntityManager em = getEntityManager();
+		T result = (T) em.find(getDomainClass(), id);
+		trackManaged(result);
+		if ((cache != null) && (result != null) && (result.getVersion() != null)) {
+			snapshot = EntitySnapshot.of(result);
+			if (snapshot != null) cache.put(id, snapshot);
+		}
+		logger.log(Level.INFO, "Retrieve object of class {0} with id {1} returned \"{2}\"", new Object[] { getDomainClass().getName(), id, result });
+		return result;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveById(java.lang.Long, br.ufes.inf.nemo.jbutler.ejb.persistence.FetchPlan) */
+	@Override
+	public T retrieveById(Long id, FetchPlan plan) {
+		// Without a fetch plan, the object is retrieved as usual (and possibly from the cache of persistent objects).
+		if ((plan == null) || plan.isEmpty()) return retrieveById(id);
+		logger.log(Level.FINER, "Retrieving object of class \"{0}\" with id {1} using {2}...", new Object[] { getDomainClass().getName(), id, plan });
+
+		// Snapshots in the cache don't carry lazy attributes, so the cache is bypassed and the plan is given as a load graph.
+		EntityManager em = getEntityManager();
+		Map<String, Object> hints = new HashMap<String, Object>();
+		hints.put(LOAD_GRAPH_HINT, createEntityGraph(plan));
+		T result = em.find(getDomainClass(), id, hints);
+		trackManaged(result);
+		logger.log(Level.INFO, "Retrieve object of class {0} with id {1} using {2} returned \"{3}\"", new Object[] { getDomainClass().getName(), id, plan, result });
+		return result;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#fetch(java.util.List, br.ufes.inf.nemo.jbutler.ejb.persistence.FetchPlan) */
+	@Override
+	public List<T> fetch(List<T> objects, FetchPlan plan) {
+		if ((objects == null) || objects.isEmpty() || (plan == null) || plan.isEmpty()) return objects;
+
+		// Collects the ids of the objects that still have attributes of the plan to be loaded.
+		EntityManager em = getEntityManager();
+		PersistenceUnitUtil util = em.getEntityManagerFactory().getPersistenceUnitUtil();
+		List<Long> ids = new ArrayList<Long>();
+		for (T object : objects)
+			if ((object != null) && (object.getId() != null) && !isLoaded(util, object, plan)) ids.add(object.getId());
+		if (ids.isEmpty()) return objects;
+		logger.log(Level.FINER, "Fetching {0} of {1} objects of class \"{2}\" using {3}...", new Object[] { ids.size(), objects.size(), getDomainClass().getName(), plan });
+
+		// Retrieves all of them in a single query, with the plan as a load graph. Paging is not involved here, so plans
+		// that include collections don't make the persistence provider page the results in memory.
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<T> cq = cb.createQuery(getDomainClass());
+		Root<T> root = cq.from(getDomainClass());
+		cq.select(root).distinct(true);
+		cq.where(root.get("id").in(ids));
+		TypedQuery<T> query = em.createQuery(cq);
+		query.setHint(LOAD_GRAPH_HINT, createEntityGraph(plan));
+		Map<Long, T> fetched = new HashMap<Long, T>();
+		for (T object : query.getResultList())
+			fetched.put(object.getId(), object);
+
+		// Puts the fetched objects in place of the original ones, keeping the order.
+		List<T> result = new ArrayList<T>(objects.size());
+		for (T object : objects) {
+			T replacement = (object == null) ? null : fetched.get(object.getId());
+			result.add((replacement == null) ? object : replacement);
+		}
+		logger.log(Level.INFO, "Fetch of {0} objects of class {1} using {2} retrieved {3} of them", new Object[] { objects.size(), getDomainClass().getName(), plan, fetched.size() });
+		return result;
+	}
+
+	/**
+	 * Informs if the attributes of a fetch plan are already loaded for the given object. Only the first attribute of each
+	 * path can be checked without loading anything, so plans with nested paths are considered not loaded if their first
+	 * attribute is loaded, but the nested ones may not be.
+	 * 
+	 * @param util
+	 *          Utility of the persistence unit that checks the load state of attributes.
+	 * @param object
+	 *          The object to check.
+	 * @param plan
+	 *          The fetch plan.
+	 * 
+	 * @return <code>true</code> if all attributes of the plan are loaded, <code>false</code> otherwise.
+	 */
+	private boolean isLoaded(PersistenceUnitUtil util, T object, FetchPlan plan) {
+		for (String path : plan.getPaths())
+			if ((path.indexOf('.') >= 0) || !util.isLoaded(object, path)) return false;
+		return true;
+	}
+
+	/**
+	 * Creates a JPA entity graph of the domain class with the attributes named in a fetch plan. Intermediate attributes of
+	 * nested paths become subgraphs, which are shared among paths with the same prefix.
+	 * 
+	 * @param plan
+	 *          The fetch plan.
+	 * 
+	 * @return An entity graph that can be used as a load graph to retrieve objects of the domain class.
+	 */
+	protected EntityGraph<T> createEntityGraph(FetchPlan plan) {
+		EntityGraph<T> graph = getEntityManager().createEntityGraph(getDomainClass());
+		Map<String, Subgraph<?>> subgraphs = new HashMap<String, Subgraph<?>>();
+		for (String path : plan.getPaths()) {
+			String[] names = path.split("\\.");
+			Subgraph<?> parent = null;
+			StringBuilder prefix = new StringBuilder();
+			for (int i = 0; i < names.length - 1; i++) {
+				prefix.append(names[i]).append('.');
+				Subgraph<?> subgraph = subgraphs.get(prefix.toString());
+				if (subgraph == null) {
+					subgraph = (parent == null) ? graph.addSubgraph(names[i]) : parent.addSubgraph(names[i]);
+					subgraphs.put(prefix.toString(), subgraph);
+				}
+				parent = subgraph;
+			}
+
+			// The last attribute is added as a node, unless it has been added as a subgraph by a longer path already.
+			String last = names[names.length - 1];
+			if (subgraphs.containsKey(prefix + last + '.')) continue;
+			if (parent == null) graph.addAttributeNodes(last);
+			else parent.addAttributeNodes(last);
+		}
+		return graph;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveByUuid(java.lang.String) */
+	@Override
+	public T retrieveByUuid(String uuid) throws PersistentObjectNotFoundException, MultiplePersistentObjectsFoundException {
+		logger.log(Level.FINER, "Retrieving object of class \"{0}\" with UUID {1}...", new Object[] { getDomainClass().getName(), uuid });
+
+		// Checks if the id of the object is known, in which case it can be found by its primary key. Entries of the cache
+		// are confirmed, as the object may have been deleted since it was cached.
+		EntityManager em = getEntityManager();
+		BoundedCache<String, Long> cache = getUuidCache();
+		Long id = (cache == null) ? null : cache.get(uuid);
+		if (id != null) {
+			T result = em.find(getDomainClass(), id);
+			if ((result != null) && (uuid.equals(result.getUuid()))) {
+				logger.log(Level.FINEST, "Object of class \"{0}\" with UUID {1} found by its cached id {2}", new Object[] { getDomainClass().getName(), uuid, id });
+				trackManaged(result);
+				return result;
+			}
+			cache.remove(uuid);
+		}
+
+		// Constructs the query over the PersistentObject class.
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<T> cq = cb.createQuery(getDomainClass());
+		Root<T> root = cq.from(getDomainClass());
+
+		// Filters the query with the UUID, converting it if the class stores UUIDs in binary form.
+		Path<Object> uuidPath = root.get("uuid");
+		cq.where(cb.equal(uuidPath, convertArgument(uuid, uuidPath.getJavaType())));
+		T result = executeSingleResultQuery(cq, uuid);
+		trackManaged(result);
+		if (cache != null) cache.put(uuid, result.getId());
+		return result;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveByIds(java.util.Collection) */
+	@Override
+	public List<T> retrieveByIds(Collection<Long> ids) {
+		logger.log(Level.FINER, "Retrieving {0} objects of class \"{1}\" by id...", new Object[] { ids.size(), getDomainClass().getName() });
+
+		// Objects that the DAO has already loaded or saved in this transaction and are still managed are obtained from the
+		// persistence context (see getManagedObjects()). The ids of the others are kept to be retrieved together.
+		EntityManager em = getEntityManager();
+		Map<Long, T> objects = new HashMap<Long, T>();
+		List<Long> missingIds = new ArrayList<Long>();
+		for (Long id : ids) {
+			if ((id == null) || objects.containsKey(id)) continue;
+			T managed = findManaged(id);
+			objects.put(id, managed);
+			if (managed == null) missingIds.add(id);
+		}
+		int found = objects.size() - missingIds.size();
+
+		// Retrieves the remaining objects in chunks, one query per chunk.
+		if (!missingIds.isEmpty()) {
+			CriteriaBuilder cb = em.getCriteriaBuilder();
+			CriteriaQuery<T> cq = cb.createQuery(getDomainClass());
+			Root<T> root = cq.from(getDomainClass());
+			int chunkSize = Math.max(1, getInListSize());
+			for (int i = 0; i < missingIds.size(); i += chunkSize) {
+				cq.where(root.get("id").in(missingIds.subList(i, Math.min(i + chunkSize, missingIds.size()))));
+				for (T object : em.createQuery(cq).getResultList()) {
+					objects.put(object.getId(), object);
+					trackManaged(object);
+				}
+			}
+		}
+
+		// Puts the objects in the order of the given ids, skipping the ones that don't exist.
+		List<T> result = new ArrayList<T>(ids.size());
+		for (Long id : ids) {
+			T object = (id == null) ? null : objects.get(id);
+			if (object != null) result.add(object);
+		}
+		logger.log(Level.INFO, "Retrieve of {0} objects of class {1} by id returned {2} objects ({3} from the persistence context, {4} queried)", new Object[] { ids.size(), getDomainClass().getName(), result.size(), found, missingIds.size() });
+		return result;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveByUuids(java.util.Collection) */
+	@Override
+	public List<T> retrieveByUuids(Collection<String> uuids) {
+		logger.log(Level.FINER, "Retrieving {0} objects of class \"{1}\" by UUID...", new Object[] { uuids.size(), getDomainClass().getName() });
+
+		// Objects whose ids are known are retrieved by their ids, which also uses the persistence context.
+		BoundedCache<String, Long> cache = getUuidCache();
+		Map<String, T> objects = new HashMap<String, T>();
+		List<Long> cachedIds = new ArrayList<Long>();
+		if (cache != null) for (String uuid : uuids) {
+			Long id = (uuid == null) ? null : cache.get(uuid);
+			if (id != null) cachedIds.add(id);
+		}
+		for (T object : retrieveByIds(cachedIds))
+			objects.put(object.getUuid(), object);
+
+		// Entries of the cache that no longer match are discarded and the remaining objects are retrieved in chunks.
+		List<Object> missingUuids = new ArrayList<Object>();
+		Set<String> pending = new HashSet<String>();
+		EntityManager em = getEntityManager();
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<T> cq = cb.createQuery(getDomainClass());
+		Root<T> root = cq.from(getDomainClass());
+		Path<Object> uuidPath = root.get("uuid");
+		for (String uuid : uuids) {
+			if ((uuid == null) || objects.containsKey(uuid) || !pending.add(uuid)) continue;
+			if (cache != null) cache.remove(uuid);
+			missingUuids.add(convertArgument(uuid, uuidPath.getJavaType()));
+		}
+		if (!missingUuids.isEmpty()) {
+			int chunkSize = Math.max(1, getInListSize());
+			for (int i = 0; i < missingUuids.size(); i += chunkSize) {
+				cq.where(uuidPath.in(missingUuids.subList(i, Math.min(i + chunkSize, missingUuids.size()))));
+				List<T> chunk = em.createQuery(cq).getResultList();
+				cacheUuids(chunk);
+				for (T object : chunk)
+					objects.put(object.getUuid(), object);
+			}
+		}
+
+		// Puts the objects in the order of the given UUIDs, skipping the ones that don't exist.
+		List<T> result = new ArrayList<T>(uuids.size());
+		for (String uuid : uuids) {
+			T object = (uuid == null) ? null : objects.get(uuid);
+			if (object != null) result.add(object);
+		}
+		logger.log(Level.INFO, "Retrieve of {0} objects of class {1} by UUID returned {2} objects ({3} queried by UUID)", new Object[] { uuids.size(), getDomainClass().getName(), result.size(), missingUuids.size() });
+		return result;
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#save(br.ufes.inf.nemo.jbutler.ejb.persistence.PersistentObject)
+	 */
+	@Override
+	public void save(T object) {
+		logger.log(Level.FINER, "Saving an object of class {0}: \"{1}\"...", new Object[] { getDomainClass().getName(), object });
 
 		// Uses the Persistence Context to save an object. Checks if it's a new object (INSERT) or an existing one
 		// (UPDATE).
 		EntityManager em = getEntityManager();
-		if (object.isPersistent()) em.merge(object);
+		registerModification(object.getId());
+		T managed = object;
+		if (object.isPersistent()) managed = em.merge(object);
 		else em.persist(object);
+		trackManaged(managed);
+		updateFullTextIndexes(object);
 	}
 
 	/**
@@ -344,9 +2402,334 @@ public abstract class BaseJPADAO<T extends PersistentObject> implements BaseDAO<
 	public void delete(T object) {
 		logger.log(Level.FINER, "Deleting an object of class {0}: \"{1}\"...", new Object[] { getDomainClass().getName(), object });
 
-		// Uses the Persistence Context to delete an object.
+		// Removes the object from the UUID cache and from the cache of persistent objects.
+		BoundedCache<String, Long> cache = getUuidCache();
+		if (cache != null) cache.remove(object.getUuid());
+		registerModification(object.getId());
+		removeFromFullTextIndexes(object.getId());
+
+		// Uses the Persistence Context to delete an object. Objects that are already managed don't need to be merged.
+		EntityManager em = getEntityManager();
+		T managed;
+		if (em.contains(object)) em.remove(object);
+
+		// If another instance of the object is managed (e.g., it was loaded to validate the deletion), that instance is
+		// removed, otherwise it would remain in the persistence context as if the object still existed.
+		else if ((managed = findManaged(object.getId())) != null) {
+			if ((object.getVersion() != null) && !object.getVersion().equals(managed.getVersion())) throw new OptimisticLockException("Object was changed by another transaction.", null, object);
+			em.remove(managed);
+		}
+
+		// Detached objects can be deleted directly, if the DAO allows it, guarded by their version.
+		else if (isBulkDeleteSafe()) {
+			if (!deleteById(object.getId(), object.getVersion())) throw new OptimisticLockException("Object was changed or deleted by another transaction.", null, object);
+		}
+
+		// Otherwise a reference to the object is removed, so cascades and callbacks are applied on removal. The detached
+		// object is not merged, since its state (which may be stale) would be copied and cascaded before the removal.
+		else {
+			try {
+				managed = em.getReference(getDomainClass(), object.getId());
+				if ((object.getVersion() != null) && !object.getVersion().equals(managed.getVersion())) throw new OptimisticLockException("Object was changed by another transaction.", null, object);
+				em.remove(managed);
+			}
+			catch (EntityNotFoundException e) {
+				throw new OptimisticLockException("Object was deleted by another transaction.", e, object);
+			}
+		}
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#deleteById(java.lang.Long, java.lang.Long) */
+	@Override
+	public boolean deleteById(Long id, Long version) {
+		logger.log(Level.FINER, "Deleting an object of class {0} with id {1} and version {2}...", new Object[] { getDomainClass().getName(), id, version });
+
+		// Removes the object from the cache of persistent objects.
+		registerModification(id);
+
+		// Using the entity manager, create a criteria delete for the object with the given id.
+		EntityManager em = getEntityManager();
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaDelete<T> cd = cb.createCriteriaDelete(getDomainClass());
+		Root<T> root = cd.from(getDomainClass());
+		ParameterExpression<Long> idParam = cb.parameter(Long.class);
+		Predicate predicate = cb.equal(root.get("id"), idParam);
+
+		// Checks the version as well, if it was given and the class has one.
+		ParameterExpression<Long> versionParam = null;
+		SingularAttribute<? super T, ?> versionAttr = getVersionAttribute(root.getModel());
+		if ((version != null) && (versionAttr != null)) {
+			versionParam = cb.parameter(Long.class);
+			predicate = cb.and(predicate, cb.equal(root.get(versionAttr.getName()), versionParam));
+		}
+		cd.where(predicate);
+
+		// Binds the parameters and executes.
+		Query q = em.createQuery(cd);
+		q.setParameter(idParam, id);
+		if (versionParam != null) q.setParameter(versionParam, version);
+		boolean deleted = (q.executeUpdate() > 0);
+		if (deleted) removeFromFullTextIndexes(id);
+		logger.log(Level.INFO, "Delete of object of class {0} with id {1} and version {2} returned: {3}", new Object[] { getDomainClass().getName(), id, version, deleted });
+		return deleted;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#saveAll(java.util.Collection) */
+	@Override
+	public BatchStatistics saveAll(Collection<T> objects) {
+		logger.log(Level.FINER, "Saving {0} objects of class {1}...", new Object[] { objects.size(), getDomainClass().getName() });
+		EntityManager em = getEntityManager();
+		BatchStatistics statistics = new BatchStatistics();
+		int batchSize = getBatchSize();
+		int chunkSize = 0;
+		long chunkStart = System.nanoTime();
+
+		// Saves the objects like save() does, ending a chunk every time the batch size is reached. Objects that were already
+		// managed are kept out of the chunk, so they aren't detached when it ends.
+		List<T> chunk = new ArrayList<T>(batchSize);
+		for (T object : objects) {
+			registerModification(object.getId());
+			if (em.contains(object)) updateFullTextIndexes(object);
+			else {
+				T managed = object;
+				if (object.isPersistent()) managed = em.merge(object);
+				else em.persist(object);
+				updateFullTextIndexes(managed);
+				chunk.add(managed);
+			}
+			if (++chunkSize == batchSize) {
+				endChunk(statistics, chunkSize, chunkStart, chunk);
+				chunk.clear();
+				chunkSize = 0;
+				chunkStart = System.nanoTime();
+			}
+		}
+		if (chunkSize > 0) endChunk(statistics, chunkSize, chunkStart, chunk);
+
+		logger.log(Level.INFO, "Save of many objects of class {0} finished: {1}", new Object[] { getDomainClass().getName(), statistics });
+		return statistics;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#deleteAll(java.util.Collection) */
+	@Override
+	public BatchStatistics deleteAll(Collection<T> objects) {
+		logger.log(Level.FINER, "Deleting {0} objects of class {1}...", new Object[] { objects.size(), getDomainClass().getName() });
+		EntityManager em = getEntityManager();
+		BatchStatistics statistics = new BatchStatistics();
+		int batchSize = getBatchSize();
+		int chunkSize = 0;
+		long chunkStart = System.nanoTime();
+
+		// Deletes the objects using delete(), ending a chunk every time the batch size is reached. Removed objects leave the
+		// persistence context when it's flushed, so there's nothing to detach.
+		List<T> noObjects = Collections.emptyList();
+		for (T object : objects) {
+			delete(object);
+			if (++chunkSize == batchSize) {
+				endChunk(statistics, chunkSize, chunkStart, noObjects);
+				chunkSize = 0;
+				chunkStart = System.nanoTime();
+			}
+		}
+		if (chunkSize > 0) endChunk(statistics, chunkSize, chunkStart, noObjects);
+
+		logger.log(Level.INFO, "Delete of many objects of class {0} finished: {1}", new Object[] { getDomainClass().getName(), statistics });
+		return statistics;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#deleteAllById(java.util.Collection) */
+	@Override
+	public BatchStatistics deleteAllById(Collection<Long> ids) {
+		logger.log(Level.FINER, "Deleting {0} objects of class {1} given their ids...", new Object[] { ids.size(), getDomainClass().getName() });
+		EntityManager em = getEntityManager();
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		BatchStatistics statistics = new BatchStatistics();
+		int batchSize = getBatchSize();
+		List<Long> idList = new ArrayList<Long>(ids);
+		List<T> noObjects = Collections.emptyList();
+
+		// Retrieves the objects that exist, a chunk of ids at a time with an IN query, and deletes them.
+		for (int i = 0; i < idList.size(); i += batchSize) {
+			long chunkStart = System.nanoTime();
+			List<Long> chunkIds = idList.subList(i, Math.min(i + batchSize, idList.size()));
+			for (Long id : chunkIds)
+				registerModification(id);
+			CriteriaQuery<T> cq = cb.createQuery(getDomainClass());
+			Root<T> root = cq.from(getDomainClass());
+			cq.select(root).where(root.get("id").in(chunkIds));
+			List<T> chunk = em.createQuery(cq).getResultList();
+			for (T object : chunk) {
+				em.remove(object);
+				removeFromFullTextIndexes(object.getId());
+			}
+			endChunk(statistics, chunk.size(), chunkStart, noObjects);
+		}
+
+		logger.log(Level.INFO, "Delete of many objects of class {0} given their ids finished: {1}", new Object[] { getDomainClass().getName(), statistics });
+		return statistics;
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#deleteWithFilters(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter[],
+	 *      java.lang.String[])
+	 */
+	@Override
+	public int deleteWithFilters(Filter<?>[] filters, String[] values) {
+		logger.log(Level.FINER, "Deleting objects of class \"{0}\" using {1} filter(s)...", new Object[] { getDomainClass().getName(), filters.length });
+
+		// Using the entity manager, create a criteria delete for the domain class and filters it.
+		EntityManager em = getEntityManager();
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaDelete<T> cd = cb.createCriteriaDelete(getDomainClass());
+		Root<T> root = cd.from(getDomainClass());
+		List<ParameterExpression<?>> parameters = new ArrayList<ParameterExpression<?>>();
+		cd.where(buildBulkFilterPredicate(cb, cd, root, filters, parameters));
+
+		// Binds the values of the filters and executes.
+		Query q = em.createQuery(cd);
+		bindFilterParameters(q, parameters, filters, values);
+		int count = q.executeUpdate();
+		if (count > 0) {
+			bumpModificationCounter();
+			evictAllEntities();
+			clearFullTextIndexes();
+		}
+		logger.log(Level.INFO, "Delete with {0} filter(s) for class \"{1}\" removed \"{2}\" objects", new Object[] { filters.length, getDomainClass().getName(), count });
+		return count;
+	}
+
+	/**
+	 * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#updateWithFilters(br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter[],
+	 *      java.lang.String[], java.util.Map)
+	 */
+	@Override
+	public int updateWithFilters(Filter<?>[] filters, String[] values, Map<String, Object> assignments) {
+		logger.log(Level.FINER, "Updating attributes {0} of objects of class \"{1}\" using {2} filter(s)...", new Object[] { assignments.keySet(), getDomainClass().getName(), filters.length });
+
+		// Using the entity manager, create a criteria update for the domain class with the given assignments.
+		EntityManager em = getEntityManager();
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaUpdate<T> cu = cb.createCriteriaUpdate(getDomainClass());
+		Root<T> root = cu.from(getDomainClass());
+		for (Map.Entry<String, Object> assignment : assignments.entrySet())
+			cu.set(assignment.getKey(), assignment.getValue());
+
+		// Increments the version of the objects, if the class has one, so concurrent changes are detected.
+		SingularAttribute<? super T, ?> versionAttr = getVersionAttribute(root.getModel());
+		if (versionAttr != null) {
+			Path<Number> versionPath = root.get(versionAttr.getName());
+			cu.set(versionPath, cb.sum(versionPath, 1));
+		}
+
+		// Filters the update, binds the values of the filters and executes.
+		List<ParameterExpression<?>> parameters = new ArrayList<ParameterExpression<?>>();
+		cu.where(buildBulkFilterPredicate(cb, cu, root, filters, parameters));
+		Query q = em.createQuery(cu);
+		bindFilterParameters(q, parameters, filters, values);
+		int count = q.executeUpdate();
+		if (count > 0) {
+			bumpModificationCounter();
+			evictAllEntities();
+			clearFullTextIndexes();
+		}
+		logger.log(Level.INFO, "Update with {0} filter(s) for class \"{1}\" changed \"{2}\" objects", new Object[] { filters.length, getDomainClass().getName(), count });
+		return count;
+	}
+
+	/**
+	 * Finds the version attribute of the domain class (e.g., the one declared by PersistentObjectSupport).
+	 * 
+	 * @param model
+	 *          The entity model of the domain class.
+	 * 
+	 * @return The version attribute or <code>null</code>, if the domain class has none.
+	 */
+	private SingularAttribute<? super T, ?> getVersionAttribute(EntityType<T> model) {
+		if (model.hasVersionAttribute()) for (SingularAttribute<? super T, ?> attr : model.getSingularAttributes())
+			if (attr.isVersion()) return attr;
+		return null;
+	}
+
+	/**
+	 * Translates filters into the predicate of a bulk statement (delete or update). Bulk statements cannot have joins,
+	 * so if any of the filters navigates through associations, the predicates are placed in a subquery that selects the
+	 * ids of the matching objects. Otherwise, they are used directly, as some databases (e.g., MySQL) do not allow the
+	 * table being changed to be queried in a subquery.
+	 * 
+	 * @param cb
+	 *          The object that builds the criteria query.
+	 * @param cq
+	 *          The bulk statement itself.
+	 * @param root
+	 *          The root of the bulk statement.
+	 * @param filters
+	 *          The filters that will be translated into the predicate.
+	 * @param parameters
+	 *          The list to which the parameters created for the values of the filters are added.
+	 * 
+	 * @return The predicate to be used in the WHERE clause of the bulk statement.
+	 */
+	private Predicate buildBulkFilterPredicate(CriteriaBuilder cb, CommonAbstractCriteria cq, Root<T> root, Filter<?>[] filters, List<ParameterExpression<?>> parameters) {
+		// If no navigation is needed, uses the predicates directly.
+		if (!requiresJoins(filters)) return cb.and(buildFilterPredicates(cb, cq, root, filters, parameters).toArray(new Predicate[0]));
+
+		// Otherwise, selects the ids of the objects that match the filters in a subquery.
+		Subquery<Long> sq = cq.subquery(Long.class);
+		Root<T> subRoot = sq.from(getDomainClass());
+		sq.select(subRoot.<Long> get("id"));
+		List<Predicate> predicates = buildFilterPredicates(cb, sq, subRoot, filters, parameters);
+		if (!predicates.isEmpty()) sq.where(predicates.toArray(new Predicate[0]));
+		return root.get("id").in(sq);
+	}
+
+	/**
+	 * Checks if the predicates built for the given filters navigate through associations, which requires joins.
+	 * 
+	 * @param filters
+	 *          The filters to be checked.
+	 * 
+	 * @return <code>true</code> if joins are needed, <code>false</code> otherwise.
+	 */
+	private boolean requiresJoins(Filter<?>[] filters) {
+		for (Filter<?> filter : filters) {
+			switch (filter.getType()) {
+			case MANY_TO_MANY:
+				// Associated objects are navigated in a correlated subquery, so only the criteria matter.
+				break;
+			case REVERSE_MULTIPLE_CHOICE:
+			case MULTIPLE_CHOICE:
+				return true;
+			default:
+				if (filter.getFieldName().indexOf('.') != -1) return true;
+			}
+			for (Criterion criterion : filter.getCriteria())
+				if (criterion.getFieldName().indexOf('.') != -1) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Ends a chunk of a batch operation: flushes the persistence context, so the pending statements are sent to the
+	 * database (in JDBC batches, if enabled in the JPA provider), detaches the objects of the chunk, so they don't
+	 * accumulate in memory, and records the chunk's statistics. The persistence context is not cleared, as it's shared
+	 * with the caller, whose other objects must stay managed.
+	 * 
+	 * @param statistics
+	 *          The statistics of the batch operation.
+	 * @param size
+	 *          The number of objects affected in the chunk.
+	 * @param chunkStart
+	 *          The moment the chunk started, as given by System.nanoTime().
+	 * @param chunk
+	 *          The objects that the chunk brought into the persistence context, to be detached.
+	 */
+	private void endChunk(BatchStatistics statistics, int size, long chunkStart, List<T> chunk) {
 		EntityManager em = getEntityManager();
-		em.remove(em.merge(object));
+		em.flush();
+		for (T object : chunk)
+			if (em.contains(object)) em.detach(object);
+		statistics.addChunk(size, (System.nanoTime() - chunkStart) / 1000000);
+		logger.log(Level.FINEST, "Finished chunk #{0} of a batch operation on class {1} with {2} objects", new Object[] { statistics.getChunkCount(), getDomainClass().getName(), size });
 	}
 
 	/**
@@ -358,7 +2741,11 @@ public abstract class BaseJPADAO<T extends PersistentObject> implements BaseDAO<
 
 		// Uses the Persistence Context to merge an object.
 		EntityManager em = getEntityManager();
-		return em.merge(object);
+		registerModification(object.getId());
+		T merged = em.merge(object);
+		trackManaged(merged);
+		updateFullTextIndexes(merged);
+		return merged;
 	}
 
 	/**
@@ -377,18 +2764,110 @@ public abstract class BaseJPADAO<T extends PersistentObject> implements BaseDAO<
 		return result;
 	}
 
+	/**
+	 * Obtains the criteria query that retrieves the number of domain objects according to the given filters, building it
+	 * only if a query with the same signature has not been built before.
+	 * 
+	 * @param filters
+	 *          The filters to be applied to the query.
+	 * 
+	 * @return The compiled query, whose parameters should be bound to the values of the filters before execution.
+	 */
+	@SuppressWarnings("unchecked")
+	private CompiledQuery<Long> compileFilteredCountCriteriaQuery(Filter<?>[] filters) {
+		// Checks if the query has already been built.
+		BoundedCache<String, CompiledQuery<?>> cache = getCompiledQueries();
+		String signature = (cache != null) ? getFilterSignature("count", filters) : null;
+		CompiledQuery<Long> compiled = (signature == null) ? null : (CompiledQuery<Long>) cache.get(signature);
+
+		// If not, builds the query and stores it for future use.
+		if (compiled == null) {
+			List<ParameterExpression<?>> parameters = new ArrayList<ParameterExpression<?>>();
+			compiled = new CompiledQuery<Long>(buildFilteredCountCriteriaQuery(filters, parameters), parameters);
+			if (signature != null) cache.put(signature, compiled);
+			logger.log(Level.FINE, "Built filtered count query for class \"{0}\" with signature: {1}", new Object[] { getDomainClass().getName(), signature });
+		}
+		return compiled;
+	}
+
+	/**
+	 * Obtains the criteria query that retrieves the domain objects according to the given filters, building it only if a
+	 * query with the same signature has not been built before.
+	 * 
+	 * @param filters
+	 *          The filters to be applied to the query.
+	 * @param reversed
+	 *          If <code>true</code>, the ordering of the query is inverted.
+	 * 
+	 * @return The compiled query, whose parameters should be bound to the values of the filters before execution.
+	 */
+	@SuppressWarnings("unchecked")
+	private CompiledQuery<T> compileFilteredCriteriaQuery(Filter<?>[] filters, boolean reversed) {
+		// Checks if the query has already been built.
+		BoundedCache<String, CompiledQuery<?>> cache = getCompiledQueries();
+		String signature = (cache != null) ? getFilterSignature(reversed ? "reversed" : "list", filters) : null;
+		CompiledQuery<T> compiled = (signature == null) ? null : (CompiledQuery<T>) cache.get(signature);
+
+		// If not, builds the query and stores it for future use.
+		if (compiled == null) {
+			List<ParameterExpression<?>> parameters = new ArrayList<ParameterExpression<?>>();
+			compiled = new CompiledQuery<T>(buildFilteredCriteriaQuery(filters, parameters, reversed), parameters);
+			if (signature != null) cache.put(signature, compiled);
+			logger.log(Level.FINE, "Built filtered query for class \"{0}\" with signature: {1}", new Object[] { getDomainClass().getName(), signature });
+		}
+		return compiled;
+	}
+
+	/**
+	 * Produces the signature of a filter query, which identifies its structure: the DAO, the kind of query and, for each
+	 * filter, its type, fields and criteria (but not their values, which are bound as parameters).
+	 * 
+	 * @param kind
+	 *          The kind of query (count, list, etc.).
+	 * @param filters
+	 *          The filters to be applied to the query.
+	 * 
+	 * @return A string that is the same for all queries that can share the same structure.
+	 */
+	private String getFilterSignature(String kind, Filter<?>[] filters) {
+		StringBuilder signature = new StringBuilder(getClass().getName()).append('<').append(getDomainClass().getName()).append(">#").append(kind);
+		for (Filter<?> filter : filters) {
+			signature.append('|').append(filter.getType()).append(':').append(filter.getFieldName()).append(':').append(filter.getSubFieldNames()).append(':').append(filter.getMatchType());
+			appendCriteriaSignature(signature, filter.getCriteria());
+			if (filter.getType() == FilterType.MANY_TO_MANY) appendCriteriaSignature(signature, ((ManyToManyFilter) filter).getJoinedCriteria());
+			if (filter.getType() == FilterType.REVERSE_MULTIPLE_CHOICE) {
+				Iterator<?> options = (filter.getOptions() == null) ? null : filter.getOptions().iterator();
+				signature.append(':').append(((options != null) && options.hasNext()) ? options.next().getClass().getName() : null);
+			}
+		}
+		return signature.toString();
+	}
+
+	/**
+	 * Appends the structure of a list of criteria (fields and types, but not values) to the signature of a filter query.
+	 * 
+	 * @param signature
+	 *          The signature being produced.
+	 * @param criteria
+	 *          The criteria whose structure should be appended.
+	 */
+	private void appendCriteriaSignature(StringBuilder signature, List<Criterion> criteria) {
+		for (Criterion criterion : criteria)
+			signature.append('[').append(criterion.getFieldName()).append(' ').append(criterion.getType()).append(']');
+	}
+
 	/**
 	 * Builds a criteria query to return that retrieves the number of domain objects (the object count) according to the
 	 * given filter (and its embedded criteria).
 	 * 
 	 * @param filters
 	 *          The filters to be applied to the query.
-	 * @param values
-	 *          The values associated with their respective filter.
+	 * @param parameters
+	 *          The list to which the parameters created for the values of the filters are added.
 	 * 
 	 * @return The CriteriaQuery object to be executed to retrieve the filtered object count.
 	 */
-	private CriteriaQuery<Long> buildFilteredCountCriteriaQuery(Filter<?>[] filters, String[] values) {
+	private CriteriaQuery<Long> buildFilteredCountCriteriaQuery(Filter<?>[] filters, List<ParameterExpression<?>> parameters) {
 		// Using the entity manager, create a criteria query to retrieve an object count.
 		EntityManager em = getEntityManager();
 		CriteriaBuilder cb = em.getCriteriaBuilder();
@@ -397,7 +2876,7 @@ public abstract class BaseJPADAO<T extends PersistentObject> implements BaseDAO<
 		cq.select(cb.count(root));
 
 		// Filters the criteria query and returns.
-		filterCriteriaQuery(cb, cq, root, filters, values);
+		filterCriteriaQuery(cb, cq, root, filters, parameters);
 		return cq;
 	}
 
@@ -407,12 +2886,14 @@ public abstract class BaseJPADAO<T extends PersistentObject> implements BaseDAO<
 	 * 
 	 * @param filters
 	 *          The filters to be applied to the query.
-	 * @param values
-	 *          The values associated with their respective filters.
+	 * @param parameters
+	 *          The list to which the parameters created for the values of the filters are added.
+	 * @param reversed
+	 *          If <code>true</code>, the ordering of the query is inverted.
 	 * 
 	 * @return The CriteriaQuery object to be executed to retrieve the filtered objects.
 	 */
-	private CriteriaQuery<T> buildFilteredCriteriaQuery(Filter<?>[] filters, String[] values) {
+	private CriteriaQuery<T> buildFilteredCriteriaQuery(Filter<?>[] filters, List<ParameterExpression<?>> parameters, boolean reversed) {
 		// Using the entity manager, create a criteria query to retrieve objects of the domain class.
 		EntityManager em = getEntityManager();
 		CriteriaBuilder cb = em.getCriteriaBuilder();
@@ -421,11 +2902,179 @@ public abstract class BaseJPADAO<T extends PersistentObject> implements BaseDAO<
 		cq.select(root);
 
 		// Filters the criteria query, applies ordering (if provided) and returns.
-		filterCriteriaQuery(cb, cq, root, filters, values);
-		applyOrdering(cb, root, cq);
+		filterCriteriaQuery(cb, cq, root, filters, parameters);
+		if (!reversed) applyOrdering(cb, root, cq);
+		else {
+			List<Order> reversedOrderList = new ArrayList<Order>();
+			for (Order order : getTotalOrderList(cb, root))
+				reversedOrderList.add(order.reverse());
+			cq.orderBy(reversedOrderList);
+		}
 		return cq;
 	}
 
+	/**
+	 * Builds a query that retrieves the domain objects that match the given filters and come after the cursor, in the
+	 * total ordering of the DAO, limiting the number of results (keyset pagination).
+	 * 
+	 * @param filters
+	 *          The filters to be applied to the query.
+	 * @param values
+	 *          The values associated with their respective filters.
+	 * @param cursor
+	 *          The position after which objects should be retrieved. If <code>null</code>, retrieves from the beginning.
+	 * @param maxResults
+	 *          The maximum number of objects to retrieve.
+	 * 
+	 * @return The query, with its parameters already bound, ready to be executed.
+	 */
+	private TypedQuery<T> buildSeekQuery(Filter<?>[] filters, String[] values, KeysetCursor cursor, int maxResults) {
+		// Using the entity manager, create a criteria query to retrieve objects of the domain class.
+		EntityManager em = getEntityManager();
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<T> cq = cb.createQuery(getDomainClass());
+		Root<T> root = cq.from(getDomainClass());
+		cq.select(root);
+
+		// Filters the query and, if a cursor was given, adds the predicate that seeks to the position after it.
+		List<Order> orderList = getTotalOrderList(cb, root);
+		List<ParameterExpression<?>> parameters = new ArrayList<ParameterExpression<?>>();
+		List<Predicate> predicates = buildFilterPredicates(cb, cq, root, filters, parameters);
+		if (cursor != null) predicates.add(buildSeekPredicate(cb, root, orderList, cursor));
+		if (!predicates.isEmpty()) cq.where(predicates.toArray(new Predicate[0]));
+		cq.orderBy(orderList);
+
+		// Only limits the number of results, no offset is needed.
+		TypedQuery<T> q = em.createQuery(cq);
+		bindFilterParameters(q, parameters, filters, values);
+		q.setMaxResults(maxResults);
+		return q;
+	}
+
+	/**
+	 * Sets the hints that make a query suitable for processing large amounts of objects: the JDBC fetch size and
+	 * read-only mode (objects are not snapshotted for dirty-checking). Hints are provider-specific and the ones that are
+	 * not recognized by the JPA provider in use are ignored.
+	 * 
+	 * @param q
+	 *          The query to which the hints are applied.
+	 */
+	private void applyStreamingHints(Query q) {
+		int fetchSize = getFetchSize();
+		q.setHint("org.hibernate.fetchSize", fetchSize);
+		q.setHint("org.hibernate.readOnly", true);
+		q.setHint("eclipselink.jdbc.fetch-size", String.valueOf(fetchSize));
+		q.setHint("eclipselink.read-only", "true");
+	}
+
+	/**
+	 * Builds the predicate that selects the objects that come after the cursor, given the total ordering of the query.
+	 * For an ordering (k1 ASC, k2 DESC, id ASC) this predicate looks like this:
+	 * <code>(k1 &gt; v1) or (k1 = v1 and k2 &lt; v2) or (k1 = v1 and k2 = v2 and id &gt; vId)</code>.
+	 * 
+	 * @param cb
+	 *          The criteria builder object, needed to build queries.
+	 * @param root
+	 *          The root of the query, meta-object that represents the class of objects beind queried.
+	 * @param orderList
+	 *          The total ordering of the query, as returned by getTotalOrderList().
+	 * @param cursor
+	 *          The cursor that holds the values of the ordering keys.
+	 * 
+	 * @return The predicate to be added to the WHERE clause of the query.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private Predicate buildSeekPredicate(CriteriaBuilder cb, Root<T> root, List<Order> orderList, KeysetCursor cursor) {
+		// Remove @SupressWarnings and add the correct generic types to all operations.
+
+		// The values of the cursor, with the id as the last one, matching the total order list.
+		Object[] keys = cursor.getKeys();
+		Comparable[] cursorValues = new Comparable[keys.length + 1];
+		for (int i = 0; i < keys.length; i++)
+			cursorValues[i] = (Comparable) keys[i];
+		cursorValues[keys.length] = cursor.getId();
+
+		// Builds one conjunction for each ordering key: equal on all previous keys, after the cursor on this one.
+		List<Predicate> disjunction = new ArrayList<Predicate>();
+		for (int i = 0; i < orderList.size(); i++) {
+			List<Predicate> conjunction = new ArrayList<Predicate>();
+			for (int j = 0; j < i; j++)
+				conjunction.add(cb.equal(orderList.get(j).getExpression(), cursorValues[j]));
+			Order order = orderList.get(i);
+			Expression expression = order.getExpression();
+			conjunction.add(order.isAscending() ? cb.greaterThan(expression, cursorValues[i]) : cb.lessThan(expression, cursorValues[i]));
+			disjunction.add(cb.and(conjunction.toArray(new Predicate[0])));
+		}
+		return cb.or(disjunction.toArray(new Predicate[0]));
+	}
+
+	/**
+	 * Reads from an object the value that corresponds to a path of the Criteria API, navigating through the attributes
+	 * that compose the path (e.g., for the path <code>author.name</code>, reads the name of the author of the object).
+	 * 
+	 * @param path
+	 *          The path whose value should be read.
+	 * @param object
+	 *          The object from which the value should be read.
+	 * 
+	 * @return The value of the path for the object, or <code>null</code> if it cannot be determined.
+	 */
+	private Object readPathValue(Path<?> path, Object object) {
+		// Builds the chain of attributes from the root of the query to the path.
+		List<Attribute<?, ?>> chain = new ArrayList<Attribute<?, ?>>();
+		try {
+			for (Path<?> p = path; p.getParentPath() != null; p = p.getParentPath()) {
+				Object model = (p instanceof Join) ? ((Join<?, ?>) p).getAttribute() : p.getModel();
+				if (!(model instanceof Attribute)) return null;
+				chain.add(0, (Attribute<?, ?>) model);
+			}
+		}
+		catch (RuntimeException e) {
+			// Some JPA providers do not expose the model of paths that lead to basic attributes.
+			logger.log(Level.FINE, "Could not determine the attributes of an ordering path of class \"" + getDomainClass().getName() + "\"", e);
+			return null;
+		}
+
+		// Navigates the chain of attributes reading their values through reflection.
+		Object value = object;
+		for (Attribute<?, ?> attr : chain) {
+			if (value == null) return null;
+			value = readAttributeValue(attr, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Reads the value of an attribute from an object through reflection.
+	 * 
+	 * @param attr
+	 *          The attribute whose value should be read.
+	 * @param object
+	 *          The object from which the value should be read.
+	 * 
+	 * @return The value of the attribute for the object, or <code>null</code> if it cannot be determined.
+	 */
+	private Object readAttributeValue(Attribute<?, ?> attr, Object object) {
+		Member member = attr.getJavaMember();
+		try {
+			if (member instanceof Field) {
+				Field field = (Field) member;
+				field.setAccessible(true);
+				return field.get(object);
+			}
+			else if (member instanceof Method) {
+				Method method = (Method) member;
+				method.setAccessible(true);
+				return method.invoke(object);
+			}
+			else return null;
+		}
+		catch (IllegalAccessException | InvocationTargetException e) {
+			logger.log(Level.WARNING, "Could not read attribute \"" + attr.getName() + "\" of \"" + object + "\"", e);
+			return null;
+		}
+	}
+
 	/**
 	 * Applies multiple filters to a criteria query. Used both by buildFilteredCountCriteriaQuery() and
 	 * buildFilteredCriteriaQuery().
@@ -438,11 +3087,37 @@ public abstract class BaseJPADAO<T extends PersistentObject> implements BaseDAO<
 	 *          The root of the query, which specifies the class to which the query is applied.
 	 * @param filters
 	 *          The filters that will be applied to the criteria query.
-	 * @param values
-	 *          The values associated with the respective filters.
+	 * @param parameters
+	 *          The list to which the parameters created for the values of the filters are added.
+	 */
+	private void filterCriteriaQuery(CriteriaBuilder cb, CriteriaQuery<?> cq, Root<T> root, Filter<?>[] filters, List<ParameterExpression<?>> parameters) {
+		List<Predicate> predicates = buildFilterPredicates(cb, cq, root, filters, parameters);
+		if (!predicates.isEmpty()) cq.where(predicates.toArray(new Predicate[0]));
+	}
+
+	/**
+	 * Translates multiple filters into a list of predicates, which should be joined together in a conjunction for the
+	 * WHERE clause of a query. Used by filterCriteriaQuery() and by queries that need to add predicates of their own to
+	 * the ones of the filters (e.g., keyset pagination).
+	 * 
+	 * The values of the filters and their criteria are not part of the predicates. Instead, parameters are created in the
+	 * same order in which collectFilterArguments() collects the values, so they can be bound with bindFilterParameters().
+	 * 
+	 * @param cb
+	 *          The object that builds the criteria query.
+	 * @param cq
+	 *          The criteria query itself, used to build subqueries.
+	 * @param root
+	 *          The root of the query, which specifies the class to which the query is applied.
+	 * @param filters
+	 *          The filters that will be translated into predicates.
+	 * @param parameters
+	 *          The list to which the parameters created for the values of the filters are added.
+	 * 
+	 * @return The list of predicates that represent the given filters.
 	 */
 	@SuppressWarnings({ "rawtypes", "unchecked" })
-	private void filterCriteriaQuery(CriteriaBuilder cb, CriteriaQuery<?> cq, Root<T> root, Filter<?>[] filters, String[] values) {
+	private List<Predicate> buildFilterPredicates(CriteriaBuilder cb, CommonAbstractCriteria cq, Root<T> root, Filter<?>[] filters, List<ParameterExpression<?>> parameters) {
 		// Remove @SupressWarnings and add the correct generic types to all operations.
 
 		// Get the model for the domain class so we can perform filtering.
@@ -452,174 +3127,489 @@ public abstract class BaseJPADAO<T extends PersistentObject> implements BaseDAO<
 		List<Predicate> predicates = new ArrayList<Predicate>();
 
 		// Goes through all filters.
-		for (int i = 0; i < filters.length; i++) {
-			Filter<?> filter = filters[i];
-			String value = values[i];
-
+		for (Filter<?> filter : filters) {
 			// Process each criterion, adding a predicate to the list, depending on the type of criterion.
 			for (Criterion crit : filter.getCriteria())
-				predicates.add(createPredicate(cb, root, model, crit));
+				predicates.add(createParameterizedPredicate(cb, root, model, crit.getFieldName(), crit.getType(), parameters));
 
 			// Check which type of filter is being used.
-			Long id = null;
-			Criterion criterion = null;
 			TypeFrom pair = null;
 			switch (filter.getType()) {
 			case MANY_TO_MANY:
-				// Not yet tested...
-
 				// Using a many-to-many filter. This query looks like this (without the extra criteria):
-				// from <domain-class> obj inner join obj.<field-name> as joinObj where <joined-criteria> and (<filters>)
+				// from <domain-class> obj where exists (
+				// select 1 from (correlated) obj inner join obj.<field-name> as joinObj where <joined-criteria> and (<filters>)
+				// )
 				// where:
 				// <joined-criteria> is a conjunction of ISNULL, NOTNULL, EQUAL or LIKE criteria on the joined object
 				// <filter> is a disjunction of LIKE criteria on different properties of the joined object, like:
 				// joinObj.<a-property> LIKE '%<value>%' or joinObj.<another-property> LIKE '%<value>%' ...
+				//
+				// Unlike a join in the main query, the semi-join returns each object once, no matter how many associated
+				// objects match, so pages and counts are not inflated by duplicates.
 
-				// Performs the join of the two elements.
-				SingularAttribute joinObjAttr = model.getSingularAttribute(filter.getFieldName());
-				Join joinRoot = root.join(joinObjAttr);
-				ManagedType joinObjModel = joinObjAttr.getDeclaringType();
+				// Performs the join of the two elements in a subquery correlated to the root of the query.
+				Subquery<Integer> existsSq = cq.subquery(Integer.class);
+				Root<T> correlatedRoot = existsSq.correlate(root);
+				Join joinRoot = correlatedRoot.join(filter.getFieldName());
+				Attribute joinObjAttr = model.getAttribute(filter.getFieldName());
+				ManagedType joinObjModel = (ManagedType) ((joinObjAttr instanceof PluralAttribute) ? ((PluralAttribute) joinObjAttr).getElementType() : ((SingularAttribute) joinObjAttr).getType());
+				List<Predicate> subPredicates = new ArrayList<Predicate>();
 
 				// Adds to the predicate list with the criteria to be applied to the joined entity (the conjunction).
 				List<Criterion> joinedCriteria = ((ManyToManyFilter) filter).getJoinedCriteria();
 				for (Criterion crit : joinedCriteria)
-					predicates.add(createPredicate(cb, joinRoot, joinObjModel, crit));
+					subPredicates.add(createParameterizedPredicate(cb, joinRoot, joinObjModel, crit.getFieldName(), crit.getType(), parameters));
+
+				// Builds a predicate list with the filters to be applied to the joined-object (the disjunction). The names of
+				// the fields have already been parsed by the filter.
+				List<Predicate> orPredicates = new ArrayList<Predicate>();
+				ParameterExpression<String> likeParam = addParameter(cb, String.class, parameters);
+				for (String subFieldName : ((ManyToManyFilter) filter).getSubFieldNameList())
+					orPredicates.add(cb.like(joinRoot.get(joinObjModel.getSingularAttribute(subFieldName, String.class)), likeParam));
+				subPredicates.add(cb.or(orPredicates.toArray(new Predicate[0])));
+
+				// Builds the query creating an EXISTS expression for the subquery and joining all criteria.
+				existsSq.select(cb.literal(1)).where(subPredicates.toArray(new Predicate[0]));
+				predicates.add(cb.exists(existsSq));
+				break;
+
+			case REVERSE_MULTIPLE_CHOICE:
+				// Using a reverse multiple-choice filter. This query looks like this (without the extra criteria):
+				// from <domain-class> obj where exists (
+				// select 1 from <sub-class> sub inner join sub.<sub-field-name> subDep where sub.id =
+				// <value-converted-as-id> and subDep.id = obj.<field-name>.id
+				// )
+				//
+				// The correlated semi-join lets the database stop at the first match, instead of materializing the ids
+				// selected by an IN subquery.
+
+				// Builds the subquery needed to perform a reverse multiple-choice filter.
+				Class clazz = filter.getOptions().iterator().next().getClass();
+				Subquery<Integer> sq = cq.subquery(Integer.class);
+				Root subDepRoot = sq.from(clazz);
+				Join subDepJoin = subDepRoot.join(filter.getSubFieldNames());
+				pair = findManagedType(root, model, filter.getFieldName() + ".id");
+				Predicate subDepIdPredicate = cb.equal(subDepRoot.get("id"), addParameter(cb, Long.class, parameters));
+				Predicate correlationPredicate = cb.equal(subDepJoin.get("id"), pair.from.get(pair.type.getSingularAttribute("id")));
+				sq.select(cb.literal(1)).where(subDepIdPredicate, correlationPredicate);
+
+				// Builds the query joining together the previous criteria with an EXISTS criterion.
+				predicates.add(cb.exists(sq));
+				break;
+
+			case ENUM_MULTIPLE_CHOICE:
+				// Using an enum multiple-choice filter. This query looks like this (without the extra criteria):
+				// from <domain-class> obj where obj.<field-name> = <enum-value>
+
+				// The instance of the enumeration given the enumeration name is obtained when binding the parameter.
+
+				// Not tested after changed to findManagedType().
+				//
+				// Add to the other criteria a EQUAL criterion between the related object's ID and the specified value.
+				// predicates.add(cb.equal(root.get(model.getSingularAttribute(filter.getFieldName())), enumValue));
+				// pair = findManagedType(root, model, filter.getFieldName());
+				// predicates.add(cb.equal(pair.from.get(pair.type.getSingularAttribute(filter.getFieldName())),
+				// enumValue));
+				predicates.add(createParameterizedPredicate(cb, root, model, filter.getFieldName(), CriterionType.EQUALS, parameters));
+
+				break;
+
+			case MULTIPLE_CHOICE:
+				// Not yet tested...
+
+				// Using a multiple-choice filter. This query looks like this (without the extra criteria):
+				// from <domain-class> obj where obj.<field-name>.id = <value-converted-as-id>
+
+				// Add to the other criteria a EQUAL criterion between the related object's ID and the specified value.
+				// relatedModel = model.getSingularAttribute(filter.getFieldName()).getDeclaringType();
+				// predicates.add(cb.equal(root.get(relatedModel.getSingularAttribute("id")), id));
+				// pair = findManagedType(root, model, filter.getFieldName() + ".id");
+				// predicates.add(cb.equal(pair.from.get(pair.type.getSingularAttribute("id")), id));
+				predicates.add(createParameterizedPredicate(cb, root, model, filter.getFieldName() + ".id", CriterionType.EQUALS, parameters));
+
+				break;
+
+			case LIKE:
+				// Using a simple filter. This query looks like this (without the extra criteria):
+				// from <domain-class> obj where obj.<field-name> LIKE '%<value>%'
+
+				// Add to the other criteria a LIKE criterion for the field name and the specified value, unless the filter
+				// declares another strategy (e.g., STARTS_WITH, which can use an index).
+				predicates.add(createParameterizedPredicate(cb, root, model, filter.getFieldName(), getMatchType(filter, CriterionType.LIKE), parameters));
+				break;
+
+			case BOOLEAN:
+				// Using a boolean filter. This query looks like this (without the extra criteria):
+				// from <domain-class> obj where obj.<field-name> is true/false.
+
+				// Add to the other criteria a is true/false criterion for the field name and the specified value.
+				predicates.add(createParameterizedPredicate(cb, root, model, filter.getFieldName(), CriterionType.BOOLEAN, parameters));
+				break;
+
+			default:
+				// Using a simple filter. This query looks like this (without the extra criteria):
+				// from <domain-class> obj where obj.<field-name> = <value>
+
+				// Add to the other criteria a = (equals) criterion for the field name and the specified value, unless the filter
+				// declares another strategy.
+				predicates.add(createParameterizedPredicate(cb, root, model, filter.getFieldName(), getMatchType(filter, CriterionType.EQUALS), parameters));
+			}
+		}
+		return predicates;
+	}
+
+	/**
+	 * Collects the values that must be bound to the parameters created by buildFilterPredicates(), in the same order. The
+	 * values of the filters are converted to what the predicates expect (e.g., an ID for multiple-choice filters or a
+	 * pattern for LIKE filters).
+	 * 
+	 * @param filters
+	 *          The filters that were translated into predicates.
+	 * @param values
+	 *          The values associated with the respective filters.
+	 * 
+	 * @return The list of values to be bound to the parameters of the query, in order.
+	 */
+	private List<Object> collectFilterArguments(Filter<?>[] filters, String[] values) {
+		List<Object> arguments = new ArrayList<Object>();
+		EntityType<T> model = (filters.length == 0) ? null : getEntityManager().getMetamodel().entity(getDomainClass());
+		for (int i = 0; i < filters.length; i++) {
+			Filter<?> filter = filters[i];
+			String value = values[i];
+			collectCriteriaArguments(arguments, filter.getCriteria(), model);
+
+			// Check which type of filter is being used.
+			switch (filter.getType()) {
+			case MANY_TO_MANY:
+				collectCriteriaArguments(arguments, ((ManyToManyFilter) filter).getJoinedCriteria(), null);
+				arguments.add("%" + value + "%");
+				break;
+
+			case REVERSE_MULTIPLE_CHOICE:
+			case MULTIPLE_CHOICE:
+				// Check if the ID was correctly supplied.
+				try {
+					arguments.add(Long.parseLong(value));
+				}
+				catch (NumberFormatException e) {
+					throw new IllegalArgumentException("When using " + (filter.getType() == FilterType.MULTIPLE_CHOICE ? "multiple-choice" : "reverse multiple-choice") + " filter, a number must be supplied (the related object's ID).", e);
+				}
+				break;
+
+			case ENUM_MULTIPLE_CHOICE:
+				// Obtains the instance of the enumeration given the enumeration name passed as parameter.
+				arguments.add(filter.getEnum(value));
+				break;
+
+			case LIKE:
+				addCriterionArguments(arguments, getMatchType(filter, CriterionType.LIKE), value, model, filter.getFieldName());
+				break;
+
+			case BOOLEAN:
+				arguments.add(Boolean.valueOf(value));
+				break;
+
+			default:
+				addCriterionArguments(arguments, getMatchType(filter, CriterionType.EQUALS), value, model, filter.getFieldName());
+			}
+		}
+		return arguments;
+	}
+
+	/**
+	 * Determines the type of criterion used to match the field of a simple or like filter with its value: the one
+	 * declared by the filter, if any, or the default of the filter type.
+	 * 
+	 * @param filter
+	 *          The filter.
+	 * @param defaultType
+	 *          The type of criterion used by default for the type of the filter.
+	 * 
+	 * @return The type of criterion used to match the field.
+	 */
+	private static CriterionType getMatchType(Filter<?> filter, CriterionType defaultType) {
+		CriterionType matchType = filter.getMatchType();
+		return (matchType == null) ? defaultType : matchType;
+	}
+
+	/**
+	 * Collects the values of a list of criteria that must be bound to the parameters created for them by
+	 * createParameterizedPredicate(), in the same order.
+	 * 
+	 * @param arguments
+	 *          The list to which the values should be added.
+	 * @param criteria
+	 *          The criteria whose values should be collected.
+	 * @param model
+	 *          The model of the entity to which the criteria apply, used to convert the values of IN criteria, or
+	 *          <code>null</code> if the values shouldn't be converted.
+	 */
+	@SuppressWarnings("rawtypes")
+	private void collectCriteriaArguments(List<Object> arguments, List<Criterion> criteria, ManagedType model) {
+		for (Criterion criterion : criteria)
+			addCriterionArguments(arguments, criterion.getType(), criterion.getParam(), model, criterion.getFieldName());
+	}
+
+	/**
+	 * Adds the values that must be bound to the parameters created for a criterion by createParameterizedPredicate(), in
+	 * the same order, converting them to what the predicate expects (e.g., a pattern for LIKE criteria).
+	 * 
+	 * @param arguments
+	 *          The list to which the values should be added.
+	 * @param type
+	 *          The type of criterion.
+	 * @param value
+	 *          The value of the criterion.
+	 * @param model
+	 *          The model of the entity to which the criterion applies, used to convert the values of IN criteria, or
+	 *          <code>null</code> if the values shouldn't be converted.
+	 * @param fieldName
+	 *          The name of the field to which the criterion applies.
+	 */
+	@SuppressWarnings("rawtypes")
+	private void addCriterionArguments(List<Object> arguments, CriterionType type, Object value, ManagedType model, String fieldName) {
+		switch (type) {
+		case EQUALS:
+		case GREATER_THAN:
+		case LESS_THAN:
+			arguments.add(value);
+			break;
+
+		case BOOLEAN:
+			arguments.add(Boolean.valueOf(value.toString()));
+			break;
+
+		case LIKE:
+			arguments.add("%" + value.toString().toLowerCase() + "%");
+			break;
 
-				// Builds a predicate list with the filters to be applied to the joined-object (the disjunction).
-				List<Predicate> orPredicates = new ArrayList<Predicate>();
-				Scanner scanner = new Scanner(filter.getSubFieldNames());
-				scanner.useDelimiter("\\s*,\\s*");
-				while (scanner.hasNext())
-					orPredicates.add(cb.like(joinRoot.get(joinObjModel.getSingularAttribute(scanner.next(), String.class)), "%" + value + "%"));
+		case STARTS_WITH:
+			arguments.add(escapeLikePattern(value.toString()) + "%");
+			break;
 
-				// Builds the query creating an OR expression for the disjunction and joining all criteria.
-				Predicate disjunction = cb.or(orPredicates.toArray(new Predicate[0]));
-				predicates.add(disjunction);
-				cq.where(predicates.toArray(new Predicate[0]));
+		case EQUALS_IGNORE_CASE:
+			arguments.add(value.toString().toLowerCase());
+			break;
 
-				break;
+		case IN:
+			// The whole collection is bound to a single parameter, so its elements are converted to the type of the field.
+			Class<?> elementType = (model == null) ? null : toWrapperType(getAttributeChain(model, fieldName).attribute.getJavaType());
+			List<Object> elements = new ArrayList<Object>();
+			for (Object element : splitValues(value))
+				elements.add((elementType == null) ? element : convertArgument(element, elementType));
+			arguments.add(elements);
+			break;
 
-			case REVERSE_MULTIPLE_CHOICE:
-				// Using a reverse multiple-choice filter. This query looks like this (without the extra criteria):
-				// from <domain-class> obj where obj.<field-name> in (
-				// select subDep.id from <sub-class> sub inner join sub.<sub-field-name> subDep where sub.id =
-				// <value-converted-as-id>
-				// )
+		case BETWEEN:
+			List<Object> bounds = splitValues(value);
+			if (bounds.size() != 2) throw new IllegalArgumentException("A BETWEEN criterion requires two values, but " + bounds.size() + " were given: " + value);
+			arguments.addAll(bounds);
+			break;
 
-				// Check if the ID was correctly supplied.
-				try {
-					id = Long.parseLong(value);
-				}
-				catch (NumberFormatException e) {
-					throw new IllegalArgumentException("When using reverse multiple-choice filter, a number must be supplied (the related object's ID).", e);
-				}
+		default:
+			// Other types of criteria have no values.
+		}
+	}
 
-				// Builds the subquery needed to perform a reverse multiple-choice filter.
-				Class clazz = filter.getOptions().iterator().next().getClass();
-				Subquery<Long> sq = cq.subquery(Long.class);
-				Root subDepRoot = sq.from(clazz);
-				Attribute subDepAttr = subDepRoot.getModel().getAttribute(filter.getSubFieldNames());
-				ManagedType subDepModel = subDepAttr.getDeclaringType();
-				Join subDepJoin = null;
-				switch (((PluralAttribute) subDepAttr).getCollectionType()) {
-				case COLLECTION:
-					subDepJoin = sq.correlate(subDepRoot.join((CollectionAttribute) subDepAttr));
-					break;
-				case LIST:
-					subDepJoin = sq.correlate(subDepRoot.join((ListAttribute) subDepAttr));
-					break;
-				case MAP:
-					subDepJoin = sq.correlate(subDepRoot.join((MapAttribute) subDepAttr));
-					break;
-				case SET:
-					subDepJoin = sq.correlate(subDepRoot.join((SetAttribute) subDepAttr));
-					break;
-				}
-				sq.where(cb.equal(subDepRoot.get(subDepRoot.getModel().getSingularAttribute("id")), id));
-				sq.select(subDepJoin.get(subDepModel.getSingularAttribute("id")));
+	/**
+	 * Splits the value of a criterion that has many values (e.g., IN or BETWEEN), which can be given as a collection, an
+	 * array or a string with the values separated by commas.
+	 * 
+	 * @param value
+	 *          The value of the criterion.
+	 * 
+	 * @return The list of values.
+	 */
+	private static List<Object> splitValues(Object value) {
+		if (value instanceof Collection) return new ArrayList<Object>((Collection<?>) value);
+		if (value instanceof Object[]) return new ArrayList<Object>(Arrays.asList((Object[]) value));
+		List<Object> values = new ArrayList<Object>();
+		for (String element : value.toString().split(","))
+			if (element.trim().length() > 0) values.add(element.trim());
+		return values;
+	}
 
-				// Builds the query joining together the previous criteria with an IN criterion.
-				pair = findManagedType(root, model, filter.getFieldName() + ".id");
-				predicates.add(cb.in(pair.from.get(pair.type.getSingularAttribute("id"))).value(sq));
-				cq.where(predicates.toArray(new Predicate[0]));
-				break;
+	/**
+	 * Escapes the characters of a value that have special meanings in LIKE patterns, so the value is matched literally.
+	 * Patterns built with this method must be used with LIKE_ESCAPE_CHAR as the escape character.
+	 * 
+	 * @param value
+	 *          The value to be escaped.
+	 * 
+	 * @return The escaped value.
+	 */
+	private static String escapeLikePattern(String value) {
+		StringBuilder pattern = new StringBuilder(value.length() + 8);
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if ((c == LIKE_ESCAPE_CHAR) || (c == '%') || (c == '_')) pattern.append(LIKE_ESCAPE_CHAR);
+			pattern.append(c);
+		}
+		return pattern.toString();
+	}
 
-			case ENUM_MULTIPLE_CHOICE:
-				// Using an enum multiple-choice filter. This query looks like this (without the extra criteria):
-				// from <domain-class> obj where obj.<field-name> = <enum-value>
+	/**
+	 * Binds the values of the filters to the parameters of a query built by buildFilterPredicates().
+	 * 
+	 * @param q
+	 *          The query whose parameters should be bound.
+	 * @param parameters
+	 *          The parameters created when the query was built, in order.
+	 * @param filters
+	 *          The filters that were translated into the query.
+	 * @param values
+	 *          The values associated with the respective filters.
+	 */
+	private void bindFilterParameters(Query q, List<ParameterExpression<?>> parameters, Filter<?>[] filters, String[] values) {
+		List<Object> arguments = collectFilterArguments(filters, values);
+		if (arguments.size() != parameters.size()) throw new IllegalStateException("Filter query for class \"" + getDomainClass().getName() + "\" has " + parameters.size() + " parameter(s), but " + arguments.size() + " value(s) were collected.");
+		for (int i = 0; i < parameters.size(); i++) {
+			ParameterExpression<?> parameter = parameters.get(i);
+			q.setParameter(parameter.getName(), convertArgument(arguments.get(i), parameter.getParameterType()));
+		}
+	}
 
-				// Obtains the instance of the enumeration to pass as argument given the enumeration name passed as
-				// parameter.
-				Enum<?> enumValue = filter.getEnum(value);
+	/**
+	 * Converts the value of a filter, which is usually a string, to the type of the parameter to which it will be bound.
+	 * Values that are already of the right type (or cannot be converted) are returned as they are.
+	 * 
+	 * @param argument
+	 *          The value to be converted.
+	 * @param type
+	 *          The type of the parameter.
+	 * 
+	 * @return The converted value.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private Object convertArgument(Object argument, Class<?> type) {
+		// Only strings are converted.
+		if ((argument == null) || (type.isInstance(argument)) || (!(argument instanceof String))) return argument;
+		String value = (String) argument;
 
-				// Not tested after changed to findManagedType().
-				//
-				// Add to the other criteria a EQUAL criterion between the related object's ID and the specified value.
-				// predicates.add(cb.equal(root.get(model.getSingularAttribute(filter.getFieldName())), enumValue));
-				// pair = findManagedType(root, model, filter.getFieldName());
-				// predicates.add(cb.equal(pair.from.get(pair.type.getSingularAttribute(filter.getFieldName())),
-				// enumValue));
-				criterion = new Criterion(filter.getFieldName(), CriterionType.EQUALS, enumValue);
-				predicates.add(createPredicate(cb, root, model, criterion));
-				cq.where(predicates.toArray(new Predicate[0]));
+		try {
+			if (type == Long.class) return Long.valueOf(value);
+			if (type == Integer.class) return Integer.valueOf(value);
+			if (type == Short.class) return Short.valueOf(value);
+			if (type == Byte.class) return Byte.valueOf(value);
+			if (type == Double.class) return Double.valueOf(value);
+			if (type == Float.class) return Float.valueOf(value);
+			if (type == BigDecimal.class) return new BigDecimal(value);
+			if (type == BigInteger.class) return new BigInteger(value);
+			if (type == Boolean.class) return Boolean.valueOf(value);
+			if (type == UUID.class) return UUID.fromString(value);
+			if (type.isEnum()) return Enum.valueOf((Class) type, value);
+		}
+		catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Filter value \"" + value + "\" cannot be converted to " + type.getName(), e);
+		}
+		return argument;
+	}
 
-				break;
+	/**
+	 * Creates a parameter in a criteria query, named after its position in the list of parameters of the query.
+	 * 
+	 * @param cb
+	 *          The criteria builder.
+	 * @param type
+	 *          The type of the parameter.
+	 * @param parameters
+	 *          The list to which the parameter is added.
+	 * 
+	 * @return The new parameter.
+	 */
+	private <P> ParameterExpression<P> addParameter(CriteriaBuilder cb, Class<P> type, List<ParameterExpression<?>> parameters) {
+		ParameterExpression<P> parameter = cb.parameter(type, "p" + parameters.size());
+		parameters.add(parameter);
+		return parameter;
+	}
 
-			case MULTIPLE_CHOICE:
-				// Not yet tested...
+	/**
+	 * Constructs a predicate depending on the type of criterion, like createPredicate(), but using a parameter instead of
+	 * the criterion's value. The values of the parameters are bound later by bindFilterParameters().
+	 * 
+	 * @param cb
+	 *          The criteria builder.
+	 * @param path
+	 *          The path object (root, join, etc.).
+	 * @param model
+	 *          The model object (managed type, entity type, etc.).
+	 * @param fieldName
+	 *          The name of the field to which the criterion applies.
+	 * @param type
+	 *          The type of criterion.
+	 * @param parameters
+	 *          The list to which the parameter created for the criterion's value (if any) is added.
+	 * 
+	 * @return The predicate object that can be used to compose a CriteriaQuery.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private Predicate createParameterizedPredicate(CriteriaBuilder cb, From path, ManagedType model, String fieldName, CriterionType type, List<ParameterExpression<?>> parameters) {
+		// Remove @SupressWarnings and add the correct generic types to all operations.
 
-				// Using a multiple-choice filter. This query looks like this (without the extra criteria):
-				// from <domain-class> obj where obj.<field-name>.id = <value-converted-as-id>
+		// Obtains the final path. This is done in case navigation is required.
+		Path finalPath = findPath(path, model, fieldName);
 
-				// Check if the ID was correctly supplied.
-				try {
-					id = Long.parseLong(value);
-				}
-				catch (NumberFormatException e) {
-					throw new IllegalArgumentException("When using multiple-choice filter, a number must be supplied (the related object's ID).", e);
-				}
+		// Check the criterion type.
+		switch (type) {
+		case IS_NULL:
+			return cb.isNull(finalPath);
 
-				// Add to the other criteria a EQUAL criterion between the related object's ID and the specified value.
-				// relatedModel = model.getSingularAttribute(filter.getFieldName()).getDeclaringType();
-				// predicates.add(cb.equal(root.get(relatedModel.getSingularAttribute("id")), id));
-				// pair = findManagedType(root, model, filter.getFieldName() + ".id");
-				// predicates.add(cb.equal(pair.from.get(pair.type.getSingularAttribute("id")), id));
-				criterion = new Criterion(filter.getFieldName() + ".id", CriterionType.EQUALS, id);
-				predicates.add(createPredicate(cb, root, model, criterion));
-				cq.where(predicates.toArray(new Predicate[0]));
+		case IS_NOT_NULL:
+			return cb.isNotNull(finalPath);
 
-				break;
+		case EQUALS:
+			return cb.equal(finalPath, addParameter(cb, toWrapperType(finalPath.getJavaType()), parameters));
 
-			case LIKE:
-				// Using a simple filter. This query looks like this (without the extra criteria):
-				// from <domain-class> obj where obj.<field-name> LIKE '%<value>%'
+		case BOOLEAN:
+			return cb.equal(finalPath, addParameter(cb, Boolean.class, parameters));
 
-				// Add to the other criteria a LIKE criterion for the field name and the specified value.
-				criterion = new Criterion(filter.getFieldName(), CriterionType.LIKE, value);
-				predicates.add(createPredicate(cb, root, model, criterion));
-				cq.where(predicates.toArray(new Predicate[0]));
-				break;
+		case LIKE:
+			return cb.like(cb.lower(finalPath), addParameter(cb, String.class, parameters));
 
-			case BOOLEAN:
-				// Using a boolean filter. This query looks like this (without the extra criteria):
-				// from <domain-class> obj where obj.<field-name> is true/false.
+		case STARTS_WITH:
+			return cb.like(finalPath, addParameter(cb, String.class, parameters), LIKE_ESCAPE_CHAR);
 
-				// Add to the other criteria a is true/false criterion for the field name and the specified value.
-				criterion = new Criterion(filter.getFieldName(), CriterionType.BOOLEAN, value);
-				predicates.add(createPredicate(cb, root, model, criterion));
-				cq.where(predicates.toArray(new Predicate[0]));
-				break;
+		case EQUALS_IGNORE_CASE:
+			return cb.equal(cb.lower(finalPath), addParameter(cb, String.class, parameters));
 
-			default:
-				// Using a simple filter. This query looks like this (without the extra criteria):
-				// from <domain-class> obj where obj.<field-name> = <value>
+		case IN:
+			return finalPath.in(addParameter(cb, Collection.class, parameters));
 
-				// Add to the other criteria a = (equals) criterion for the field name and the specified value.
-				criterion = new Criterion(filter.getFieldName(), CriterionType.EQUALS, value);
-				predicates.add(createPredicate(cb, root, model, criterion));
-				cq.where(predicates.toArray(new Predicate[0]));
-			}
+		case BETWEEN:
+			Class boundType = toWrapperType(finalPath.getJavaType());
+			return cb.between(finalPath, (Expression) addParameter(cb, boundType, parameters), (Expression) addParameter(cb, boundType, parameters));
+
+		case GREATER_THAN:
+			return cb.greaterThan(finalPath, (Expression) addParameter(cb, toWrapperType(finalPath.getJavaType()), parameters));
+
+		case LESS_THAN:
+			return cb.lessThan(finalPath, (Expression) addParameter(cb, toWrapperType(finalPath.getJavaType()), parameters));
 		}
+
+		// Thrown an exception in the case of an unknown criterion type.
+		throw new IllegalArgumentException("Unknown criterion type: " + type);
+	}
+
+	/**
+	 * Returns the wrapper class of a primitive type, as parameters of queries cannot be of primitive types.
+	 * 
+	 * @param type
+	 *          The type, which may be primitive.
+	 * 
+	 * @return The wrapper class, if the type is primitive, or the type itself otherwise.
+	 */
+	private Class<?> toWrapperType(Class<?> type) {
+		if (!type.isPrimitive()) return type;
+		if (type == long.class) return Long.class;
+		if (type == int.class) return Integer.class;
+		if (type == short.class) return Short.class;
+		if (type == byte.class) return Byte.class;
+		if (type == double.class) return Double.class;
+		if (type == float.class) return Float.class;
+		if (type == boolean.class) return Boolean.class;
+		if (type == char.class) return Character.class;
+		return type;
 	}
 
 	/**
@@ -660,6 +3650,26 @@ public abstract class BaseJPADAO<T extends PersistentObject> implements BaseDAO<
 
 		case LIKE:
 			return cb.like(cb.lower(finalPath), "%" + criterion.getParam().toString().toLowerCase() + "%");
+
+		case STARTS_WITH:
+			return cb.like(finalPath, escapeLikePattern(criterion.getParam().toString()) + "%", LIKE_ESCAPE_CHAR);
+
+		case EQUALS_IGNORE_CASE:
+			return cb.equal(cb.lower(finalPath), criterion.getParam().toString().toLowerCase());
+
+		case IN:
+			return finalPath.in(splitValues(criterion.getParam()));
+
+		case BETWEEN:
+			List<Object> bounds = splitValues(criterion.getParam());
+			if (bounds.size() != 2) throw new IllegalArgumentException("A BETWEEN criterion requires two values, but " + bounds.size() + " were given: " + criterion.getParam());
+			return cb.between(finalPath, (Comparable) bounds.get(0), (Comparable) bounds.get(1));
+
+		case GREATER_THAN:
+			return cb.greaterThan(finalPath, (Comparable) criterion.getParam());
+
+		case LESS_THAN:
+			return cb.lessThan(finalPath, (Comparable) criterion.getParam());
 		}
 
 		// Thrown an exception in the case of an unknown criterion type.
@@ -688,12 +3698,8 @@ public abstract class BaseJPADAO<T extends PersistentObject> implements BaseDAO<
 		// Finds the From and the ManagedType from the entity right before the last field.
 		TypeFrom pair = findManagedType(root, model, fieldName);
 
-		// Separates the name of the last field in the string.
-		int idx = fieldName.lastIndexOf('.');
-		fieldName = fieldName.substring(idx + 1);
-
-		// Returns the path to the field.
-		return pair.from.get(pair.type.getSingularAttribute(fieldName));
+		// Returns the path to the last field, which has been resolved together with the navigation.
+		return pair.from.get(pair.attribute);
 
 		/*
 		 * Path finalPath = null; // Navigate through the entities using the dots. Joins have to be performed in case of
@@ -730,27 +3736,77 @@ public abstract class BaseJPADAO<T extends PersistentObject> implements BaseDAO<
 
 		TypeFrom pair = new TypeFrom();
 
-		// Navigate through the entities using the dots. Joins have to be performed in case of navigation.
-		pair.type = model;
+		// Obtains the attributes navigated by the field name, which are resolved only once per managed type.
+		AttributeChain chain = getAttributeChain(model, fieldName);
+		pair.type = chain.type;
+		pair.attribute = chain.attribute;
+
+		// Navigate through the entities. Joins have to be performed in case of navigation, but joins that have already
+		// been performed in the query (e.g., by another criterion over the same entity) are reused.
 		pair.from = root;
-		int idx = fieldName.indexOf('.');
-		while (idx != -1) {
-			String firstField = fieldName.substring(0, idx);
-			SingularAttribute attr = pair.type.getSingularAttribute(firstField);
+		for (SingularAttribute attr : chain.navigation)
+			pair.from = findJoin(pair.from, attr);
+
+		// Returns the final path once there was no more navigation required.
+		return pair;
+	}
 
-			// Element must be an entity in order to be navigable.
-			Type type = attr.getType();
-			if (type.getPersistenceType() != Type.PersistenceType.ENTITY) throw new IllegalStateException("Cannot navigate the field \"" + firstField + "\" because it doesn't represent an entity.");
+	/**
+	 * Resolves the attributes navigated by a JPQL-formatted field name, starting from the given managed type. Chains are
+	 * cached per managed type, so the field name is split and its attributes are looked up in the metamodel only once.
+	 * 
+	 * @param model
+	 *          The managed type from which the navigation starts.
+	 * @param fieldName
+	 *          The JPQL-formatted name of the field, something like: product.promotion.endDate.
+	 * 
+	 * @return The chain of attributes that leads to the field.
+	 */
+	@SuppressWarnings("rawtypes")
+	private static AttributeChain getAttributeChain(ManagedType model, String fieldName) {
+		ConcurrentMap<String, AttributeChain> chains = attributeChains.get(model);
+		if (chains == null) {
+			attributeChains.putIfAbsent(model, new ConcurrentHashMap<String, AttributeChain>());
+			chains = attributeChains.get(model);
+		}
 
-			// Sets the entity type, the join and removes the first entity from the field name for the next iteration.
-			pair.from = pair.from.join(attr);
-			pair.type = (EntityType) type;
-			fieldName = fieldName.substring(idx + 1);
-			idx = fieldName.indexOf('.');
+		// Navigate through the entities using the dots, which must all represent entities.
+		AttributeChain chain = chains.get(fieldName);
+		if (chain == null) {
+			String[] names = fieldName.split("\\.");
+			SingularAttribute[] navigation = new SingularAttribute[names.length - 1];
+			ManagedType type = model;
+			for (int i = 0; i < navigation.length; i++) {
+				navigation[i] = type.getSingularAttribute(names[i]);
+				Type attrType = navigation[i].getType();
+				if (attrType.getPersistenceType() != Type.PersistenceType.ENTITY) throw new IllegalStateException("Cannot navigate the field \"" + names[i] + "\" because it doesn't represent an entity.");
+				type = (EntityType) attrType;
+			}
+			chain = new AttributeChain(navigation, type, type.getSingularAttribute(names[names.length - 1]));
+			chains.putIfAbsent(fieldName, chain);
 		}
+		return chain;
+	}
 
-		// Returns the final path once there was no more navigation required.
-		return pair;
+	/**
+	 * Finds an inner join of the given attribute that has already been performed from the given From object, performing
+	 * it if there is none. Since the attribute is singular, reusing the join doesn't change the result of the query, but
+	 * avoids repeating the same join in the generated SQL.
+	 * 
+	 * @param from
+	 *          The From object from which the join is performed.
+	 * @param attribute
+	 *          The attribute to join.
+	 * 
+	 * @return The join of the attribute.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static From findJoin(From from, SingularAttribute attribute) {
+		for (Object object : from.getJoins()) {
+			Join join = (Join) object;
+			if ((join.getJoinType() == JoinType.INNER) && attribute.equals(join.getAttribute())) return join;
+		}
+		return from.join(attribute);
 	}
 
 	/**
@@ -770,5 +3826,316 @@ public abstract class BaseJPADAO<T extends PersistentObject> implements BaseDAO<
 		/** The bound type that serves as factory for joins. */
 		@SuppressWarnings("rawtypes")
 		From from;
+
+		/** The last attribute of the field name, which belongs to the managed type. */
+		@SuppressWarnings("rawtypes")
+		SingularAttribute attribute;
+	}
+
+	/**
+	 * Internal class that aggregates the attributes navigated by a JPQL-formatted field name (see getAttributeChain()),
+	 * the managed type in which the navigation ends and the last attribute of the field name. Instances are cached and
+	 * shared, so they must not be changed.
+	 * 
+	 * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+	 * @version 1.2
+	 */
+	@SuppressWarnings("rawtypes")
+	private static class AttributeChain {
+		/** The entity attributes navigated before the last attribute. */
+		final SingularAttribute[] navigation;
+
+		/** The managed type in which the navigation ends. */
+		final ManagedType type;
+
+		/** The last attribute of the field name. */
+		final SingularAttribute attribute;
+
+		/**
+		 * Constructor using fields.
+		 * 
+		 * @param navigation
+		 *          The entity attributes navigated before the last attribute.
+		 * @param type
+		 *          The managed type in which the navigation ends.
+		 * @param attribute
+		 *          The last attribute of the field name.
+		 */
+		AttributeChain(SingularAttribute[] navigation, ManagedType type, SingularAttribute attribute) {
+			this.navigation = navigation;
+			this.type = type;
+			this.attribute = attribute;
+		}
+	}
+
+	/**
+	 * Internal class that aggregates a criteria query built from filters and the parameters created for the values of the
+	 * filters, in the order in which they should be bound. Instances are cached and shared, so they must not be changed.
+	 * 
+	 * @param <Q>
+	 *          The type of the result of the query.
+	 * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+	 * @version 1.2
+	 */
+	private static class CompiledQuery<Q> {
+		/** The criteria query. */
+		final CriteriaQuery<Q> query;
+
+		/** The parameters of the query. */
+		final List<ParameterExpression<?>> parameters;
+
+		/**
+		 * Constructor using fields.
+		 * 
+		 * @param query
+		 *          The criteria query.
+		 * @param parameters
+		 *          The parameters of the query.
+		 */
+		CompiledQuery(CriteriaQuery<Q> query, List<ParameterExpression<?>> parameters) {
+			this.query = query;
+			this.parameters = Collections.unmodifiableList(parameters);
+		}
+	}
+
+	/**
+	 * Internal class that keeps a serialized copy of a persistent object in the cache of persistent objects, together with
+	 * the version the object had when it was copied. Each retrieval deserializes a new copy, so objects obtained from the
+	 * cache are never shared.
+	 * 
+	 * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+	 * @version 1.2
+	 */
+	private static class EntitySnapshot {
+		/** The version of the object when it was copied. */
+		final Object version;
+
+		/** The serialized object. */
+		final byte[] state;
+
+		/**
+		 * Constructor using fields.
+		 * 
+		 * @param version
+		 *          The version of the object when it was copied.
+		 * @param state
+		 *          The serialized object.
+		 */
+		EntitySnapshot(Object version, byte[] state) {
+			this.version = version;
+			this.state = state;
+		}
+
+		/**
+		 * Serializes a persistent object into a snapshot.
+		 * 
+		 * @param object
+		 *          The persistent object.
+		 * 
+		 * @return The snapshot or <code>null</code>, if the object could not be serialized.
+		 */
+		static EntitySnapshot of(PersistentObject object) {
+			try {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+					out.writeObject(object);
+				}
+				return new EntitySnapshot(object.getVersion(), bytes.toByteArray());
+			}
+			catch (IOException e) {
+				logger.log(Level.WARNING, "Object of class " + object.getClass().getName() + " could not be serialized and will not be cached.", e);
+				return null;
+			}
+		}
+
+		/**
+		 * Deserializes a new copy of the persistent object.
+		 * 
+		 * @param classLoader
+		 *          The class loader of the domain class, used to find the classes of the object.
+		 * 
+		 * @return A copy of the persistent object or <code>null</code>, if it could not be deserialized.
+		 */
+		Object restore(final ClassLoader classLoader) {
+			try (ObjectInputStream in = new ClassLoaderObjectInputStream(new ByteArrayInputStream(state), classLoader)) {
+				return in.readObject();
+			}
+			catch (IOException | ClassNotFoundException e) {
+				logger.log(Level.WARNING, "Cached object could not be deserialized and will be retrieved again.", e);
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Internal class that keeps the changes made to the full-text indexes of a domain class by a transaction, applying
+	 * them only when (and if) it commits, so objects of rolled back transactions never reach the indexes. Changes made
+	 * outside transactions are applied as soon as they're made.
+	 * 
+	 * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+	 * @version 1.2
+	 */
+	private static class FullTextIndexChanges implements Synchronization {
+		/** The full-text indexes of the domain class, indexed by field name. */
+		private final ConcurrentMap<String, TrigramIndex> indexes;
+
+		/** Indicates if the changes wait for the transaction to commit. */
+		private final boolean deferred;
+
+		/** The values of the indexed fields of each changed object (<code>null</code> if deleted), in order of change. */
+		private final Map<Long, Map<String, String>> changes = new LinkedHashMap<Long, Map<String, String>>();
+
+		/** Indicates if the indexes should be cleared (and built again), e.g., after bulk operations. */
+		private boolean cleared;
+
+		/**
+		 * Constructor using fields.
+		 * 
+		 * @param indexes
+		 *          The full-text indexes of the domain class, indexed by field name.
+		 * @param deferred
+		 *          Indicates if the changes wait for the transaction to commit.
+		 */
+		FullTextIndexChanges(ConcurrentMap<String, TrigramIndex> indexes, boolean deferred) {
+			this.indexes = indexes;
+			this.deferred = deferred;
+		}
+
+		/**
+		 * Records the values of the indexed fields of an object that has been saved.
+		 * 
+		 * @param id
+		 *          The id of the object.
+		 * @param fieldValues
+		 *          The values of the indexed fields, indexed by field name.
+		 */
+		void put(Long id, Map<String, String> fieldValues) {
+			changes.put(id, fieldValues);
+			if (!deferred) apply();
+		}
+
+		/**
+		 * Records that an object has been deleted.
+		 * 
+		 * @param id
+		 *          The id of the object.
+		 */
+		void remove(Long id) {
+			changes.put(id, null);
+			if (!deferred) apply();
+		}
+
+		/** Records that the indexes should be cleared, which makes the changes recorded so far unnecessary. */
+		void clear() {
+			cleared = true;
+			changes.clear();
+			if (!deferred) apply();
+		}
+
+		/**
+		 * Informs if there are changes to be applied to the indexes.
+		 * 
+		 * @return <code>true</code> if no changes have been recorded, <code>false</code> otherwise.
+		 */
+		boolean isEmpty() {
+			return (!cleared) && changes.isEmpty();
+		}
+
+		/** Applies the recorded changes to the indexes. */
+		private void apply() {
+			if (cleared) for (TrigramIndex index : indexes.values())
+				index.clear();
+			else for (Map.Entry<Long, Map<String, String>> change : changes.entrySet()) {
+				long id = change.getKey();
+				if (change.getValue() == null) for (TrigramIndex index : indexes.values())
+					index.remove(id);
+				else for (Map.Entry<String, String> fieldValue : change.getValue().entrySet()) {
+					TrigramIndex index = indexes.get(fieldValue.getKey());
+					if (index != null) index.put(id, fieldValue.getValue());
+				}
+			}
+			changes.clear();
+			cleared = false;
+		}
+
+		/** @see javax.transaction.Synchronization#beforeCompletion() */
+		@Override
+		public void beforeCompletion() {}
+
+		/** @see javax.transaction.Synchronization#afterCompletion(int) */
+		@Override
+		public void afterCompletion(int status) {
+			if (status == Status.STATUS_COMMITTED) apply();
+		}
+	}
+
+	/**
+	 * Internal class that increments the counter of modifications of a domain class when a transaction that modified its
+	 * objects completes, making obsolete the query results cached while the transaction was running.
+	 * 
+	 * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+	 * @version 1.2
+	 */
+	private static class ModificationCounterBump implements Synchronization {
+		/** The modification counter of the domain class. */
+		private final AtomicLong counter;
+
+		/**
+		 * Constructor using fields.
+		 * 
+		 * @param counter
+		 *          The modification counter of the domain class.
+		 */
+		ModificationCounterBump(AtomicLong counter) {
+			this.counter = counter;
+		}
+
+		/** @see javax.transaction.Synchronization#beforeCompletion() */
+		@Override
+		public void beforeCompletion() {}
+
+		/** @see javax.transaction.Synchronization#afterCompletion(int) */
+		@Override
+		public void afterCompletion(int status) {
+			counter.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Internal class that deserializes objects using a given class loader, as the one chosen by ObjectInputStream may not
+	 * see the domain classes of the application in a Java EE container.
+	 * 
+	 * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+	 * @version 1.2
+	 */
+	private static class ClassLoaderObjectInputStream extends ObjectInputStream {
+		/** The class loader used to find the classes of the objects. */
+		private final ClassLoader classLoader;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param in
+		 *          The stream with the serialized objects.
+		 * @param classLoader
+		 *          The class loader used to find the classes of the objects.
+		 * @throws IOException
+		 *           If the header of the stream cannot be read.
+		 */
+		ClassLoaderObjectInputStream(InputStream in, ClassLoader classLoader) throws IOException {
+			super(in);
+			this.classLoader = classLoader;
+		}
+
+		/** @see java.io.ObjectInputStream#resolveClass(java.io.ObjectStreamClass) */
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			try {
+				return Class.forName(desc.getName(), false, classLoader);
+			}
+			catch (ClassNotFoundException e) {
+				return super.resolveClass(desc);
+			}
+		}
 	}
 }
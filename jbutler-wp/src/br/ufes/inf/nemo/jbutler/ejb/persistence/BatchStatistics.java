@@ -0,0 +1,100 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Statistics of a batch operation (e.g., saving or deleting many objects at once), which DAOs perform in chunks: after
+ * each chunk of objects is processed, the persistence context is flushed and cleared. For each chunk, the number of
+ * objects affected and the time spent (including the flush) are recorded.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#saveAll(java.util.Collection)
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+public class BatchStatistics implements Serializable {
+	/** Serialization id. */
+	private static final long serialVersionUID = 1L;
+
+	/** The number of objects affected in each chunk. */
+	private List<Integer> chunkSizes = new ArrayList<Integer>();
+
+	/** The time spent in each chunk, in milliseconds. */
+	private List<Long> chunkTimes = new ArrayList<Long>();
+
+	/** The total number of objects affected. */
+	private int total;
+
+	/** The total time spent, in milliseconds. */
+	private long elapsedTime;
+
+	/**
+	 * Records the statistics of a chunk that has been processed.
+	 * 
+	 * @param size
+	 *          The number of objects affected in the chunk.
+	 * @param time
+	 *          The time spent in the chunk, in milliseconds.
+	 */
+	public void addChunk(int size, long time) {
+		chunkSizes.add(size);
+		chunkTimes.add(time);
+		total += size;
+		elapsedTime += time;
+	}
+
+	/**
+	 * Returns the number of chunks in which the operation was performed.
+	 * 
+	 * @return The number of chunks.
+	 */
+	public int getChunkCount() {
+		return chunkSizes.size();
+	}
+
+	/**
+	 * Getter for chunkSizes.
+	 * 
+	 * @return The number of objects affected in each chunk.
+	 */
+	public List<Integer> getChunkSizes() {
+		return Collections.unmodifiableList(chunkSizes);
+	}
+
+	/**
+	 * Getter for chunkTimes.
+	 * 
+	 * @return The time spent in each chunk, in milliseconds.
+	 */
+	public List<Long> getChunkTimes() {
+		return Collections.unmodifiableList(chunkTimes);
+	}
+
+	/**
+	 * Getter for total.
+	 * 
+	 * @return The total number of objects affected.
+	 */
+	public int getTotal() {
+		return total;
+	}
+
+	/**
+	 * Getter for elapsedTime.
+	 * 
+	 * @return The total time spent, in milliseconds.
+	 */
+	public long getElapsedTime() {
+		return elapsedTime;
+	}
+
+	/** @see java.lang.Object#toString() */
+	@Override
+	public String toString() {
+		return "BatchStatistics (total: " + total + "; chunks: " + chunkSizes.size() + "; elapsed time: " + elapsedTime + "ms)";
+	}
+}
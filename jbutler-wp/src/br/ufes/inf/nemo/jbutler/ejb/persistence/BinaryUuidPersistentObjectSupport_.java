@@ -0,0 +1,19 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence;
+
+import javax.persistence.metamodel.SingularAttribute;
+import javax.persistence.metamodel.StaticMetamodel;
+
+import br.ufes.inf.nemo.jbutler.ejb.domain.BinaryUuidDomainObjectSupport_;
+
+/**
+ * Meta-model for the BinaryUuidPersistentObjectSupport domain class, which allows DAOs to perform programmatic queries
+ * using JPA2's Criteria API.
+ * 
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BinaryUuidPersistentObjectSupport
+ */
+@StaticMetamodel(BinaryUuidPersistentObjectSupport.class)
+public class BinaryUuidPersistentObjectSupport_ extends BinaryUuidDomainObjectSupport_ {
+	public static volatile SingularAttribute<BinaryUuidPersistentObjectSupport, Long> id;
+	public static volatile SingularAttribute<BinaryUuidPersistentObjectSupport, Long> version;
+}
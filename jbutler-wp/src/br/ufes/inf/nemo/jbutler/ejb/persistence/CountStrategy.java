@@ -0,0 +1,37 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence;
+
+/**
+ * Strategies that the DAOs can use to count persistent objects. Exact counts require the database to visit every
+ * object that matches the query, which is the slowest part of listing huge tables. When users only need to know the
+ * order of magnitude of the number of objects (e.g., "about 2.3M results"), listings can use one of the cheaper, but
+ * approximate, strategies.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#retrieveCount(CountStrategy)
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+public enum CountStrategy {
+	/** Counts the objects in the database every time. */
+	EXACT,
+
+	/** Counts the objects in the database and reuses the count for a while (see BaseJPADAO#getCountCacheTimeToLive()). */
+	CACHED,
+
+	/**
+	 * Estimates the count using statistics kept by the database (see BaseJPADAO#retrieveStatisticsCount()) and, for
+	 * filtered counts, by counting the objects that match the filters in a sample and extrapolating. DAOs that don't
+	 * provide statistics fall back to a full count of the objects, reused as in the CACHED strategy.
+	 */
+	ESTIMATED;
+
+	/**
+	 * Informs if counts obtained with this strategy may differ from the actual number of objects.
+	 * 
+	 * @return <code>true</code> if the strategy is not exact, <code>false</code> otherwise.
+	 */
+	public boolean isApproximate() {
+		return this != EXACT;
+	}
+}
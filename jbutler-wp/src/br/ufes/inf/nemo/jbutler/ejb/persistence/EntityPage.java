@@ -0,0 +1,93 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A page of persistent objects (or of rows with some of their attributes, see EntityRow) retrieved from a listing,
+ * together with the total number of objects in the listing (i.e., the ones that match the filters used to build the
+ * page). Returned by DAO operations that retrieve both the page and the count in a single call, so listing screens
+ * don't need to ask for them separately.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @param <T>
+ *          Persistent class of the objects in the page (or EntityRow, for pages of rows).
+ * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+public class EntityPage<T> implements Serializable {
+	/** Serialization id. */
+	private static final long serialVersionUID = 1L;
+
+	/** The objects in the page. */
+	private List<T> entities;
+
+	/** The total number of objects in the listing. */
+	private long total;
+
+	/** Indicates if the total is an approximation (see CountStrategy). */
+	private boolean approximate;
+
+	/**
+	 * Constructor using fields.
+	 * 
+	 * @param entities
+	 *          The objects in the page.
+	 * @param total
+	 *          The total number of objects in the listing.
+	 */
+	public EntityPage(List<T> entities, long total) {
+		this(entities, total, false);
+	}
+
+	/**
+	 * Constructor using fields.
+	 * 
+	 * @param entities
+	 *          The objects in the page.
+	 * @param total
+	 *          The total number of objects in the listing.
+	 * @param approximate
+	 *          Indicates if the total is an approximation.
+	 */
+	public EntityPage(List<T> entities, long total, boolean approximate) {
+		this.entities = entities;
+		this.total = total;
+		this.approximate = approximate;
+	}
+
+	/**
+	 * Getter for entities.
+	 * 
+	 * @return The objects in the page.
+	 */
+	public List<T> getEntities() {
+		return entities;
+	}
+
+	/**
+	 * Getter for total.
+	 * 
+	 * @return The total number of objects in the listing.
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * Getter for approximate.
+	 * 
+	 * @return <code>true</code> if the total is an approximation, <code>false</code> if it is exact.
+	 */
+	public boolean isApproximate() {
+		return approximate;
+	}
+
+	/** @see java.lang.Object#toString() */
+	@Override
+	public String toString() {
+		return "EntityPage (size: " + entities.size() + "; total: " + (approximate ? "~" : "") + total + ")";
+	}
+}
@@ -0,0 +1,26 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence;
+
+/**
+ * Callback used by the DAOs to process persistent objects one at a time, without loading all of them into memory.
+ * Useful for exports and batch jobs over large sets of objects.
+ * 
+ * Objects are detached from the persistence context after being processed, so changes made to them by the processor are
+ * not persisted, unless they are explicitly saved.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @param <T>
+ *          Persistent class of the objects to be processed.
+ * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#forEach(EntityProcessor)
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+public interface EntityProcessor<T extends PersistentObject> {
+	/**
+	 * Processes a persistent object.
+	 * 
+	 * @param object
+	 *          The object to be processed.
+	 */
+	void process(T object);
+}
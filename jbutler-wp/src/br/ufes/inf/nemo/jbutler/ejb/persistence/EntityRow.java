@@ -0,0 +1,95 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A lightweight row of a listing, holding only some attributes of a persistent object instead of the object itself.
+ * Retrieved by projection queries, which select only the columns that are displayed in the listing, so listing screens
+ * don't have to load whole objects (and their eager associations) to show a few of their attributes.
+ * 
+ * Values are indexed by the path of their attributes, separated by dots for attributes of associated objects (e.g.,
+ * <code>"name"</code> or <code>"publisher.name"</code>). In JSF pages, they can be accessed with the bracket notation,
+ * e.g., <code>#{row.values['publisher.name']}</code>.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+public class EntityRow implements Serializable {
+	/** Serialization id. */
+	private static final long serialVersionUID = 1L;
+
+	/** The id of the persistent object. */
+	private Long id;
+
+	/** The UUID of the persistent object. */
+	private String uuid;
+
+	/** The values of the selected attributes, indexed by their paths. */
+	private Map<String, Object> values;
+
+	/**
+	 * Constructor using fields.
+	 * 
+	 * @param id
+	 *          The id of the persistent object.
+	 * @param uuid
+	 *          The UUID of the persistent object.
+	 * @param values
+	 *          The values of the selected attributes, indexed by their paths.
+	 */
+	public EntityRow(Long id, String uuid, Map<String, Object> values) {
+		this.id = id;
+		this.uuid = uuid;
+		this.values = Collections.unmodifiableMap(values);
+	}
+
+	/**
+	 * Getter for id.
+	 * 
+	 * @return The id of the persistent object.
+	 */
+	public Long getId() {
+		return id;
+	}
+
+	/**
+	 * Getter for uuid.
+	 * 
+	 * @return The UUID of the persistent object.
+	 */
+	public String getUuid() {
+		return uuid;
+	}
+
+	/**
+	 * Getter for values.
+	 * 
+	 * @return The values of the selected attributes, indexed by their paths.
+	 */
+	public Map<String, Object> getValues() {
+		return values;
+	}
+
+	/**
+	 * Provides the value of one of the selected attributes.
+	 * 
+	 * @param path
+	 *          The path of the attribute.
+	 * 
+	 * @return The value of the attribute or <code>null</code>, if it's null or it hasn't been selected.
+	 */
+	public Object get(String path) {
+		return values.get(path);
+	}
+
+	/** @see java.lang.Object#toString() */
+	@Override
+	public String toString() {
+		return "EntityRow (id: " + id + "; values: " + values + ")";
+	}
+}
@@ -0,0 +1,64 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Names the attributes of a persistent class that should be loaded together with its objects, in the same query, so
+ * lazy associations that a screen is going to display don't have to be loaded one by one (the N+1 selects problem)
+ * and don't need to be mapped as eager. Attributes are named by their paths, separated by dots for attributes of
+ * associated objects (e.g., <code>"authors"</code> or <code>"publisher.address"</code>).
+ * 
+ * DAOs apply fetch plans as JPA entity graphs (see BaseDAO#retrieveById(Long, FetchPlan) and
+ * BaseDAO#fetch(List, FetchPlan)). Services declare which plans to use for listings and forms.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @see br.ufes.inf.nemo.jbutler.ejb.application.ListingServiceBean#getListingFetchPlan()
+ * @see br.ufes.inf.nemo.jbutler.ejb.application.CrudServiceBean#getFormFetchPlan()
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+public class FetchPlan implements Serializable {
+	/** Serialization id. */
+	private static final long serialVersionUID = 1L;
+
+	/** The paths of the attributes to be loaded. */
+	private List<String> paths;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param paths
+	 *          The paths of the attributes to be loaded, separated by dots for attributes of associated objects.
+	 */
+	public FetchPlan(String ... paths) {
+		this.paths = Collections.unmodifiableList(Arrays.asList(paths.clone()));
+	}
+
+	/**
+	 * Getter for paths.
+	 * 
+	 * @return The paths of the attributes to be loaded.
+	 */
+	public List<String> getPaths() {
+		return paths;
+	}
+
+	/**
+	 * Informs if the plan has no attributes to be loaded.
+	 * 
+	 * @return <code>true</code> if there are no paths in the plan, <code>false</code> otherwise.
+	 */
+	public boolean isEmpty() {
+		return paths.isEmpty();
+	}
+
+	/** @see java.lang.Object#toString() */
+	@Override
+	public String toString() {
+		return "FetchPlan " + paths;
+	}
+}
@@ -0,0 +1,49 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence;
+
+/**
+ * Settings of the optional block allocation of identifiers, used by PooledIdPersistentObjectSupport. By default,
+ * PersistentObjectSupport and BinaryUuidPersistentObjectSupport keep GenerationType.AUTO, so existing databases
+ * continue to use the sequence or table the persistence provider already created for them. Domain classes that insert
+ * many objects at once can opt in by extending PooledIdPersistentObjectSupport instead, whose table generator reserves
+ * ids in blocks of ALLOCATION_SIZE: each JVM reserves a block by incrementing the value stored in the generator table
+ * (which the database serializes, making it safe for concurrent nodes) and then assigns the ids of the block in memory.
+ * Inserting many objects then costs one round trip to the generator table per block instead of one per object, and
+ * leaves JDBC batching of the inserts possible.
+ * 
+ * When switching a class that already has data, the generator row must be seeded before the application starts,
+ * otherwise the generator starts from its initial value and assigns ids that are already taken. Insert the row with a
+ * value greater than the largest id of all tables mapped to PooledIdPersistentObjectSupport (which share the same
+ * row), e.g.:
+ * <code>INSERT INTO jbutler_id_generator (generator, next_value) SELECT 'id', COALESCE(MAX(id), 0) + 1 FROM ...</code>,
+ * taking the maximum over every such table. Note that, with Hibernate, the hibernate.id.new_generator_mappings property
+ * changes which values are stored in the row, so it must not be switched on an existing table either.
+ * 
+ * The allocation size matches the default batch size of the DAOs (see BaseJPADAO#getBatchSize()).
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+public final class IdGeneration {
+	/** Name of the identifier generator used by PooledIdPersistentObjectSupport. */
+	public static final String GENERATOR = "jbutlerIdGenerator";
+
+	/** Name of the table that stores the next block of ids to be allocated. */
+	public static final String TABLE = "jbutler_id_generator";
+
+	/** Name of the column that identifies the generator in the table. */
+	public static final String PK_COLUMN = "generator";
+
+	/** Value that identifies the row of the generator table, shared by all PooledIdPersistentObjectSupport classes. */
+	public static final String PK_VALUE = "id";
+
+	/** Name of the column that stores the next block of ids in the table. */
+	public static final String VALUE_COLUMN = "next_value";
+
+	/** Number of ids allocated at once by each JVM. */
+	public static final int ALLOCATION_SIZE = 50;
+
+	/** Private constructor, as this class should not be instantiated. */
+	private IdGeneration() {}
+}
@@ -0,0 +1,68 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Position in an ordered listing of persistent objects, used for keyset (seek) pagination. Instead of telling the
+ * database how many rows to skip (OFFSET), the next page is requested as "the rows that come after this one", which
+ * allows the database to seek directly into the index that supports the ordering, making every page cost the same
+ * regardless of its depth.
+ * 
+ * A cursor holds the values of the ordering keys (as returned by the DAO's order list) of the last object of a page,
+ * followed by that object's id, which is always used as a tie-breaker. Cursors are created by the DAO through
+ * <code>createCursor()</code> and should be treated as opaque by other layers.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseDAO#createCursor(PersistentObject)
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+public class KeysetCursor implements Serializable {
+	/** Serialization id. */
+	private static final long serialVersionUID = 1L;
+
+	/** Values of the ordering keys of the last object of the page, in the same order as the DAO's order list. */
+	private Object[] keys;
+
+	/** The id of the last object of the page, used as tie-breaker. */
+	private Long id;
+
+	/**
+	 * Constructor using fields.
+	 * 
+	 * @param keys
+	 *          Values of the ordering keys of the last object of the page, in the same order as the DAO's order list.
+	 * @param id
+	 *          The id of the last object of the page, used as tie-breaker.
+	 */
+	public KeysetCursor(Object[] keys, Long id) {
+		this.keys = keys;
+		this.id = id;
+	}
+
+	/**
+	 * Getter for keys.
+	 * 
+	 * @return The values of the ordering keys of the last object of the page.
+	 */
+	public Object[] getKeys() {
+		return keys;
+	}
+
+	/**
+	 * Getter for id.
+	 * 
+	 * @return The id of the last object of the page.
+	 */
+	public Long getId() {
+		return id;
+	}
+
+	/** @see java.lang.Object#toString() */
+	@Override
+	public String toString() {
+		return "KeysetCursor (keys: " + Arrays.toString(keys) + "; id: " + id + ")";
+	}
+}
@@ -17,14 +17,14 @@ import br.ufes.inf.nemo.jbutler.ejb.domain.DomainObjectSupport;
  * 
  * @see br.ufes.inf.nemo.jbutler.ejb.domain.DomainObjectSupport
  * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
- * @version 1.1
+ * @version 1.2
  */
 @MappedSuperclass
 public abstract class PersistentObjectSupport extends DomainObjectSupport implements PersistentObject {
 	/** Serialization id. */
 	private static final long serialVersionUID = 1L;
 
-	/** Identifier attribute (primary-key). */
+	/** Identifier attribute (primary-key). See PooledIdPersistentObjectSupport for allocation in blocks. */
 	@Id
 	@GeneratedValue(strategy = GenerationType.AUTO)
 	private Long id;
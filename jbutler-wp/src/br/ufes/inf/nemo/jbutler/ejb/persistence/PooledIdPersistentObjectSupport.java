@@ -0,0 +1,87 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence;
+
+import javax.persistence.Column;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.MappedSuperclass;
+import javax.persistence.TableGenerator;
+import javax.persistence.Version;
+
+import br.ufes.inf.nemo.jbutler.ejb.domain.DomainObjectSupport;
+
+/**
+ * Implementation for persistent objects equivalent to PersistentObjectSupport, except that identifiers are allocated
+ * in blocks by the table generator described in IdGeneration. Domain classes whose objects are often inserted many at
+ * once (e.g., through BaseDAO.saveAll()) can extend this class instead of PersistentObjectSupport, so the persistence
+ * provider obtains a block of identifiers every IdGeneration.ALLOCATION_SIZE inserts instead of one per insert.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @see br.ufes.inf.nemo.jbutler.ejb.persistence.PersistentObjectSupport
+ * @see br.ufes.inf.nemo.jbutler.ejb.persistence.IdGeneration
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+@MappedSuperclass
+public abstract class PooledIdPersistentObjectSupport extends DomainObjectSupport implements PersistentObject {
+	/** Serialization id. */
+	private static final long serialVersionUID = 1L;
+
+	/** Identifier attribute (primary-key), allocated in blocks by a table generator. */
+	@Id
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = IdGeneration.GENERATOR)
+	@TableGenerator(name = IdGeneration.GENERATOR, table = IdGeneration.TABLE, pkColumnName = IdGeneration.PK_COLUMN,
+			valueColumnName = IdGeneration.VALUE_COLUMN, pkColumnValue = IdGeneration.PK_VALUE,
+			allocationSize = IdGeneration.ALLOCATION_SIZE)
+	private Long id;
+
+	/** Versioning attribute. */
+	@Version
+	@Column(nullable = false)
+	private Long version;
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.PersistentObject#getId() */
+	@Override
+	public Long getId() {
+		return id;
+	}
+
+	/**
+	 * Setter for id.
+	 * 
+	 * @param id
+	 *            The identifier attribute (primary-key).
+	 */
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.PersistentObject#getVersion() */
+	@Override
+	public Long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Setter for version.
+	 * 
+	 * @param version
+	 *            The versioning attribute.
+	 */
+	protected void setVersion(Long version) {
+		this.version = version;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.PersistentObject#isPersistent() */
+	@Override
+	public boolean isPersistent() {
+		return (id != null);
+	}
+
+	/** @see java.lang.Object#toString() */
+	@Override
+	public String toString() {
+		return "Instance of " + getClass().getName() + " (id: " + id + "; uuid: " + uuid + ")";
+	}
+}
@@ -0,0 +1,19 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence;
+
+import javax.persistence.metamodel.SingularAttribute;
+import javax.persistence.metamodel.StaticMetamodel;
+
+import br.ufes.inf.nemo.jbutler.ejb.domain.DomainObjectSupport_;
+
+/**
+ * Meta-model for the PooledIdPersistentObjectSupport domain class, which allows DAOs to perform programmatic queries
+ * using JPA2's Criteria API.
+ * 
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @see br.ufes.inf.nemo.jbutler.ejb.persistence.PooledIdPersistentObjectSupport
+ */
+@StaticMetamodel(PooledIdPersistentObjectSupport.class)
+public class PooledIdPersistentObjectSupport_ extends DomainObjectSupport_ {
+	public static volatile SingularAttribute<PooledIdPersistentObjectSupport, Long> id;
+	public static volatile SingularAttribute<PooledIdPersistentObjectSupport, Long> version;
+}
@@ -0,0 +1,92 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A thread-safe map with a maximum number of entries. When the maximum is reached, the least recently used entry is
+ * evicted to make room for the new one. Used by the DAOs to keep small amounts of frequently used data in memory (e.g.,
+ * the ids that correspond to UUIDs).
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @param <K>
+ *          Type of the keys.
+ * @param <V>
+ *          Type of the values.
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+public class BoundedCache<K, V> {
+	/** The entries, in access order (the least recently used first). */
+	private final Map<K, V> entries;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param maxSize
+	 *          The maximum number of entries in the cache.
+	 */
+	public BoundedCache(final int maxSize) {
+		entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+			/** Serialization id. */
+			private static final long serialVersionUID = 1L;
+
+			/** @see java.util.LinkedHashMap#removeEldestEntry(java.util.Map.Entry) */
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Retrieves an entry from the cache.
+	 * 
+	 * @param key
+	 *          The key of the entry.
+	 * 
+	 * @return The value associated with the key or <code>null</code>, if the key is not in the cache.
+	 */
+	public synchronized V get(K key) {
+		return entries.get(key);
+	}
+
+	/**
+	 * Adds an entry to the cache, evicting the least recently used one if the cache is full.
+	 * 
+	 * @param key
+	 *          The key of the entry.
+	 * @param value
+	 *          The value to associate with the key.
+	 */
+	public synchronized void put(K key, V value) {
+		entries.put(key, value);
+	}
+
+	/**
+	 * Removes an entry from the cache.
+	 * 
+	 * @param key
+	 *          The key of the entry.
+	 */
+	public synchronized void remove(K key) {
+		entries.remove(key);
+	}
+
+	/**
+	 * Removes all entries from the cache.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Informs how many entries there are in the cache.
+	 * 
+	 * @return The number of entries in the cache.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+}
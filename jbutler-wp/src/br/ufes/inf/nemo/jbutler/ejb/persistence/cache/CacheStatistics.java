@@ -0,0 +1,100 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence.cache;
+
+import java.io.Serializable;
+
+/**
+ * Snapshot of the counters of a cache: how many lookups found an entry (hits), how many didn't (misses) and how many
+ * entries were evicted to respect the maximum size of the cache.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+public class CacheStatistics implements Serializable {
+	/** Serialization id. */
+	private static final long serialVersionUID = 1L;
+
+	/** The number of lookups that found an entry. */
+	private long hitCount;
+
+	/** The number of lookups that didn't find an entry. */
+	private long missCount;
+
+	/** The number of entries evicted from the cache. */
+	private long evictionCount;
+
+	/** The number of entries in the cache. */
+	private int size;
+
+	/**
+	 * Constructor using fields.
+	 * 
+	 * @param hitCount
+	 *          The number of lookups that found an entry.
+	 * @param missCount
+	 *          The number of lookups that didn't find an entry.
+	 * @param evictionCount
+	 *          The number of entries evicted from the cache.
+	 * @param size
+	 *          The number of entries in the cache.
+	 */
+	public CacheStatistics(long hitCount, long missCount, long evictionCount, int size) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+		this.size = size;
+	}
+
+	/**
+	 * Getter for hitCount.
+	 * 
+	 * @return The number of lookups that found an entry.
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Getter for missCount.
+	 * 
+	 * @return The number of lookups that didn't find an entry.
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Getter for evictionCount.
+	 * 
+	 * @return The number of entries evicted from the cache.
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Getter for size.
+	 * 
+	 * @return The number of entries in the cache.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Calculates the ratio of lookups that found an entry.
+	 * 
+	 * @return The hit ratio, between 0 and 1 (1, if there were no lookups).
+	 */
+	public double getHitRatio() {
+		long lookups = hitCount + missCount;
+		return (lookups == 0) ? 1.0 : (double) hitCount / lookups;
+	}
+
+	/** @see java.lang.Object#toString() */
+	@Override
+	public String toString() {
+		return "CacheStatistics (hits: " + hitCount + "; misses: " + missCount + "; evictions: " + evictionCount + "; size: " + size + ")";
+	}
+}
@@ -0,0 +1,76 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence.cache;
+
+import java.io.Serializable;
+
+/**
+ * Snapshot of the counters of a SingleFlight: how many operations were actually executed and how many calls waited for
+ * the result of an identical operation that was already being executed (coalesced calls).
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ * @see br.ufes.inf.nemo.jbutler.ejb.persistence.cache.SingleFlight
+ */
+public class CoalescingStatistics implements Serializable {
+	/** Serialization id. */
+	private static final long serialVersionUID = 1L;
+
+	/** The number of operations that were actually executed. */
+	private long executionCount;
+
+	/** The number of calls that waited for an operation executed by another caller. */
+	private long coalescedCount;
+
+	/** The number of operations being executed at the moment. */
+	private int inFlightCount;
+
+	/**
+	 * Constructor using fields.
+	 * 
+	 * @param executionCount
+	 *          The number of operations that were actually executed.
+	 * @param coalescedCount
+	 *          The number of calls that waited for an operation executed by another caller.
+	 * @param inFlightCount
+	 *          The number of operations being executed at the moment.
+	 */
+	public CoalescingStatistics(long executionCount, long coalescedCount, int inFlightCount) {
+		this.executionCount = executionCount;
+		this.coalescedCount = coalescedCount;
+		this.inFlightCount = inFlightCount;
+	}
+
+	/**
+	 * Getter for executionCount.
+	 * 
+	 * @return The number of operations that were actually executed.
+	 */
+	public long getExecutionCount() {
+		return executionCount;
+	}
+
+	/**
+	 * Getter for coalescedCount.
+	 * 
+	 * @return The number of calls that waited for an operation executed by another caller.
+	 */
+	public long getCoalescedCount() {
+		return coalescedCount;
+	}
+
+	/**
+	 * Getter for inFlightCount.
+	 * 
+	 * @return The number of operations being executed at the moment.
+	 */
+	public int getInFlightCount() {
+		return inFlightCount;
+	}
+
+	/** @see java.lang.Object#toString() */
+	@Override
+	public String toString() {
+		return "CoalescingStatistics (executions: " + executionCount + "; coalesced: " + coalescedCount + "; in flight: " + inFlightCount + ")";
+	}
+}
@@ -0,0 +1,120 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence.cache;
+
+/**
+ * Approximate counter of how often keys are used, implemented as a Count-Min sketch of 4-bit counters. Each key is
+ * mapped to four counters and its frequency is estimated as the smallest of them. After a number of increments
+ * proportional to the size of the cache, all counters are halved, so the frequencies reflect recent usage.
+ * 
+ * Used by TinyLfuCache to decide whether a new entry is worth keeping in place of an old one. Not thread-safe: the cache
+ * synchronizes the access to it.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ * @see br.ufes.inf.nemo.jbutler.ejb.persistence.cache.TinyLfuCache
+ */
+class FrequencySketch {
+	/** Seeds used to map a key to its four counters. */
+	private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+	/** Maximum value of a counter. */
+	private static final int MAX_COUNT = 15;
+
+	/** The counters, one per byte (only the lower four bits are used), four times as many as the entries of the cache. */
+	private final byte[] counters;
+
+	/** Mask used to map hashes to positions in the array of counters, which has a size that is a power of two. */
+	private final int mask;
+
+	/** The number of increments after which the counters are halved. */
+	private final int sampleSize;
+
+	/** The number of increments since the counters were last halved. */
+	private int additions;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param maxSize
+	 *          The maximum number of entries of the cache whose keys are counted.
+	 */
+	FrequencySketch(int maxSize) {
+		int length = Integer.highestOneBit(4 * Math.max(maxSize, 8) - 1) << 1;
+		counters = new byte[length];
+		mask = length - 1;
+		sampleSize = 10 * Math.max(maxSize, 8);
+	}
+
+	/**
+	 * Estimates how often a key has been used recently.
+	 * 
+	 * @param key
+	 *          The key.
+	 * 
+	 * @return The estimated frequency, between 0 and 15.
+	 */
+	int frequency(Object key) {
+		int hash = spread(key.hashCode());
+		int frequency = MAX_COUNT;
+		for (int i = 0; i < SEEDS.length; i++)
+			frequency = Math.min(frequency, counters[indexOf(hash, i)]);
+		return frequency;
+	}
+
+	/**
+	 * Records a use of a key, halving all counters if the sample size has been reached.
+	 * 
+	 * @param key
+	 *          The key.
+	 */
+	void increment(Object key) {
+		int hash = spread(key.hashCode());
+		boolean added = false;
+		for (int i = 0; i < SEEDS.length; i++) {
+			int index = indexOf(hash, i);
+			if (counters[index] < MAX_COUNT) {
+				counters[index]++;
+				added = true;
+			}
+		}
+		if (added && (++additions == sampleSize)) reset();
+	}
+
+	/** Halves all counters, so old uses weigh less than recent ones. */
+	private void reset() {
+		for (int i = 0; i < counters.length; i++)
+			counters[i] >>>= 1;
+		additions /= 2;
+	}
+
+	/**
+	 * Mixes the bits of a hash code, as keys such as ids produce sequential hash codes.
+	 * 
+	 * @param hashCode
+	 *          The hash code of a key.
+	 * 
+	 * @return The mixed hash.
+	 */
+	private static int spread(int hashCode) {
+		int x = ((hashCode >>> 16) ^ hashCode) * 0x45d9f3b;
+		x = ((x >>> 16) ^ x) * 0x45d9f3b;
+		return (x >>> 16) ^ x;
+	}
+
+	/**
+	 * Determines the position of one of the four counters of a key.
+	 * 
+	 * @param hash
+	 *          The mixed hash of the key.
+	 * @param i
+	 *          Which of the four counters.
+	 * 
+	 * @return The position of the counter in the array.
+	 */
+	private int indexOf(int hash, int i) {
+		long h = (hash + SEEDS[i]) * SEEDS[i];
+		h += (h >>> 32);
+		return ((int) h) & mask;
+	}
+}
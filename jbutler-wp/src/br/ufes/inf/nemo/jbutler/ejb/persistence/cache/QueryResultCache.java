@@ -0,0 +1,176 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * A thread-safe map whose entries expire after a fixed amount of time and whose total size is limited by a memory
+ * budget instead of a number of entries. Each entry is added with an estimate of how much memory it takes (its weight)
+ * and, when the sum of the weights goes over the budget, the least recently used entries are evicted. Used by the DAOs
+ * to keep the results of queries (ids and counts) in memory.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @param <K>
+ *          Type of the keys.
+ * @param <V>
+ *          Type of the values.
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+public class QueryResultCache<K, V> {
+	/** The maximum sum of the weights of the entries (e.g., in bytes). */
+	private final long budget;
+
+	/** How long entries are kept after they are added, in milliseconds. */
+	private final long timeToLive;
+
+	/** The entries, in access order (the least recently used first). */
+	private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true);
+
+	/** The sum of the weights of the entries. */
+	private long weight;
+
+	/** The number of lookups that found an entry. */
+	private long hitCount;
+
+	/** The number of lookups that didn't find an entry (including expired ones). */
+	private long missCount;
+
+	/** The number of entries evicted to respect the budget. */
+	private long evictionCount;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param budget
+	 *          The maximum sum of the weights of the entries (e.g., in bytes).
+	 * @param timeToLive
+	 *          How long entries are kept after they are added, in milliseconds.
+	 */
+	public QueryResultCache(long budget, long timeToLive) {
+		this.budget = budget;
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * Retrieves an entry from the cache, unless it has expired.
+	 * 
+	 * @param key
+	 *          The key of the entry.
+	 * 
+	 * @return The value associated with the key or <code>null</code>, if the key is not in the cache or has expired.
+	 */
+	public synchronized V get(K key) {
+		Entry<V> entry = entries.get(key);
+		if ((entry != null) && (entry.expiresAt < System.currentTimeMillis())) {
+			remove(key);
+			entry = null;
+		}
+
+		if (entry == null) {
+			missCount++;
+			return null;
+		}
+		hitCount++;
+		return entry.value;
+	}
+
+	/**
+	 * Adds an entry to the cache, evicting the least recently used ones if the budget is exceeded. Entries heavier than the
+	 * whole budget are not added.
+	 * 
+	 * @param key
+	 *          The key of the entry.
+	 * @param value
+	 *          The value to associate with the key.
+	 * @param entryWeight
+	 *          An estimate of the memory taken by the entry, in the same unit as the budget.
+	 */
+	public synchronized void put(K key, V value, long entryWeight) {
+		remove(key);
+		if (entryWeight > budget) return;
+		entries.put(key, new Entry<V>(value, entryWeight, System.currentTimeMillis() + timeToLive));
+		weight += entryWeight;
+
+		// Evicts the least recently used entries until the budget is respected.
+		Iterator<Entry<V>> iterator = entries.values().iterator();
+		while (weight > budget) {
+			weight -= iterator.next().weight;
+			iterator.remove();
+			evictionCount++;
+		}
+	}
+
+	/**
+	 * Removes an entry from the cache.
+	 * 
+	 * @param key
+	 *          The key of the entry.
+	 */
+	public synchronized void remove(K key) {
+		Entry<V> entry = entries.remove(key);
+		if (entry != null) weight -= entry.weight;
+	}
+
+	/**
+	 * Removes all entries from the cache.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		weight = 0;
+	}
+
+	/**
+	 * Informs the sum of the weights of the entries in the cache.
+	 * 
+	 * @return The memory taken by the entries, in the same unit as the budget.
+	 */
+	public synchronized long getWeight() {
+		return weight;
+	}
+
+	/**
+	 * Provides the current values of the counters of the cache.
+	 * 
+	 * @return The statistics of the cache.
+	 */
+	public synchronized CacheStatistics getStatistics() {
+		return new CacheStatistics(hitCount, missCount, evictionCount, entries.size());
+	}
+
+	/**
+	 * Internal class that holds a value of the cache, its weight and when it expires.
+	 * 
+	 * @param <V>
+	 *          Type of the value.
+	 * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+	 * @version 1.2
+	 */
+	private static class Entry<V> {
+		/** The value. */
+		final V value;
+
+		/** The weight of the entry. */
+		final long weight;
+
+		/** When the entry expires, in milliseconds since the epoch. */
+		final long expiresAt;
+
+		/**
+		 * Constructor using fields.
+		 * 
+		 * @param value
+		 *          The value.
+		 * @param weight
+		 *          The weight of the entry.
+		 * @param expiresAt
+		 *          When the entry expires, in milliseconds since the epoch.
+		 */
+		Entry(V value, long weight, long expiresAt) {
+			this.value = value;
+			this.weight = weight;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces identical operations that are executed concurrently: the first thread to ask for a key executes the
+ * operation and threads that ask for the same key while it is still running wait for its result instead of executing the
+ * operation again. Once the operation finishes, the key is released, so results are never reused afterwards (that is
+ * what caches are for). Used by the DAOs to avoid sending the same query to the database many times in parallel.
+ * 
+ * The operation is executed by the thread of the first caller, so no extra threads are used. If it fails, all callers
+ * waiting for it receive the same exception.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @param <K>
+ *          Type of the keys that identify the operations.
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+public class SingleFlight<K> {
+	/** The operations currently being executed, indexed by their keys. */
+	private final ConcurrentMap<K, FutureTask<?>> inFlight = new ConcurrentHashMap<K, FutureTask<?>>();
+
+	/** The number of operations that were actually executed. */
+	private final AtomicLong executionCount = new AtomicLong();
+
+	/** The number of calls that waited for an operation executed by another caller. */
+	private final AtomicLong coalescedCount = new AtomicLong();
+
+	/**
+	 * Executes an operation or, if an operation with the same key is already being executed, waits for its result.
+	 * Operations with the same key must produce results of the same type.
+	 * 
+	 * @param key
+	 *          The key that identifies the operation.
+	 * @param operation
+	 *          The operation to be executed.
+	 * 
+	 * @return The result of the operation.
+	 */
+	@SuppressWarnings("unchecked")
+	public <V> V execute(K key, Callable<V> operation) {
+		FutureTask<V> task = new FutureTask<V>(operation);
+		FutureTask<?> running = inFlight.putIfAbsent(key, task);
+
+		// If nobody is executing the operation, executes it in this thread and releases the key.
+		if (running == null) {
+			executionCount.incrementAndGet();
+			try {
+				task.run();
+			}
+			finally {
+				inFlight.remove(key, task);
+			}
+			return getResult(task);
+		}
+
+		// Otherwise, waits for the result of the one that is executing it.
+		coalescedCount.incrementAndGet();
+		return getResult((FutureTask<V>) running);
+	}
+
+	/**
+	 * Obtains the result of an operation, throwing the exception it threw, if any.
+	 * 
+	 * @param task
+	 *          The task that executes the operation.
+	 * 
+	 * @return The result of the operation.
+	 */
+	private <V> V getResult(FutureTask<V> task) {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return task.get();
+				}
+				catch (InterruptedException e) {
+					// The operation is running on behalf of other callers, so it is awaited anyway.
+					interrupted = true;
+				}
+			}
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw new IllegalStateException(cause);
+		}
+		finally {
+			if (interrupted) Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Provides the current values of the counters of executed and coalesced calls.
+	 * 
+	 * @return The statistics of the coalesced operations.
+	 */
+	public CoalescingStatistics getStatistics() {
+		return new CoalescingStatistics(executionCount.get(), coalescedCount.get(), inFlight.size());
+	}
+}
@@ -0,0 +1,195 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence.cache;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A thread-safe map with a maximum number of entries that uses the W-TinyLFU policy to decide which entry to evict when
+ * the maximum is reached. Unlike the LRU policy of BoundedCache, it takes into account how often keys are used, so a
+ * burst of keys used only once (e.g., while an administrator browses through old records) does not flush the entries
+ * that are used all the time.
+ * 
+ * New entries go into a small LRU window (1% of the cache). Entries that leave the window compete for a place in the
+ * main area with the entry that would be evicted from it, and the one whose key has been used more often recently (see
+ * FrequencySketch) stays. The main area is a segmented LRU: entries that are used again while in probation are promoted
+ * to a protected segment (80% of the main area).
+ * 
+ * The cache also counts hits, misses and evictions (see getStatistics()).
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @param <K>
+ *          Type of the keys.
+ * @param <V>
+ *          Type of the values.
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+public class TinyLfuCache<K, V> {
+	/** Maximum number of entries in the window. */
+	private final int windowMaxSize;
+
+	/** Maximum number of entries in the main area (probation and protected segments). */
+	private final int mainMaxSize;
+
+	/** Maximum number of entries in the protected segment. */
+	private final int protectedMaxSize;
+
+	/** Entries that have recently been added, in access order (the least recently used first). */
+	private final LinkedHashMap<K, V> window = new LinkedHashMap<K, V>(16, 0.75f, true);
+
+	/** Entries of the main area that haven't been used since they got there, in access order. */
+	private final LinkedHashMap<K, V> probation = new LinkedHashMap<K, V>(16, 0.75f, true);
+
+	/** Entries of the main area that have been used since they got there, in access order. */
+	private final LinkedHashMap<K, V> protectedSegment = new LinkedHashMap<K, V>(16, 0.75f, true);
+
+	/** The estimated frequencies of the keys. */
+	private final FrequencySketch sketch;
+
+	/** The number of lookups that found an entry. */
+	private long hitCount;
+
+	/** The number of lookups that didn't find an entry. */
+	private long missCount;
+
+	/** The number of entries evicted from the cache. */
+	private long evictionCount;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param maxSize
+	 *          The maximum number of entries in the cache.
+	 */
+	public TinyLfuCache(int maxSize) {
+		windowMaxSize = Math.max(1, maxSize / 100);
+		mainMaxSize = Math.max(1, maxSize - windowMaxSize);
+		protectedMaxSize = mainMaxSize * 80 / 100;
+		sketch = new FrequencySketch(maxSize);
+	}
+
+	/**
+	 * Retrieves an entry from the cache, recording the use of the key.
+	 * 
+	 * @param key
+	 *          The key of the entry.
+	 * 
+	 * @return The value associated with the key or <code>null</code>, if the key is not in the cache.
+	 */
+	public synchronized V get(K key) {
+		sketch.increment(key);
+
+		// Entries in the window or in the protected segment just have their access order updated.
+		V value = window.get(key);
+		if (value == null) value = protectedSegment.get(key);
+
+		// Entries in probation are promoted to the protected segment, which may demote its least recently used entry.
+		if ((value == null) && ((value = probation.remove(key)) != null)) {
+			protectedSegment.put(key, value);
+			if (protectedSegment.size() > protectedMaxSize) {
+				Map.Entry<K, V> demoted = removeEldest(protectedSegment);
+				probation.put(demoted.getKey(), demoted.getValue());
+			}
+		}
+
+		if (value == null) missCount++;
+		else hitCount++;
+		return value;
+	}
+
+	/**
+	 * Adds an entry to the cache, evicting another one (possibly the new one) if the cache is full.
+	 * 
+	 * @param key
+	 *          The key of the entry.
+	 * @param value
+	 *          The value to associate with the key.
+	 */
+	public synchronized void put(K key, V value) {
+		// Existing entries are replaced where they are.
+		if (window.containsKey(key)) window.put(key, value);
+		else if (probation.containsKey(key)) probation.put(key, value);
+		else if (protectedSegment.containsKey(key)) protectedSegment.put(key, value);
+
+		// New entries go into the window. If the window overflows, its least recently used entry moves to the main area.
+		else {
+			sketch.increment(key);
+			window.put(key, value);
+			if (window.size() > windowMaxSize) admit(removeEldest(window));
+		}
+	}
+
+	/**
+	 * Moves an entry that left the window into the probation segment of the main area. If the main area is full, the
+	 * candidate competes with the entry that would be evicted from it and the one with the lower frequency is evicted.
+	 * 
+	 * @param candidate
+	 *          The entry that left the window.
+	 */
+	private void admit(Map.Entry<K, V> candidate) {
+		if (probation.size() + protectedSegment.size() >= mainMaxSize) {
+			LinkedHashMap<K, V> segment = probation.isEmpty() ? protectedSegment : probation;
+			K victim = segment.keySet().iterator().next();
+			evictionCount++;
+			if (sketch.frequency(candidate.getKey()) <= sketch.frequency(victim)) return;
+			segment.remove(victim);
+		}
+		probation.put(candidate.getKey(), candidate.getValue());
+	}
+
+	/**
+	 * Removes the least recently used entry of a segment.
+	 * 
+	 * @param segment
+	 *          The segment, which must not be empty.
+	 * 
+	 * @return The entry that has been removed.
+	 */
+	private Map.Entry<K, V> removeEldest(LinkedHashMap<K, V> segment) {
+		Iterator<Map.Entry<K, V>> iterator = segment.entrySet().iterator();
+		Map.Entry<K, V> eldest = iterator.next();
+		Map.Entry<K, V> result = new AbstractMap.SimpleImmutableEntry<K, V>(eldest);
+		iterator.remove();
+		return result;
+	}
+
+	/**
+	 * Removes an entry from the cache.
+	 * 
+	 * @param key
+	 *          The key of the entry.
+	 */
+	public synchronized void remove(K key) {
+		if (window.remove(key) == null && probation.remove(key) == null) protectedSegment.remove(key);
+	}
+
+	/**
+	 * Removes all entries from the cache. The frequencies of the keys and the counters are kept.
+	 */
+	public synchronized void clear() {
+		window.clear();
+		probation.clear();
+		protectedSegment.clear();
+	}
+
+	/**
+	 * Informs how many entries there are in the cache.
+	 * 
+	 * @return The number of entries in the cache.
+	 */
+	public synchronized int size() {
+		return window.size() + probation.size() + protectedSegment.size();
+	}
+
+	/**
+	 * Provides the current values of the counters of the cache.
+	 * 
+	 * @return The statistics of the cache.
+	 */
+	public synchronized CacheStatistics getStatistics() {
+		return new CacheStatistics(hitCount, missCount, evictionCount, size());
+	}
+}
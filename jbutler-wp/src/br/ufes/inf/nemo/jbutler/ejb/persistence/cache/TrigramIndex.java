@@ -0,0 +1,337 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A thread-safe, in-memory inverted index that finds the ids of the objects whose value (e.g., a name or a title)
+ * contains a given string, ignoring case. Used by the DAOs to answer substring searches (LIKE '%value%') without
+ * scanning the whole table, which cannot use regular indexes.
+ * 
+ * Values are broken into trigrams (every sequence of three consecutive characters), each of them pointing to the ids of
+ * the objects whose value contains it. A search intersects the ids of the trigrams of the searched string, starting
+ * from the rarest one, and then confirms each candidate against its value, so results are exact. Searches for strings
+ * shorter than three characters cannot be answered by the index.
+ * 
+ * The index is filled by a scan of the objects (see tryStartBuilding(), putScanned() and finishBuilding()) and kept up
+ * to date as objects are saved and deleted. Until it's ready, it shouldn't be used for searches.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+public class TrigramIndex {
+	/** Number of characters in each gram. */
+	private static final int GRAM_SIZE = 3;
+
+	/** The ids of the objects whose value contains each trigram. */
+	private final Map<String, Set<Long>> postings = new HashMap<String, Set<Long>>();
+
+	/** The (lower-cased) value of each indexed object, used to update the index and confirm search results. */
+	private final Map<Long, String> values = new HashMap<Long, String>();
+
+	/** Lock that allows many searches at the same time, but changes one at a time. */
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/** Indicates if the index is being (or has been) built. */
+	private final AtomicBoolean building = new AtomicBoolean();
+
+	/** Indicates if the index has been built and can be used for searches. */
+	private volatile boolean ready;
+
+	/** Number of times the index has been cleared, so builds that started before a clear are not marked as ready. */
+	private long generation;
+
+	/** Ids of the objects changed while the index is being built, whose values read by the scan may be outdated. */
+	private final Set<Long> changedWhileBuilding = new HashSet<Long>();
+
+	/**
+	 * Indexes the value of an object, replacing its previous value, if any.
+	 * 
+	 * @param id
+	 *          The id of the object.
+	 * @param value
+	 *          The value of the object. If <code>null</code>, the object is removed from the index.
+	 */
+	public void put(long id, String value) {
+		lock.writeLock().lock();
+		try {
+			recordChange(id);
+			doPut(id, value);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Indexes the value of an object read by the scan that builds the index, unless the object has been changed since the
+	 * build started, in which case the value read may be outdated and the one given by put() or remove() is kept.
+	 * 
+	 * @param id
+	 *          The id of the object.
+	 * @param value
+	 *          The value of the object, as read by the scan.
+	 */
+	public void putScanned(long id, String value) {
+		lock.writeLock().lock();
+		try {
+			if (!changedWhileBuilding.contains(id)) doPut(id, value);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes an object from the index.
+	 * 
+	 * @param id
+	 *          The id of the object.
+	 */
+	public void remove(long id) {
+		lock.writeLock().lock();
+		try {
+			recordChange(id);
+			doRemove(id);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes all objects from the index and marks it as not ready, so it has to be built again before being used.
+	 */
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			ready = false;
+			building.set(false);
+			generation++;
+			changedWhileBuilding.clear();
+			postings.clear();
+			values.clear();
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Finds the objects whose value contains the given string, ignoring case.
+	 * 
+	 * @param query
+	 *          The string to be searched.
+	 * 
+	 * @return The ids of the objects that contain the string, in ascending order, or <code>null</code> if the string is
+	 *         too short to be searched in the index.
+	 */
+	public long[] search(String query) {
+		String normalized = query.toLowerCase();
+		Set<String> grams = getGrams(normalized);
+		if (grams.isEmpty()) return null;
+
+		lock.readLock().lock();
+		try {
+			// Obtains the ids of each trigram, starting from the rarest. If one of them is not in the index, nothing matches.
+			List<Set<Long>> candidates = new ArrayList<Set<Long>>(grams.size());
+			for (String gram : grams) {
+				Set<Long> ids = postings.get(gram);
+				if (ids == null) return new long[0];
+				candidates.add(ids);
+			}
+			Set<Long> rarest = candidates.get(0);
+			for (Set<Long> ids : candidates)
+				if (ids.size() < rarest.size()) rarest = ids;
+
+			// Keeps the ids that have all trigrams and whose value really contains the string.
+			long[] result = new long[rarest.size()];
+			int count = 0;
+			for (Long id : rarest) {
+				boolean matches = true;
+				for (Set<Long> ids : candidates)
+					if ((ids != rarest) && !ids.contains(id)) {
+						matches = false;
+						break;
+					}
+				if (matches && values.get(id).contains(normalized)) result[count++] = id;
+			}
+			result = Arrays.copyOf(result, count);
+			Arrays.sort(result);
+			return result;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Provides the number of objects in the index.
+	 * 
+	 * @return The number of indexed objects.
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return values.size();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Marks the index as being built, unless another thread has already done so. The thread that succeeds should obtain
+	 * the generation of the index, scan the objects, put their values in the index with putScanned() and then call
+	 * finishBuilding().
+	 * 
+	 * @return <code>true</code> if the calling thread should build the index, <code>false</code> otherwise.
+	 */
+	public boolean tryStartBuilding() {
+		return building.compareAndSet(false, true);
+	}
+
+	/**
+	 * Informs if the index has been built and can be used for searches.
+	 * 
+	 * @return <code>true</code> if the index is ready, <code>false</code> otherwise.
+	 */
+	public boolean isReady() {
+		return ready;
+	}
+
+	/**
+	 * Provides the generation of the index, i.e., how many times it has been cleared.
+	 * 
+	 * @return The generation of the index.
+	 */
+	public long getGeneration() {
+		lock.readLock().lock();
+		try {
+			return generation;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Marks the index as ready to be used for searches, unless it has been cleared since the build started, in which
+	 * case the values put by the build may be outdated and the index has to be built again.
+	 * 
+	 * @param generation
+	 *          The generation of the index when the build started (see getGeneration()).
+	 * 
+	 * @return <code>true</code> if the index has been marked as ready, <code>false</code> otherwise.
+	 */
+	public boolean finishBuilding(long generation) {
+		lock.writeLock().lock();
+		try {
+			if (generation != this.generation) return false;
+			changedWhileBuilding.clear();
+			ready = true;
+			return true;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Records that an object has been changed, if the index is being built, so its value is not replaced by the one read
+	 * by the scan. Must be called with the write lock held.
+	 * 
+	 * @param id
+	 *          The id of the object.
+	 */
+	private void recordChange(long id) {
+		if (building.get() && !ready) changedWhileBuilding.add(id);
+	}
+
+	/**
+	 * Indexes the value of an object, replacing its previous value, if any. Must be called with the write lock held.
+	 * 
+	 * @param id
+	 *          The id of the object.
+	 * @param value
+	 *          The value of the object. If <code>null</code>, the object is removed from the index.
+	 */
+	private void doPut(long id, String value) {
+		if (value == null) {
+			doRemove(id);
+			return;
+		}
+		String normalized = value.toLowerCase();
+		String previous = values.put(id, normalized);
+		if (normalized.equals(previous)) return;
+		if (previous != null) removePostings(id, previous);
+		for (String gram : getGrams(normalized)) {
+			Set<Long> ids = postings.get(gram);
+			if (ids == null) {
+				ids = new HashSet<Long>();
+				postings.put(gram, ids);
+			}
+			ids.add(id);
+		}
+	}
+
+	/**
+	 * Removes an object from the index. Must be called with the write lock held.
+	 * 
+	 * @param id
+	 *          The id of the object.
+	 */
+	private void doRemove(long id) {
+		String previous = values.remove(id);
+		if (previous != null) removePostings(id, previous);
+	}
+
+	/**
+	 * Removes an object from the ids of the trigrams of its previous value. Must be called with the write lock held.
+	 * 
+	 * @param id
+	 *          The id of the object.
+	 * @param previous
+	 *          The previous (lower-cased) value of the object.
+	 */
+	private void removePostings(long id, String previous) {
+		for (String gram : getGrams(previous)) {
+			Set<Long> ids = postings.get(gram);
+			if (ids != null) {
+				ids.remove(id);
+				if (ids.isEmpty()) postings.remove(gram);
+			}
+		}
+	}
+
+	/**
+	 * Breaks a value into its distinct trigrams.
+	 * 
+	 * @param value
+	 *          The (lower-cased) value.
+	 * 
+	 * @return The trigrams of the value, which is empty if the value is shorter than three characters.
+	 */
+	private static Set<String> getGrams(String value) {
+		Set<String> grams = new HashSet<String>();
+		for (int i = 0; i + GRAM_SIZE <= value.length(); i++)
+			grams.add(value.substring(i, i + GRAM_SIZE));
+		return grams;
+	}
+
+	/** @see java.lang.Object#toString() */
+	@Override
+	public String toString() {
+		return "TrigramIndex (size: " + size() + "; ready: " + ready + ")";
+	}
+}
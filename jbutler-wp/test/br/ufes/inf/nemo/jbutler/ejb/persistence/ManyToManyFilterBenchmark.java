@@ -0,0 +1,178 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence;
+
+import java.util.Locale;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter;
+import br.ufes.inf.nemo.jbutler.ejb.application.filters.ManyToManyFilter;
+
+/**
+ * Benchmark of the many-to-many filters of BaseJPADAO on a dataset with high fan-out, i.e., products associated with
+ * many tags that match the search. Compares the semi-join (EXISTS) used by the DAO with the join followed by DISTINCT
+ * that would otherwise be needed to avoid duplicates, timing the count and the first page of the results.
+ * 
+ * Not run by the build. Run its main() method with the test classpath, optionally giving the number of products, the
+ * number of tags of each product and the number of timed iterations, e.g.:
+ * <code>java -cp target/test-classes:target/classes:&lt;test-dependencies&gt; br.ufes.inf.nemo.jbutler.ejb.persistence.ManyToManyFilterBenchmark 5000 50 20</code>
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+public class ManyToManyFilterBenchmark {
+	/** Number of tags in the database. About half of them match the search. */
+	private static final int TAG_COUNT = 200;
+
+	/** The value searched in the names of the tags. */
+	private static final String SEARCH = "Tag 1";
+
+	/** Size of the page that is retrieved. */
+	private static final int PAGE_SIZE = 20;
+
+	/** Number of iterations run (and discarded) before timing, so the JVM and the database warm up. */
+	private static final int WARM_UP_ITERATIONS = 5;
+
+	/** Query of the count using a join, as the DAO would need without the semi-join. */
+	private static final String JOIN_COUNT_QUERY = "select count(distinct p) from Product p join p.tags t where t.name like :value";
+
+	/** Query of the page using a join, as the DAO would need without the semi-join. */
+	private static final String JOIN_PAGE_QUERY = "select distinct p from Product p join p.tags t where t.name like :value";
+
+	/**
+	 * Fills the database and prints the average time of each query.
+	 * 
+	 * @param args
+	 *          Optionally, the number of products, the number of tags of each product and the number of iterations.
+	 */
+	public static void main(String[] args) {
+		int productCount = (args.length > 0) ? Integer.parseInt(args[0]) : 2000;
+		int fanOut = (args.length > 1) ? Math.min(Integer.parseInt(args[1]), TAG_COUNT) : 50;
+		int iterations = (args.length > 2) ? Integer.parseInt(args[2]) : 10;
+
+		EntityManagerFactory emf = Persistence.createEntityManagerFactory("jbutler-test");
+		try {
+			populate(emf, productCount, fanOut);
+			EntityManager em = emf.createEntityManager();
+			try {
+				run(em, iterations, productCount, fanOut);
+			}
+			finally {
+				em.close();
+			}
+		}
+		finally {
+			emf.close();
+		}
+	}
+
+	/**
+	 * Creates the tags and the products, each product associated with a different sequence of tags.
+	 * 
+	 * @param emf
+	 *          The entity manager factory.
+	 * @param productCount
+	 *          The number of products.
+	 * @param fanOut
+	 *          The number of tags of each product.
+	 */
+	private static void populate(EntityManagerFactory emf, int productCount, int fanOut) {
+		EntityManager em = emf.createEntityManager();
+		try {
+			em.getTransaction().begin();
+			Tag[] tags = new Tag[TAG_COUNT];
+			for (int i = 0; i < TAG_COUNT; i++) {
+				tags[i] = new Tag(String.format(Locale.ROOT, "Tag %03d", i));
+				em.persist(tags[i]);
+			}
+			for (int i = 0; i < productCount; i++) {
+				Product product = new Product("Product " + i);
+				for (int j = 0; j < fanOut; j++)
+					product.getTags().add(tags[(i + j) % TAG_COUNT]);
+				em.persist(product);
+			}
+			em.getTransaction().commit();
+		}
+		finally {
+			em.close();
+		}
+	}
+
+	/**
+	 * Times each query and prints the results.
+	 * 
+	 * @param em
+	 *          The entity manager.
+	 * @param iterations
+	 *          The number of timed iterations.
+	 * @param productCount
+	 *          The number of products.
+	 * @param fanOut
+	 *          The number of tags of each product.
+	 */
+	private static void run(final EntityManager em, int iterations, int productCount, int fanOut) {
+		final ProductJPADAO dao = new ProductJPADAO(em);
+		final Filter<?>[] filters = new Filter<?>[] { new ManyToManyFilter("tag", "tags", "Tag", "name") };
+		final String[] values = new String[] { SEARCH };
+		final String pattern = "%" + SEARCH + "%";
+
+		long joinRows = em.createQuery("select count(p) from Product p join p.tags t where t.name like :value", Long.class).setParameter("value", pattern).getSingleResult();
+		long semiJoinCount = dao.retrieveFilteredCount(filters, values);
+		long joinCount = em.createQuery(JOIN_COUNT_QUERY, Long.class).setParameter("value", pattern).getSingleResult();
+		System.out.printf(Locale.ROOT, "%d products, %d tags each: %d match \"%s\" through %d associations (semi-join count: %d; join count: %d)%n", productCount, fanOut, joinCount, SEARCH, joinRows, semiJoinCount, joinCount);
+
+		time("count, semi-join (EXISTS)", em, iterations, new Runnable() {
+			@Override
+			public void run() {
+				dao.retrieveFilteredCount(filters, values);
+			}
+		});
+		time("count, join + DISTINCT", em, iterations, new Runnable() {
+			@Override
+			public void run() {
+				em.createQuery(JOIN_COUNT_QUERY, Long.class).setParameter("value", pattern).getSingleResult();
+			}
+		});
+		time("page, semi-join (EXISTS)", em, iterations, new Runnable() {
+			@Override
+			public void run() {
+				dao.retrieveSomeWithFilters(filters, values, new int[] { 0, PAGE_SIZE });
+			}
+		});
+		time("page, join + DISTINCT", em, iterations, new Runnable() {
+			@Override
+			public void run() {
+				em.createQuery(JOIN_PAGE_QUERY, Product.class).setParameter("value", pattern).setMaxResults(PAGE_SIZE).getResultList();
+			}
+		});
+	}
+
+	/**
+	 * Runs a query a number of times, after warming up, and prints the average time of each run.
+	 * 
+	 * @param name
+	 *          The name of the query.
+	 * @param em
+	 *          The entity manager, cleared after each run so objects are not reused.
+	 * @param iterations
+	 *          The number of timed iterations.
+	 * @param query
+	 *          The query to be run.
+	 */
+	private static void time(String name, EntityManager em, int iterations, Runnable query) {
+		for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+			query.run();
+			em.clear();
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			query.run();
+			em.clear();
+		}
+		double average = (System.nanoTime() - start) / 1e6 / Math.max(iterations, 1);
+		System.out.printf(Locale.ROOT, "%-28s %10.2f ms%n", name, average);
+	}
+}
@@ -0,0 +1,133 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import br.ufes.inf.nemo.jbutler.ejb.application.filters.Filter;
+import br.ufes.inf.nemo.jbutler.ejb.application.filters.ManyToManyFilter;
+
+/**
+ * Tests the many-to-many filters of BaseJPADAO against an in-memory database: objects associated with many matching
+ * objects must be listed and counted only once.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+public class ManyToManyFilterTest {
+	/** The entity manager factory of the test persistence unit. */
+	private static EntityManagerFactory emf;
+
+	/** The entity manager used by each test. */
+	private EntityManager em;
+
+	/** The DAO under test. */
+	private ProductJPADAO dao;
+
+	/** Filter of products by the names of their tags. */
+	private final Filter<?>[] byTagName = new Filter<?>[] { new ManyToManyFilter("tag", "tags", "Tag", "name") };
+
+	/** Creates the entity manager factory and the objects shared by all tests. */
+	@BeforeClass
+	public static void setUpClass() {
+		emf = Persistence.createEntityManagerFactory("jbutler-test");
+		EntityManager em = emf.createEntityManager();
+		em.getTransaction().begin();
+		Tag red = new Tag("Red"), darkRed = new Tag("Dark red"), blue = new Tag("Blue");
+		em.persist(red);
+		em.persist(darkRed);
+		em.persist(blue);
+
+		// Apple matches "ed" through two tags, which used to list and count it twice.
+		em.persist(new Product("Apple", red, darkRed));
+		em.persist(new Product("Blueberry", blue));
+		em.persist(new Product("Cherry", red));
+		em.persist(new Product("Plum", darkRed, blue));
+		em.getTransaction().commit();
+		em.close();
+	}
+
+	/** Closes the entity manager factory. */
+	@AfterClass
+	public static void tearDownClass() {
+		emf.close();
+	}
+
+	/** Opens an entity manager for the test. */
+	@Before
+	public void setUp() {
+		em = emf.createEntityManager();
+		dao = new ProductJPADAO(em);
+	}
+
+	/** Closes the entity manager of the test. */
+	@After
+	public void tearDown() {
+		em.close();
+	}
+
+	/** Counts products with a tag that matches, once each. */
+	@Test
+	public void countsEachObjectOnce() {
+		assertEquals(3, dao.retrieveFilteredCount(byTagName, new String[] { "ed" }));
+		assertEquals(2, dao.retrieveFilteredCount(byTagName, new String[] { "Blue" }));
+	}
+
+	/** Lists products with a tag that matches, without duplicates, so pages keep their size. */
+	@Test
+	public void listsEachObjectOnce() {
+		assertEquals(names("Apple", "Cherry", "Plum"), names(dao.retrieveWithFilters(byTagName, new String[] { "ed" })));
+		assertEquals(names("Apple", "Cherry"), names(dao.retrieveSomeWithFilters(byTagName, new String[] { "ed" }, new int[] { 0, 2 })));
+		assertEquals(names("Plum"), names(dao.retrieveSomeWithFilters(byTagName, new String[] { "ed" }, new int[] { 2, 4 })));
+	}
+
+	/** Matches the names of the tags as they are, like the other filters of the same type always did. */
+	@Test
+	public void respectsCase() {
+		assertEquals(0, dao.retrieveFilteredCount(byTagName, new String[] { "RED" }));
+		assertEquals(names("Apple", "Cherry"), names(dao.retrieveWithFilters(byTagName, new String[] { "Red" })));
+	}
+
+	/**
+	 * Lists the given names.
+	 * 
+	 * @param names
+	 *          The names.
+	 * 
+	 * @return A list with the names, in order.
+	 */
+	private static List<String> names(String ... names) {
+		List<String> list = new ArrayList<String>();
+		for (String name : names)
+			list.add(name);
+		return list;
+	}
+
+	/**
+	 * Lists the names of the given products.
+	 * 
+	 * @param products
+	 *          The products.
+	 * 
+	 * @return A list with the names of the products, in order.
+	 */
+	private static List<String> names(List<Product> products) {
+		List<String> list = new ArrayList<String>();
+		for (Product product : products)
+			list.add(product.getName());
+		return list;
+	}
+}
@@ -0,0 +1,55 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.persistence.Entity;
+import javax.persistence.ManyToMany;
+
+/**
+ * Entity used by the tests of the persistence layer: a product associated with many tags.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+@Entity
+public class Product extends PersistentObjectSupport {
+	/** Serialization id. */
+	private static final long serialVersionUID = 1L;
+
+	/** The name of the product. */
+	private String name;
+
+	/** The tags of the product. */
+	@ManyToMany
+	private Set<Tag> tags = new HashSet<Tag>();
+
+	/** Constructor used by the persistence provider. */
+	protected Product() {}
+
+	/**
+	 * Constructor using fields.
+	 * 
+	 * @param name
+	 *          The name of the product.
+	 * @param tags
+	 *          The tags of the product.
+	 */
+	public Product(String name, Tag ... tags) {
+		this.name = name;
+		for (Tag tag : tags)
+			this.tags.add(tag);
+	}
+
+	/** Getter for name. */
+	public String getName() {
+		return name;
+	}
+
+	/** Getter for tags. */
+	public Set<Tag> getTags() {
+		return tags;
+	}
+}
@@ -0,0 +1,36 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence;
+
+import javax.persistence.EntityManager;
+
+/**
+ * DAO used by the tests of the persistence layer, working with an entity manager created by the test instead of one
+ * injected by the EJB container.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+public class ProductJPADAO extends BaseJPADAO<Product> {
+	/** Serialization id. */
+	private static final long serialVersionUID = 1L;
+
+	/** The entity manager. */
+	private transient EntityManager entityManager;
+
+	/**
+	 * Constructor using fields.
+	 * 
+	 * @param entityManager
+	 *          The entity manager used by the DAO.
+	 */
+	public ProductJPADAO(EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
+	/** @see br.ufes.inf.nemo.jbutler.ejb.persistence.BaseJPADAO#getEntityManager() */
+	@Override
+	protected EntityManager getEntityManager() {
+		return entityManager;
+	}
+}
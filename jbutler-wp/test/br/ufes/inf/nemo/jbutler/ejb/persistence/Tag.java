@@ -0,0 +1,38 @@
+package br.ufes.inf.nemo.jbutler.ejb.persistence;
+
+import javax.persistence.Entity;
+
+/**
+ * Entity used by the tests of the persistence layer: a tag that can be associated with many products.
+ * 
+ * <i>This class is part of the JButler CRUD framework for EJB3 (Java EE 6).</i>
+ * 
+ * @author Vitor E. Silva Souza (vitorsouza@gmail.com)
+ * @version 1.2
+ */
+@Entity
+public class Tag extends PersistentObjectSupport {
+	/** Serialization id. */
+	private static final long serialVersionUID = 1L;
+
+	/** The name of the tag. */
+	private String name;
+
+	/** Constructor used by the persistence provider. */
+	protected Tag() {}
+
+	/**
+	 * Constructor using fields.
+	 * 
+	 * @param name
+	 *          The name of the tag.
+	 */
+	public Tag(String name) {
+		this.name = name;
+	}
+
+	/** Getter for name. */
+	public String getName() {
+		return name;
+	}
+}